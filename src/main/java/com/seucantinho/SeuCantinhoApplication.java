@@ -2,9 +2,12 @@ package com.seucantinho;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Esta anotação marca a classe principal do aplicativo Spring Boot
 @SpringBootApplication
+// Habilita as tarefas agendadas (ex: verificação de consistência do índice de disponibilidade)
+@EnableScheduling
 public class SeuCantinhoApplication {
 
 	public static void main(String[] args) {
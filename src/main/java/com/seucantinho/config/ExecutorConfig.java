@@ -0,0 +1,110 @@
+package com.seucantinho.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de threads da aplicação. Todos são limitados (threads e fila) para que
+ * um pico de requisições não crie threads sem controle.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool usado pela busca de disponibilidade em várias filiais (uma tarefa por filial).
+     * Com a fila cheia a tarefa é rejeitada e a filial volta marcada na resposta.
+     */
+    @Bean(name = "executorDisponibilidade", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor executorDisponibilidade(
+            @Value("${seucantinho.disponibilidade.fan-out.threads:8}") int threads,
+            @Value("${seucantinho.disponibilidade.fan-out.capacidade-fila:256}") int capacidadeFila) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                threadsNomeadas("disponibilidade-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Workers do ProcessadorPagamentos (chamadas ao gateway). A varredura da outbox só pega
+     * entradas até a capacidade livre, então a rejeição aqui é exceção.
+     */
+    @Bean(name = "executorPagamentos", destroyMethod = "shutdown")
+    public ThreadPoolExecutor executorPagamentos(
+            @Value("${seucantinho.pagamentos.workers.threads:4}") int threads,
+            @Value("${seucantinho.pagamentos.workers.capacidade-fila:64}") int capacidadeFila) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadeFila),
+                threadsNomeadas("pagamento-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Varredura da outbox pedida pelo commit de um pagamento aceito (ProcessadorPagamentos.aoSolicitarPagamento).
+     * Uma thread e uma vaga na fila: com uma varredura rodando e outra já pedida, novos pedidos são descartados,
+     * porque a varredura pedida vai ler também as entradas deles. A thread da requisição só enfileira.
+     */
+    @Bean(name = "executorVarreduraOutbox", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor executorVarreduraOutbox() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1),
+                threadsNomeadas("outbox-"),
+                new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Threads das chamadas ao gateway de pagamento, para que o timeout possa interromper a chamada
+     * sem prender o worker. O bulkhead do GatewayPagamentoProtegido limita as chamadas ao mesmo número de threads.
+     */
+    @Bean(name = "executorGateway", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor executorGateway(
+            @Value("${seucantinho.pagamentos.gateway.max-concorrentes:4}") int maxConcorrentes) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                maxConcorrentes, maxConcorrentes, 60, TimeUnit.SECONDS,
+                // Folga para a vaga do bulkhead que é liberada pouco antes de a thread voltar ao pool
+                new ArrayBlockingQueue<>(maxConcorrentes),
+                threadsNomeadas("gateway-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Conciliação de pagamentos: uma thread para a execução em andamento e outra para ler o próximo
+     * lote do arquivo enquanto o atual é conciliado (uma execução por vez).
+     */
+    @Bean(name = "executorConciliacao", destroyMethod = "shutdown")
+    public ThreadPoolExecutor executorConciliacao() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                2, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(4),
+                threadsNomeadas("conciliacao-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory threadsNomeadas(String prefixo) {
+        AtomicInteger contador = new AtomicInteger();
+        return tarefa -> {
+            Thread thread = new Thread(tarefa, prefixo + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
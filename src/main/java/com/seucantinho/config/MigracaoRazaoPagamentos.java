@@ -0,0 +1,38 @@
+package com.seucantinho.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Converte pagamentos gravados antes do razão (um por reserva, valor em reais) para o modelo atual:
+ * valor em centavos, lançamentos no razão e saldo materializado na reserva. Roda depois do hbm2ddl
+ * e não faz nada em bancos já convertidos.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "seucantinho.pagamentos.migrar-pagamentos-legados", havingValue = "true", matchIfMissing = true)
+public class MigracaoRazaoPagamentos {
+
+    private static final String SCRIPT = "db/migracao-razao-pagamentos.sql";
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public MigracaoRazaoPagamentos(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void migrar() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SCRIPT));
+        populator.setSeparator("@@");
+        populator.execute(dataSource);
+    }
+}
@@ -0,0 +1,37 @@
+package com.seucantinho.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Cria a coluna tsrange e a restrição de exclusão (GiST) da TB_RESERVA quando a estratégia
+ * RESTRICAO_BANCO está ativa. Depende do EntityManagerFactory para rodar depois do hbm2ddl.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "seucantinho.reservas.estrategia", havingValue = "RESTRICAO_BANCO")
+public class RestricaoSobreposicaoReserva {
+
+    private static final String SCRIPT = "db/restricao-sobreposicao-reserva.sql";
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public RestricaoSobreposicaoReserva(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void criarRestricao() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SCRIPT));
+        populator.setSeparator("@@");
+        populator.execute(dataSource);
+    }
+}
@@ -1,8 +1,10 @@
 package com.seucantinho.controller;
 
+import com.seucantinho.dto.PaginaDTO;
 import com.seucantinho.model.Administrador;
 import com.seucantinho.service.AdministradorService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +12,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/administradores")
@@ -39,11 +40,16 @@ public class AdministradorController {
     }
 
     @Operation(summary = "Lista todos os Administradores",
-               description = "Retorna uma lista de todos os administradores cadastrados.")
+               description = "Retorna os administradores cadastrados, paginados por cursor.")
     @GetMapping
-    public ResponseEntity<List<Administrador>> listarTodos() {
+    public ResponseEntity<PaginaDTO<Administrador>> listarTodos(
+            @Parameter(description = "proximoCursor devolvido pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Itens por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int limite) {
         // Esta rota deve ser restrita apenas a Super-Administradores ou auditores.
-        List<Administrador> administradores = administradorService.listarTodos();
+        PaginaDTO<Administrador> administradores = administradorService.listarTodos(cursor, limite);
         return ResponseEntity.ok(administradores);
     }
 
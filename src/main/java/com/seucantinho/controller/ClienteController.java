@@ -3,7 +3,9 @@ package com.seucantinho.controller;
 import com.seucantinho.model.Cliente;
 import com.seucantinho.service.ClienteService;
 import com.seucantinho.dto.ClienteDTO; 
+import com.seucantinho.dto.PaginaDTO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +13,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/clientes")
@@ -63,10 +64,15 @@ public class ClienteController {
     // ------------------------------------------------------------------------
     
     @Operation(summary = "Lista todos os Clientes",
-               description = "Retorna uma lista de todos os clientes cadastrados. (Acesso restrito a Administradores).")
+               description = "Retorna os clientes cadastrados, paginados por cursor. (Acesso restrito a Administradores).")
     @GetMapping
-    public ResponseEntity<List<ClienteDTO>> listarTodos() {
-        List<ClienteDTO> clientes = clienteService.listarTodos();
+    public ResponseEntity<PaginaDTO<ClienteDTO>> listarTodos(
+            @Parameter(description = "proximoCursor devolvido pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Itens por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int limite) {
+        PaginaDTO<ClienteDTO> clientes = clienteService.listarTodos(cursor, limite);
         return ResponseEntity.ok(clientes); // 200 OK
     }
         
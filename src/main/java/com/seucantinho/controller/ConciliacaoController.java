@@ -0,0 +1,72 @@
+package com.seucantinho.controller;
+
+import com.seucantinho.dto.ConciliacaoRequest;
+import com.seucantinho.dto.PaginaDTO;
+import com.seucantinho.model.DivergenciaConciliacao;
+import com.seucantinho.model.ExecucaoConciliacao;
+import com.seucantinho.service.ConciliacaoPagamentosService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/conciliacoes")
+@Tag(name = "Conciliação", description = "Conciliação dos pagamentos com o arquivo de liquidação do gateway.")
+public class ConciliacaoController {
+
+    private final ConciliacaoPagamentosService conciliacaoService;
+
+    @Autowired
+    public ConciliacaoController(ConciliacaoPagamentosService conciliacaoService) {
+        this.conciliacaoService = conciliacaoService;
+    }
+
+    @Operation(summary = "Inicia uma conciliação",
+               description = "Concilia o arquivo de liquidação (CSV id_pagamento,status,valor_centavos[,data_liquidacao]) "
+                           + "com os pagamentos do período, em segundo plano. Responde 202; o andamento fica em GET /{id}.")
+    @PostMapping
+    public ResponseEntity<ExecucaoConciliacao> iniciar(@Valid @RequestBody ConciliacaoRequest request) {
+        ExecucaoConciliacao execucao = conciliacaoService.iniciar(
+                request.getArquivo(), request.getDataInicio(), request.getDataFim());
+        URI local = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(execucao.getIdExecucao())
+                .toUri();
+        return ResponseEntity.accepted().location(local).body(execucao);
+    }
+
+    @Operation(summary = "Andamento de uma conciliação",
+               description = "Fase, checkpoints, contadores e vazão (linhas por segundo) da execução.")
+    @GetMapping("/{id}")
+    public ResponseEntity<ExecucaoConciliacao> buscar(@PathVariable String id) {
+        return ResponseEntity.ok(conciliacaoService.buscar(id));
+    }
+
+    @Operation(summary = "Retoma uma conciliação que falhou",
+               description = "Continua do último lote gravado, sem repetir os anteriores.")
+    @PostMapping("/{id}/retomar")
+    public ResponseEntity<ExecucaoConciliacao> retomar(@PathVariable String id) {
+        return ResponseEntity.accepted().body(conciliacaoService.retomar(id));
+    }
+
+    @Operation(summary = "Divergências de uma conciliação", description = "Paginadas por cursor.")
+    @GetMapping("/{id}/divergencias")
+    public ResponseEntity<PaginaDTO<DivergenciaConciliacao>> listarDivergencias(
+            @PathVariable String id,
+
+            @Parameter(description = "proximoCursor devolvido pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Itens por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int limite) {
+
+        return ResponseEntity.ok(conciliacaoService.listarDivergencias(id, cursor, limite));
+    }
+}
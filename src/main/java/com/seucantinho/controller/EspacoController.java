@@ -1,15 +1,27 @@
 package com.seucantinho.controller;
 
+import com.seucantinho.dto.DisponibilidadeFiliaisDTO;
 import com.seucantinho.dto.EspacoDTO;
+import com.seucantinho.dto.FiltroBuscaEspacosDTO;
+import com.seucantinho.dto.JanelaLivreDTO;
+import com.seucantinho.dto.ResultadoBuscaEspacosDTO;
+import com.seucantinho.service.CacheJsonCatalogo;
 import com.seucantinho.service.EspacoService;
+import com.seucantinho.service.VersaoCatalogo;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,10 +32,14 @@ import java.util.List;
 public class EspacoController {
 
     private final EspacoService espacoService;
+    private final VersaoCatalogo versaoCatalogo;
+    private final CacheJsonCatalogo cacheJsonCatalogo;
 
     @Autowired
-    public EspacoController(EspacoService espacoService) {
+    public EspacoController(EspacoService espacoService, VersaoCatalogo versaoCatalogo, CacheJsonCatalogo cacheJsonCatalogo) {
         this.espacoService = espacoService;
+        this.versaoCatalogo = versaoCatalogo;
+        this.cacheJsonCatalogo = cacheJsonCatalogo;
     }
 
     // ------------------------------------------------------------------------
@@ -65,11 +81,15 @@ public class EspacoController {
         return ResponseEntity.ok(espacoAtualizado);
     }
 
-    @Operation(summary = "Busca um espaço pelo ID")
+    @Operation(summary = "Busca um espaço pelo ID",
+               description = "Suporta GET condicional: responde 304 quando o If-None-Match ainda corresponde à versão do catálogo.")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+                 schema = @Schema(implementation = EspacoDTO.class)))
     @GetMapping("/{id}")
-    public ResponseEntity<EspacoDTO> buscarPorId(@PathVariable String id) {
+    public ResponseEntity<byte[]> buscarPorId(@PathVariable String id, WebRequest request) {
+        VersaoCatalogo.Marca marca = versaoCatalogo.atual();
         EspacoDTO espaco = espacoService.buscarPorId(id);
-        return ResponseEntity.ok(espaco);
+        return RespostaCatalogo.responder(request, versaoCatalogo, marca, () -> cacheJsonCatalogo.espaco(espaco));
     }
     
     @Operation(summary = "Deleta um espaço",
@@ -85,8 +105,10 @@ public class EspacoController {
     // ------------------------------------------------------------------------
     
     @Operation(summary = "Lista todos os espaços ou filtra por tipo e disponibilidade")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+                 array = @ArraySchema(schema = @Schema(implementation = EspacoDTO.class))))
     @GetMapping
-    public ResponseEntity<List<EspacoDTO>> listarEspacos(
+    public ResponseEntity<?> listarEspacos(
             @Parameter(description = "Data e hora de início da reserva (formato ISO: YYYY-MM-DDTHH:MM:SS)")
             @RequestParam(required = false) LocalDateTime dataInicio,
             
@@ -94,18 +116,79 @@ public class EspacoController {
             @RequestParam(required = false) LocalDateTime dataFim,
             
             @Parameter(description = "Filtra por tipo de espaço (e.g., Salao, Chacara)")
-            @RequestParam(required = false) String tipo) {
+            @RequestParam(required = false) String tipo,
+
+            @Parameter(description = "Filtra por filial (usado junto com as datas)")
+            @RequestParam(required = false) String idFilial,
+
+            @Parameter(description = "Página da busca por disponibilidade (a partir de 0)")
+            @RequestParam(defaultValue = "0") int pagina,
+
+            @Parameter(description = "Itens por página da busca por disponibilidade (máximo 100)")
+            @RequestParam(defaultValue = "50") int tamanho,
+
+            WebRequest request) {
         
         List<EspacoDTO> resultados;
 
         // Se as datas de disponibilidade forem fornecidas, usamos a lógica de filtro.
         if (dataInicio != null && dataFim != null) {
-            resultados = espacoService.listarDisponiveis(dataInicio, dataFim, tipo);
+            resultados = espacoService.listarDisponiveis(dataInicio, dataFim, tipo, idFilial, pagina, tamanho);
         } else {
-            // Se nenhuma data for fornecida, lista todos
-            resultados = espacoService.listarTodos();
+            // Se nenhuma data for fornecida, lista todos (catálogo: JSON pré-renderizado e GET condicional pela versão)
+            VersaoCatalogo.Marca marca = versaoCatalogo.atual();
+            return RespostaCatalogo.responder(request, versaoCatalogo, marca,
+                    () -> cacheJsonCatalogo.listaEspacos(espacoService.listarTodos()));
         }
         
         return ResponseEntity.ok(resultados);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Busca facetada de espaços",
+               description = "Filtra o catálogo por tipo, filial, tipo de piso, piscina e faixas de capacidade, preço e quartos. "
+                           + "Devolve o total, os primeiros 'limite' espaços na ordenação escolhida (NOME, PRECO_ASC, PRECO_DESC, "
+                           + "CAPACIDADE_ASC, CAPACIDADE_DESC) e a contagem por valor de cada faceta no resultado.")
+    @GetMapping("/busca")
+    public ResponseEntity<ResultadoBuscaEspacosDTO> buscarFacetado(@ParameterObject FiltroBuscaEspacosDTO filtro) {
+        return ResponseEntity.ok(espacoService.buscarFacetado(filtro));
+    }
+
+    @Operation(summary = "Disponibilidade em todas as filiais",
+               description = "Busca os espaços livres no período em todas as filiais ativas em paralelo. "
+                           + "Filiais que não responderem dentro do prazo voltam com status TEMPO_ESGOTADO e 'completo' fica false.")
+    @GetMapping("/disponibilidade")
+    public ResponseEntity<DisponibilidadeFiliaisDTO> buscarDisponibilidadeEmFiliais(
+            @Parameter(description = "Data e hora de início da reserva (formato ISO: YYYY-MM-DDTHH:MM:SS)")
+            @RequestParam LocalDateTime dataInicio,
+
+            @Parameter(description = "Data e hora de fim da reserva (formato ISO: YYYY-MM-DDTHH:MM:SS)")
+            @RequestParam LocalDateTime dataFim,
+
+            @Parameter(description = "Filtra por tipo de espaço (e.g., Salao, Chacara)")
+            @RequestParam(required = false) String tipo,
+
+            @Parameter(description = "Prazo da busca em milissegundos (padrão 2000, máximo 10000)")
+            @RequestParam(required = false) Long prazoMs) {
+
+        return ResponseEntity.ok(espacoService.buscarDisponibilidadeEmFiliais(dataInicio, dataFim, tipo, prazoMs));
+    }
+
+    @Operation(summary = "Próximos horários livres de um espaço",
+               description = "Retorna as próximas janelas livres que comportam a duração pedida. "
+                           + "A última janela pode vir com fim nulo, indicando que não há reservas depois dela no horizonte consultado.")
+    @GetMapping("/{id}/proximos-horarios")
+    public ResponseEntity<List<JanelaLivreDTO>> buscarProximosHorarios(
+            @PathVariable String id,
+
+            @Parameter(description = "Duração desejada, em minutos")
+            @RequestParam int duracao,
+
+            @Parameter(description = "Início da busca (formato ISO: YYYY-MM-DDTHH:MM:SS). Padrão: agora")
+            @RequestParam(required = false) LocalDateTime apartir,
+
+            @Parameter(description = "Quantidade de janelas (máximo 50)")
+            @RequestParam(defaultValue = "5") int limite) {
+
+        return ResponseEntity.ok(espacoService.buscarProximosHorarios(id, duracao, apartir, limite));
+    }
+}
@@ -1,15 +1,28 @@
 package com.seucantinho.controller;
 
+import com.seucantinho.dto.FilialProximaDTO;
+import com.seucantinho.dto.MatrizDisponibilidadeDTO;
+import com.seucantinho.dto.PaginaDTO;
 import com.seucantinho.model.Filial;
+import com.seucantinho.service.CacheJsonCatalogo;
+import com.seucantinho.service.EspacoService;
 import com.seucantinho.service.FilialService;
+import com.seucantinho.service.VersaoCatalogo;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController 
@@ -18,10 +31,17 @@ import java.util.List;
 public class FilialController {
 
     private final FilialService filialService;
+    private final EspacoService espacoService;
+    private final VersaoCatalogo versaoCatalogo;
+    private final CacheJsonCatalogo cacheJsonCatalogo;
 
     @Autowired
-    public FilialController(FilialService filialService) {
+    public FilialController(FilialService filialService, EspacoService espacoService, VersaoCatalogo versaoCatalogo,
+                            CacheJsonCatalogo cacheJsonCatalogo) {
         this.filialService = filialService;
+        this.espacoService = espacoService;
+        this.versaoCatalogo = versaoCatalogo;
+        this.cacheJsonCatalogo = cacheJsonCatalogo;
     }
 
     /**
@@ -40,11 +60,23 @@ public class FilialController {
      * Endpoint para listar todas as filiais.
      */
     @Operation(summary = "Lista todas as filiais",
-               description = "Retorna uma lista de todas as filiais cadastradas.")
+               description = "Retorna as filiais cadastradas em ordem de nome, paginadas por cursor. "
+                           + "Suporta GET condicional (ETag/If-None-Match e Last-Modified/If-Modified-Since).")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+                 schema = @Schema(implementation = PaginaDTO.class)))
     @GetMapping
-    public ResponseEntity<List<Filial>> listarTodas() {
-        List<Filial> filiais = filialService.listarTodas();
-        return ResponseEntity.ok(filiais);
+    public ResponseEntity<byte[]> listarTodas(
+            @Parameter(description = "proximoCursor devolvido pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Itens por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int limite,
+
+            WebRequest request) {
+        // GET condicional (304 enquanto nenhuma filial ou espaço for gravado) e página pré-renderizada por versão
+        VersaoCatalogo.Marca marca = versaoCatalogo.atual();
+        return RespostaCatalogo.responder(request, versaoCatalogo, marca, () -> cacheJsonCatalogo.resposta(
+                marca.etag() + "|filiais|" + cursor + "|" + limite, () -> filialService.listarTodas(cursor, limite)));
     }
 
     /**
@@ -52,11 +84,71 @@ public class FilialController {
      */
     @Operation(summary = "Busca uma filial pelo ID",
                description = "Retorna os detalhes de uma filial específica usando seu ID. Retorna 404 se não encontrada.")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json",
+                 schema = @Schema(implementation = Filial.class)))
     @GetMapping("/{id}")
-    public ResponseEntity<Filial> buscarPorId(@PathVariable String id) {
-        // O service lança EntityNotFoundException (que é tratada pelo GlobalExceptionHandler)
-        Filial filial = filialService.buscarPorId(id);
-        return ResponseEntity.ok(filial);
+    public ResponseEntity<byte[]> buscarPorId(@PathVariable String id, WebRequest request) {
+        VersaoCatalogo.Marca marca = versaoCatalogo.atual();
+        // O service lança EntityNotFoundException (que é tratada pelo GlobalExceptionHandler); 404 não entra no cache
+        CacheJsonCatalogo.Json filial = cacheJsonCatalogo.resposta(
+                marca.etag() + "|filial|" + id, () -> filialService.buscarPorId(id));
+        return RespostaCatalogo.responder(request, versaoCatalogo, marca, () -> filial);
+    }
+
+    /**
+     * Endpoint para montar a matriz de disponibilidade (espaços x dias) da filial.
+     */
+    @Operation(summary = "Matriz de disponibilidade da filial",
+               description = "Retorna, em uma única resposta, a ocupação por hora de cada espaço da filial em cada dia do período. "
+                           + "Substitui uma chamada de disponibilidade por dia ao desenhar calendários.")
+    @GetMapping("/{id}/disponibilidade")
+    public ResponseEntity<MatrizDisponibilidadeDTO> matrizDisponibilidade(
+            @PathVariable String id,
+
+            @Parameter(description = "Primeiro dia do período (formato ISO: YYYY-MM-DD)")
+            @RequestParam LocalDate dataInicio,
+
+            @Parameter(description = "Último dia do período, inclusive (formato ISO: YYYY-MM-DD)")
+            @RequestParam LocalDate dataFim,
+
+            @Parameter(description = "Primeira hora da janela considerada para 'livre' (0-23)")
+            @RequestParam(defaultValue = "0") int horaInicio,
+
+            @Parameter(description = "Hora final, exclusiva, da janela considerada para 'livre' (1-24)")
+            @RequestParam(defaultValue = "24") int horaFim) {
+
+        MatrizDisponibilidadeDTO matriz = espacoService.montarMatrizDisponibilidade(id, dataInicio, dataFim, horaInicio, horaFim);
+        return ResponseEntity.ok(matriz);
+    }
+
+    @Operation(summary = "Filiais próximas",
+               description = "Filiais ativas dentro do raio, da mais próxima para a mais distante. "
+                           + "Com dataInicio/dataFim, traz só as filiais com espaço livre no período, junto com esses espaços.")
+    @GetMapping("/proximas")
+    public ResponseEntity<List<FilialProximaDTO>> buscarProximas(
+            @Parameter(description = "Latitude do ponto de referência (graus decimais)")
+            @RequestParam double lat,
+
+            @Parameter(description = "Longitude do ponto de referência (graus decimais)")
+            @RequestParam double lon,
+
+            @Parameter(description = "Raio da busca em km (máximo 500)")
+            @RequestParam(defaultValue = "10") double raio,
+
+            @Parameter(description = "Quantidade máxima de filiais (máximo 50)")
+            @RequestParam(defaultValue = "10") int limite,
+
+            @Parameter(description = "Início do período para checar espaços livres (formato ISO: YYYY-MM-DDTHH:MM:SS)")
+            @RequestParam(required = false) LocalDateTime dataInicio,
+
+            @Parameter(description = "Fim do período para checar espaços livres (formato ISO: YYYY-MM-DDTHH:MM:SS)")
+            @RequestParam(required = false) LocalDateTime dataFim,
+
+            @Parameter(description = "Filtra os espaços livres por tipo (Salao, Chacara, QuadraEsportiva)")
+            @RequestParam(required = false) String tipo) {
+
+        List<FilialProximaDTO> filiais = espacoService.buscarFiliaisProximas(lat, lon, raio, limite, dataInicio, dataFim, tipo);
+        return ResponseEntity.ok(filiais);
     }
 
     /**
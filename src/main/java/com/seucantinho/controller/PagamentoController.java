@@ -2,38 +2,111 @@ package com.seucantinho.controller;
 
 import com.seucantinho.dto.AtualizarStatusPagamentoRequest;
 import com.seucantinho.dto.PagamentoRequest;
+import com.seucantinho.dto.StatusPagamentoDTO;
+import com.seucantinho.exception.ValidacaoException;
 import com.seucantinho.model.Pagamento;
+import com.seucantinho.service.CofreDadosCartao;
 import com.seucantinho.service.PagamentoService;
+import com.seucantinho.service.ProcessadorPagamentos;
+import com.seucantinho.service.RegistroIdempotencia;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/pagamentos")
 @Tag(name = "Pagamentos", description = "Processamento e gestão de pagamentos de reservas.")
 public class PagamentoController {
 
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
     private final PagamentoService pagamentoService;
+    private final ProcessadorPagamentos processadorPagamentos;
+    private final RegistroIdempotencia registroIdempotencia;
 
     @Autowired
-    public PagamentoController(PagamentoService pagamentoService) {
+    public PagamentoController(PagamentoService pagamentoService, ProcessadorPagamentos processadorPagamentos,
+                               RegistroIdempotencia registroIdempotencia) {
         this.pagamentoService = pagamentoService;
+        this.processadorPagamentos = processadorPagamentos;
+        this.registroIdempotencia = registroIdempotencia;
     }
 
     // ------------------------------
     // PROCESSAR PAGAMENTO (POST)
     // ------------------------------
 
-    @Operation(summary = "Processa o pagamento de uma reserva")
+    @Operation(summary = "Processa o pagamento de uma reserva",
+               description = "Aceita o pagamento e responde 202 com o pagamento PROCESSANDO, sem esperar o gateway. "
+                           + "O resultado pode ser consultado em GET /{id} ou aguardado em GET /{id}/resultado.")
     @PostMapping("/processar")
-    public ResponseEntity<Pagamento> processarPagamento(
+    public ResponseEntity<StatusPagamentoDTO> processarPagamento(
+            @Parameter(description = "Chave única da tentativa; repetições com a mesma chave recebem a resposta original "
+                                   + "sem criar outro pagamento (guardada por 24h)")
+            @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia,
+
             @Valid @RequestBody PagamentoRequest request) {
 
-        Pagamento pagamento = pagamentoService.processarPagamento(request);
-        return ResponseEntity.ok(pagamento);
+        StatusPagamentoDTO pagamento;
+        boolean repetido = false;
+        if (chaveIdempotencia == null) {
+            pagamento = pagamentoService.solicitarPagamento(request);
+        } else {
+            if (chaveIdempotencia.isBlank() || chaveIdempotencia.length() > TAMANHO_MAXIMO_CHAVE) {
+                throw new ValidacaoException("Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+            }
+            RegistroIdempotencia.Resultado<StatusPagamentoDTO> resultado = registroIdempotencia.executar(
+                    "pagamento:" + chaveIdempotencia, camposIdempotencia(request), StatusPagamentoDTO.class,
+                    () -> pagamentoService.solicitarPagamento(request));
+            pagamento = resultado.valor();
+            repetido = resultado.repetido();
+        }
+
+        URI local = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/pagamentos/{id}")
+                .buildAndExpand(pagamento.getIdPagamento())
+                .toUri();
+        // Retorna 202 Accepted: o gateway é chamado em segundo plano
+        return ResponseEntity.accepted()
+                .location(local)
+                .header("Idempotent-Replayed", String.valueOf(repetido))
+                .body(pagamento);
+    }
+
+    /**
+     * O que identifica a tentativa para a Idempotency-Key. O hash disto fica no banco (TB_CHAVE_IDEMPOTENCIA),
+     * então número completo, titular e CVV ficam de fora: só os últimos dígitos do cartão entram.
+     */
+    private static List<Object> camposIdempotencia(PagamentoRequest request) {
+        return Arrays.asList(request.getIdReserva(), request.getMetodoPagamento(),
+                CofreDadosCartao.finalCartao(request.getNumeroCartao()), request.getValorPagamento());
+    }
+
+    // ------------------------------
+    // GET /{id}/resultado
+    // ------------------------------
+
+    @Operation(summary = "Aguarda o resultado de um pagamento",
+               description = "Long polling: responde assim que o gateway concluir o pagamento, ou com a situação atual "
+                           + "(concluido = false) quando a espera acabar.")
+    @GetMapping("/{id}/resultado")
+    public DeferredResult<StatusPagamentoDTO> aguardarResultado(
+            @PathVariable String id,
+
+            @Parameter(description = "Tempo máximo de espera em ms (padrão 10000, máximo 30000)")
+            @RequestParam(required = false) Long esperaMs) {
+
+        return processadorPagamentos.aguardar(id, esperaMs);
     }
 
     // ------------------------------
@@ -51,13 +124,15 @@ public class PagamentoController {
     // PUT /{id}/status
     // ------------------------------
 
-    @Operation(summary = "Atualiza o status de um pagamento")
+    @Operation(summary = "Atualiza o status de um pagamento",
+               description = "Só aceita alterações que não mexem no saldo da reserva: ESTORNO_PENDENTE -> CANCELADO "
+                           + "(devolução confirmada). Para estornar um pagamento quitado use DELETE /{id}.")
     @PutMapping("/{id}/status")
-    public ResponseEntity<Pagamento> atualizarStatus(
+    public ResponseEntity<StatusPagamentoDTO> atualizarStatus(
             @PathVariable String id,
             @Valid @RequestBody AtualizarStatusPagamentoRequest request) {
 
-        Pagamento pagamentoAtualizado = pagamentoService.atualizarStatus(id, request.getStatus());
+        StatusPagamentoDTO pagamentoAtualizado = pagamentoService.atualizarStatus(id, request.getStatus());
         return ResponseEntity.ok(pagamentoAtualizado);
     }
 
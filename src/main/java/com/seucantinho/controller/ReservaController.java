@@ -1,19 +1,31 @@
 package com.seucantinho.controller;
 
+import com.seucantinho.dto.PaginaDTO;
+import com.seucantinho.dto.ReservaLoteRequest;
 import com.seucantinho.dto.ReservaRequest;
+import com.seucantinho.dto.ResultadoLoteReservaDTO;
+import com.seucantinho.model.LancamentoPagamento;
 import com.seucantinho.model.Reserva;
+import com.seucantinho.service.ExportacaoReservaService;
 import com.seucantinho.service.ReservaService;
 import com.seucantinho.dto.ReservaResponse;
 import com.seucantinho.model.Cliente;
 import com.seucantinho.model.Espaco;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,10 +34,15 @@ import java.util.List;
 public class ReservaController {
 
     private final ReservaService reservaService;
+    private final ExportacaoReservaService exportacaoReservaService;
+    private final Duration tempoMaximoExportacao;
 
     @Autowired
-    public ReservaController(ReservaService reservaService) {
+    public ReservaController(ReservaService reservaService, ExportacaoReservaService exportacaoReservaService,
+                             @Value("${seucantinho.reservas.exportacao.tempo-maximo:30m}") Duration tempoMaximoExportacao) {
         this.reservaService = reservaService;
+        this.exportacaoReservaService = exportacaoReservaService;
+        this.tempoMaximoExportacao = tempoMaximoExportacao;
     }
 
     // ------------------------------------------------------------------------
@@ -62,6 +79,35 @@ public class ReservaController {
         return new ResponseEntity<>(reservaSalva, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Cria várias Reservas de uma vez",
+               description = "Recebe uma lista de reservas (ex: agências de eventos) e cria todas em uma única transação. "
+                           + "A resposta informa, para cada item, se foi CRIADA, teve CONFLITO de horário ou é INVALIDA.")
+    @PostMapping("/lote")
+    public ResponseEntity<ResultadoLoteReservaDTO> criarReservasEmLote(@Valid @RequestBody ReservaLoteRequest request) {
+
+        List<Reserva> reservas = request.getReservas().stream()
+                .map(item -> {
+                    Reserva reserva = new Reserva();
+
+                    Cliente cliente = new Cliente();
+                    cliente.setIdUsuario(item.getIdCliente());
+                    reserva.setCliente(cliente);
+
+                    Espaco espaco = new Espaco() {};
+                    espaco.setIdEspaco(item.getIdEspaco());
+                    reserva.setEspaco(espaco);
+
+                    reserva.setDataEvento(item.getDataEventoInicio());
+                    reserva.setDataEventoFim(item.getDataEventoFim());
+                    reserva.setValorPago(item.getValorTotal());
+                    return reserva;
+                })
+                .toList();
+
+        ResultadoLoteReservaDTO resultado = reservaService.criarReservasEmLote(reservas);
+        return ResponseEntity.ok(resultado);
+    }
+
     // ------------------------------------------------------------------------
     // CONSULTA (Privado / Cliente & Admin)
     // ------------------------------------------------------------------------
@@ -74,22 +120,71 @@ public class ReservaController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Razão de pagamentos da Reserva",
+           description = "Lançamentos (pagamentos e estornos, em centavos) na ordem em que entraram, com o saldo após cada um. "
+                       + "O saldo atual e o valor devido vêm em GET /{id}.")
+    @GetMapping("/{id}/lancamentos")
+    public ResponseEntity<List<LancamentoPagamento>> listarLancamentos(@PathVariable String id) {
+        return ResponseEntity.ok(reservaService.listarLancamentos(id));
+    }
+
     @Operation(summary = "Lista todas as Reservas de um Cliente",
-            description = "Retorna uma lista de reservas feitas por um cliente específico.")
+            description = "Retorna as reservas feitas por um cliente específico, em ordem de criação, paginadas por cursor.")
     @GetMapping("/cliente/{idCliente}")
-    public ResponseEntity<List<ReservaResponse>> listarReservasPorCliente(@PathVariable String idCliente) {
-        List<ReservaResponse> reservas = reservaService.listarReservasPorCliente(idCliente); 
+    public ResponseEntity<PaginaDTO<ReservaResponse>> listarReservasPorCliente(
+            @PathVariable String idCliente,
+
+            @Parameter(description = "proximoCursor devolvido pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Itens por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int limite) {
+        PaginaDTO<ReservaResponse> reservas = reservaService.listarReservasPorCliente(idCliente, cursor, limite);
         return ResponseEntity.ok(reservas);
     }
 
     @Operation(summary = "Lista todas as Reservas do Sistema",
-            description = "Retorna todas as reservas, ideal para painel administrativo.")
+            description = "Retorna as reservas em ordem de criação, paginadas por cursor. Ideal para painel administrativo.")
     @GetMapping
-    public ResponseEntity<List<ReservaResponse>> listarTodas() {
-        List<ReservaResponse> reservas = reservaService.listarTodas();
+    public ResponseEntity<PaginaDTO<ReservaResponse>> listarTodas(
+            @Parameter(description = "proximoCursor devolvido pela página anterior (vazio na primeira página)")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Itens por página (máximo 200)")
+            @RequestParam(defaultValue = "50") int limite) {
+        PaginaDTO<ReservaResponse> reservas = reservaService.listarTodas(cursor, limite);
         return ResponseEntity.ok(reservas);
     }
 
+    @Operation(summary = "Exporta Reservas em NDJSON",
+            description = "Exportação completa para financeiro/BI: uma reserva por linha (application/x-ndjson), "
+                        + "lida do banco em fluxo contínuo. Filtros opcionais por período do evento, filial e status.")
+    @GetMapping(value = "/exportacao", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> exportar(
+            @Parameter(description = "Eventos que começam a partir desta data (formato ISO: YYYY-MM-DDTHH:MM:SS)")
+            @RequestParam(required = false) LocalDateTime dataInicio,
+
+            @Parameter(description = "Eventos que começam antes desta data (formato ISO: YYYY-MM-DDTHH:MM:SS)")
+            @RequestParam(required = false) LocalDateTime dataFim,
+
+            @Parameter(description = "Filtra por filial")
+            @RequestParam(required = false) String idFilial,
+
+            @Parameter(description = "Filtra por status (pode repetir ou separar por vírgula)")
+            @RequestParam(required = false) List<String> status,
+
+            HttpServletResponse response) {
+
+        StreamingResponseBody corpo = exportacaoReservaService.exportar(dataInicio, dataFim, idFilial, status);
+        response.setContentType("application/x-ndjson");
+        // O fluxo pode levar minutos: o tempo limite vale só para esta requisição, não para o resto do async do MVC
+        return new WebAsyncTask<>(tempoMaximoExportacao.toMillis(), () -> {
+            corpo.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
     @Operation(summary = "Atualiza uma Reserva",
            description = "Permite alterar data, espaço, cliente ou valor.")
     @PutMapping("/{id}")
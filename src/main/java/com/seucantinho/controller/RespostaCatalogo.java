@@ -0,0 +1,88 @@
+package com.seucantinho.controller;
+
+import com.seucantinho.service.CacheJsonCatalogo;
+import com.seucantinho.service.VersaoCatalogo;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Monta as respostas do catálogo a partir do JSON pré-renderizado (CacheJsonCatalogo):
+ * GET condicional pela VersaoCatalogo, escolha de gzip/deflate pelo Accept-Encoding
+ * e bytes escritos direto, sem serialização por requisição.
+ */
+final class RespostaCatalogo {
+
+    private RespostaCatalogo() {
+    }
+
+    /**
+     * @param marca Lida antes de obter o conteúdo (ver VersaoCatalogo.atual()).
+     * @param json Só é chamado se a resposta não for 304.
+     */
+    static ResponseEntity<byte[]> responder(WebRequest request, VersaoCatalogo versaoCatalogo,
+                                            VersaoCatalogo.Marca marca, Supplier<CacheJsonCatalogo.Json> json) {
+        String codificacao = negociar(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        // Cada codificação é uma representação diferente, então tem o próprio ETag forte
+        String etag = codificacao == null ? marca.etag()
+                : marca.etag().substring(0, marca.etag().length() - 1) + "-" + codificacao + "\"";
+        if (request.checkNotModified(etag, marca.ultimaAlteracao())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(versaoCatalogo.cacheControl())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        CacheJsonCatalogo.Json conteudo = json.get();
+        byte[] corpo = "gzip".equals(codificacao) ? conteudo.gzip()
+                : "deflate".equals(codificacao) ? conteudo.deflate() : null;
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(versaoCatalogo.cacheControl())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (corpo == null) {
+            // Sem compressão aceita, ou comprimir não deixou a resposta menor
+            return resposta.body(conteudo.identidade());
+        }
+        return resposta.header(HttpHeaders.CONTENT_ENCODING, codificacao).body(corpo);
+    }
+
+    // gzip tem preferência sobre deflate; codificações com q=0 são recusadas
+    private static String negociar(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String parte : acceptEncoding.split(",")) {
+            String[] campos = parte.split(";");
+            String nome = campos[0].trim().toLowerCase(Locale.ROOT);
+            if (aceita(campos)) {
+                gzip |= nome.equals("gzip");
+                deflate |= nome.equals("deflate");
+            }
+        }
+        return gzip ? "gzip" : deflate ? "deflate" : null;
+    }
+
+    private static boolean aceita(String[] campos) {
+        for (int i = 1; i < campos.length; i++) {
+            String parametro = campos[i].trim();
+            if (parametro.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parametro.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
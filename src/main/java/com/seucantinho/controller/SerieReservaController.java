@@ -0,0 +1,77 @@
+package com.seucantinho.controller;
+
+import com.seucantinho.dto.AtualizarSerieReservaRequest;
+import com.seucantinho.dto.SerieReservaRequest;
+import com.seucantinho.dto.SerieReservaResponse;
+import com.seucantinho.model.Cliente;
+import com.seucantinho.model.Espaco;
+import com.seucantinho.model.SerieReserva;
+import com.seucantinho.service.SerieReservaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservas/series")
+@Tag(name = "Séries de Reservas", description = "Reservas recorrentes (ex: quadra toda semana no mesmo horário).")
+public class SerieReservaController {
+
+    private final SerieReservaService serieReservaService;
+
+    @Autowired
+    public SerieReservaController(SerieReservaService serieReservaService) {
+        this.serieReservaService = serieReservaService;
+    }
+
+    @Operation(summary = "Cria uma Série de Reservas",
+               description = "Cria todas as ocorrências da regra (DIARIA, SEMANAL ou MENSAL, a cada N unidades, até a data final) com status PENDENTE. "
+                           + "Se qualquer ocorrência conflitar com a agenda do espaço nada é criado e as datas em conflito são informadas.")
+    @PostMapping
+    public ResponseEntity<SerieReservaResponse> criarSerie(@Valid @RequestBody SerieReservaRequest request) {
+
+        SerieReserva serie = new SerieReserva();
+
+        Cliente cliente = new Cliente();
+        cliente.setIdUsuario(request.getIdCliente());
+        serie.setCliente(cliente);
+
+        Espaco espaco = new Espaco() {};
+        espaco.setIdEspaco(request.getIdEspaco());
+        serie.setEspaco(espaco);
+
+        serie.setDataPrimeiroEvento(request.getDataPrimeiroEvento());
+        serie.setDuracaoMinutos(request.getDuracaoMinutos());
+        serie.setFrequencia(request.getFrequencia());
+        serie.setIntervalo(request.getIntervalo() != null ? request.getIntervalo() : 1);
+        serie.setDataFimSerie(request.getDataFimSerie());
+        serie.setValorPorOcorrencia(request.getValorPorOcorrencia());
+
+        return new ResponseEntity<>(serieReservaService.criarSerie(serie), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Busca uma Série de Reservas pelo ID")
+    @GetMapping("/{id}")
+    public ResponseEntity<SerieReservaResponse> buscarPorId(@PathVariable String id) {
+        return ResponseEntity.ok(serieReservaService.buscarPorIdDTO(id));
+    }
+
+    @Operation(summary = "Altera o valor de uma Série de Reservas",
+               description = "Aplica o novo valor por ocorrência a todas as ocorrências futuras não canceladas.")
+    @PutMapping("/{id}")
+    public ResponseEntity<SerieReservaResponse> atualizarValorSerie(
+            @PathVariable String id,
+            @Valid @RequestBody AtualizarSerieReservaRequest request) {
+        return ResponseEntity.ok(serieReservaService.atualizarValorSerie(id, request.getValorPorOcorrencia()));
+    }
+
+    @Operation(summary = "Cancela uma Série de Reservas",
+               description = "Cancela a série e todas as ocorrências futuras que ainda estão PENDENTE ou SINAL_PAGO.")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<SerieReservaResponse> cancelarSerie(@PathVariable String id) {
+        return ResponseEntity.ok(serieReservaService.cancelarSerie(id));
+    }
+}
@@ -0,0 +1,11 @@
+package com.seucantinho.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class AtualizarSerieReservaRequest {
+
+    @NotNull(message = "O novo valor por ocorrência é obrigatório.")
+    private Float valorPorOcorrencia;
+}
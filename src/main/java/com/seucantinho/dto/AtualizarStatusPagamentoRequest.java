@@ -7,5 +7,5 @@ import lombok.Data;
 public class AtualizarStatusPagamentoRequest {
 
     @NotBlank(message = "O novo status é obrigatório.")
-    private String status; // DEVOLVIDO, ESTORNADO, CANCELADO, etc
+    private String status; // CANCELADO (a partir de ESTORNO_PENDENTE; ver PagamentoService.atualizarStatus)
 }
@@ -0,0 +1,22 @@
+package com.seucantinho.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ConciliacaoRequest {
+
+    // Nome do arquivo de liquidação dentro do diretório configurado (seucantinho.pagamentos.conciliacao.diretorio)
+    @NotBlank(message = "O nome do arquivo é obrigatório.")
+    private String arquivo;
+
+    // Período dos pagamentos cobertos pelo arquivo [dataInicio, dataFim)
+    @NotNull(message = "A data de início é obrigatória.")
+    private LocalDateTime dataInicio;
+
+    @NotNull(message = "A data de fim é obrigatória.")
+    private LocalDateTime dataFim;
+}
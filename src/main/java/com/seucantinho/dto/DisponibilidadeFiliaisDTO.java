@@ -0,0 +1,36 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Espaços livres no período, agrupados por filial (ordem: nome da filial, id).
+ * Filiais que não responderam dentro do prazo voltam com status TEMPO_ESGOTADO e sem espaços;
+ * nesse caso completo = false.
+ */
+@Data
+public class DisponibilidadeFiliaisDTO {
+
+    public static final String CONCLUIDA = "CONCLUIDA";
+    public static final String TEMPO_ESGOTADO = "TEMPO_ESGOTADO";
+    public static final String FALHA = "FALHA";
+
+    private LocalDateTime dataInicio;
+    private LocalDateTime dataFim;
+    private boolean completo;
+    private List<ResultadoFilial> filiais;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ResultadoFilial {
+        private String idFilial;
+        private String nomeFilial;
+        private String status;
+        private List<EspacoDTO> espacos;
+    }
+}
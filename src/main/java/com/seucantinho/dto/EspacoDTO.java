@@ -33,6 +33,10 @@ public class EspacoDTO {
     
     private String foto; // URL ou nome do arquivo
 
+    // Somente leitura: copiados da filial no catálogo (CatalogoEspacos), ignorados no cadastro
+    private String nomeFilial;
+    private Boolean statusFilial;
+
     // ------------------------------------------------------------------------
     // Campos Específicos (Subclasses - Opcionais)
     // ------------------------------------------------------------------------
@@ -0,0 +1,24 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Filial encontrada na busca por proximidade, com a distância até o ponto pedido.
+ * 'espacos' só vem preenchido quando a busca informa um período: são os espaços livres nele.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilialProximaDTO {
+    private String idFilial;
+    private String nomeFilial;
+    private String endereco;
+    private Double latitude;
+    private Double longitude;
+    private double distanciaKm;
+    private List<EspacoDTO> espacos;
+}
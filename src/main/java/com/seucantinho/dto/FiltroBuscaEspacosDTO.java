@@ -0,0 +1,28 @@
+package com.seucantinho.dto;
+
+import lombok.Data;
+
+/**
+ * Filtros da busca facetada de espaços (GET /api/espacos/busca). Campos nulos são ignorados;
+ * as faixas (min/max) são inclusivas.
+ */
+@Data
+public class FiltroBuscaEspacosDTO {
+
+    public enum Ordenacao { NOME, PRECO_ASC, PRECO_DESC, CAPACIDADE_ASC, CAPACIDADE_DESC }
+
+    private String tipo;
+    private String idFilial;
+    private Integer capacidadeMin;
+    private Integer capacidadeMax;
+    private Float precoMin;
+    private Float precoMax;
+    private Boolean temPiscina;
+    private Integer numQuartosMin;
+    private Integer numQuartosMax;
+    private String tipoPiso;
+
+    private Ordenacao ordenacao = Ordenacao.NOME;
+    // Quantidade de espaços devolvidos (top-K na ordenação escolhida)
+    private int limite = 20;
+}
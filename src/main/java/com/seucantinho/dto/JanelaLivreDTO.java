@@ -0,0 +1,19 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Janela livre na agenda de um espaço.
+ * fim == null indica que não há reserva depois do início dentro do horizonte consultado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JanelaLivreDTO {
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+}
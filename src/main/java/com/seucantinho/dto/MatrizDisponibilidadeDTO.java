@@ -0,0 +1,33 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Matriz espaços x dias de uma filial.
+ * Para cada espaço e dia: a máscara das horas ocupadas (bit h = hora h) e se a
+ * janela de horas consultada está totalmente livre.
+ */
+@Data
+public class MatrizDisponibilidadeDTO {
+
+    private String idFilial;
+    private int horaInicio;
+    private int horaFim;
+    private List<LocalDate> dias;
+    private List<LinhaEspaco> espacos;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LinhaEspaco {
+        private String idEspaco;
+        private String nome;
+        private int[] horasOcupadas;
+        private boolean[] livre;
+    }
+}
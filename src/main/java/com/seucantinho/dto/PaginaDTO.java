@@ -0,0 +1,20 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem com paginação por cursor (keyset).
+ * proximoCursor é opaco: basta repassá-lo no parâmetro "cursor" da próxima chamada.
+ * Quando for null não há mais itens.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> itens;
+    private String proximoCursor;
+}
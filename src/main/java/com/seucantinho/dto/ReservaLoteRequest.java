@@ -0,0 +1,16 @@
+package com.seucantinho.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ReservaLoteRequest {
+
+    @NotEmpty(message = "Informe ao menos uma reserva.")
+    @Size(max = 500, message = "O lote pode ter no máximo 500 reservas.")
+    private List<@Valid ReservaRequest> reservas;
+}
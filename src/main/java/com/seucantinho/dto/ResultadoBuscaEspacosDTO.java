@@ -0,0 +1,21 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBuscaEspacosDTO {
+
+    // Quantidade de espaços que atendem aos filtros (os itens trazem no máximo 'limite' deles)
+    private int total;
+    private List<EspacoDTO> espacos;
+
+    // Contagem por valor de cada faceta dentro do resultado (tipo, idFilial, tipoPiso, temPiscina)
+    private Map<String, Map<String, Integer>> facetas;
+}
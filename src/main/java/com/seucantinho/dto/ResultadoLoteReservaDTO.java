@@ -0,0 +1,33 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado da criação em lote: um item por reserva enviada, na mesma ordem.
+ */
+@Data
+public class ResultadoLoteReservaDTO {
+
+    public static final String CRIADA = "CRIADA";
+    public static final String CONFLITO = "CONFLITO";
+    public static final String INVALIDA = "INVALIDA";
+
+    private int criadas;
+    private int rejeitadas;
+    private List<Item> itens = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int indice;
+        private String status; // CRIADA, CONFLITO ou INVALIDA
+        private String idReserva;
+        private String mensagem;
+    }
+}
@@ -0,0 +1,40 @@
+package com.seucantinho.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class SerieReservaRequest {
+
+    @NotBlank(message = "O ID do cliente é obrigatório.")
+    private String idCliente;
+
+    @NotBlank(message = "O ID do espaço é obrigatório.")
+    private String idEspaco;
+
+    @NotNull(message = "A data e hora da primeira ocorrência são obrigatórias.")
+    private LocalDateTime dataPrimeiroEvento;
+
+    @NotNull(message = "A duração de cada ocorrência é obrigatória.")
+    @Min(value = 1, message = "A duração deve ser de pelo menos 1 minuto.")
+    private Integer duracaoMinutos;
+
+    // DIARIA, SEMANAL ou MENSAL
+    @NotBlank(message = "A frequência (DIARIA, SEMANAL ou MENSAL) é obrigatória.")
+    private String frequencia;
+
+    // A cada quantas unidades da frequência (padrão 1)
+    @Min(value = 1, message = "O intervalo deve ser no mínimo 1.")
+    private Integer intervalo;
+
+    @NotNull(message = "A data final da série é obrigatória.")
+    private LocalDate dataFimSerie;
+
+    @NotNull(message = "O valor por ocorrência é obrigatório.")
+    private Float valorPorOcorrencia;
+}
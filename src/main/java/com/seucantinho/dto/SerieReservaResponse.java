@@ -0,0 +1,22 @@
+package com.seucantinho.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class SerieReservaResponse {
+    private String idSerie;
+    private String idCliente;
+    private String idEspaco;
+    private LocalDateTime dataPrimeiroEvento;
+    private int duracaoMinutos;
+    private String frequencia;
+    private int intervalo;
+    private LocalDate dataFimSerie;
+    private float valorPorOcorrencia;
+    private String status;
+    // Quantidade de ocorrências afetadas pela operação (criadas, canceladas ou atualizadas)
+    private int ocorrencias;
+}
@@ -0,0 +1,29 @@
+package com.seucantinho.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Situação de um pagamento: devolvida ao aceitar o pagamento (PROCESSANDO) e nas consultas de resultado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusPagamentoDTO {
+
+    private String idPagamento;
+    private String idReserva;
+    private long valorCentavos;
+    private LocalDateTime dataPagamento;
+    // PROCESSANDO, QUITADO, FALHOU, ESTORNO_PENDENTE, CANCELADO
+    private String status;
+    private String statusReserva;
+    // Saldo já pago da reserva e o que falta, em centavos
+    private long saldoPagoCentavos;
+    private long valorDevidoCentavos;
+    // false enquanto o gateway não respondeu
+    private boolean concluido;
+}
@@ -0,0 +1,10 @@
+package com.seucantinho.event;
+
+/**
+ * Evento publicado pelo EspacoService quando um espaço é criado, alterado ou removido.
+ * O CatalogoEspacos relê só esse espaço para atualizar o snapshot do catálogo.
+ *
+ * @param idEspaco ID do espaço alterado.
+ */
+public record EspacoAlteradoEvent(String idEspaco) {
+}
@@ -0,0 +1,10 @@
+package com.seucantinho.event;
+
+/**
+ * Evento publicado pelo FilialService quando uma filial é criada, alterada ou desativada.
+ * O CatalogoEspacos relê os espaços da filial (nome e status da filial ficam copiados em cada espaço).
+ *
+ * @param idFilial ID da filial alterada.
+ */
+public record FilialAlteradaEvent(String idFilial) {
+}
@@ -0,0 +1,11 @@
+package com.seucantinho.event;
+
+/**
+ * Evento publicado quando um pagamento PROCESSANDO é concluído fora do worker da outbox
+ * (ex: pela conciliação com o arquivo de liquidação). Após o commit o ProcessadorPagamentos
+ * avisa quem aguarda o resultado por long polling nesta instância.
+ *
+ * @param idPagamento ID do pagamento concluído.
+ */
+public record PagamentoConcluidoEvent(String idPagamento) {
+}
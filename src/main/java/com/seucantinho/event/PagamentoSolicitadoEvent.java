@@ -0,0 +1,10 @@
+package com.seucantinho.event;
+
+/**
+ * Evento publicado pelo PagamentoService quando um pagamento é aceito e gravado na outbox.
+ * Após o commit o ProcessadorPagamentos varre a outbox na hora, sem esperar o próximo ciclo.
+ *
+ * @param idPagamento ID do pagamento aceito (status PROCESSANDO).
+ */
+public record PagamentoSolicitadoEvent(String idPagamento) {
+}
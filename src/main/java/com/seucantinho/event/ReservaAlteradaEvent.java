@@ -0,0 +1,38 @@
+package com.seucantinho.event;
+
+import com.seucantinho.model.Reserva;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento publicado pelo ReservaService sempre que uma reserva é criada, alterada ou removida.
+ * Carrega o estado anterior e o atual para que os índices em memória possam se atualizar
+ * sem consultar o banco novamente.
+ *
+ * @param idReserva ID da reserva alterada.
+ * @param anterior Estado antes da alteração (null na criação).
+ * @param atual Estado depois da alteração (null na exclusão).
+ */
+public record ReservaAlteradaEvent(String idReserva, Estado anterior, Estado atual) {
+
+    /**
+     * @param ocorrenciaDeSerie true se a reserva pertence a uma SerieReserva (não expira pelo TTL da pré-reserva).
+     */
+    public record Estado(String idEspaco, LocalDateTime inicio, LocalDateTime fim, String status, boolean ocorrenciaDeSerie) {
+
+        public static Estado de(Reserva reserva) {
+            return new Estado(
+                reserva.getEspaco().getIdEspaco(),
+                reserva.getDataEvento(),
+                reserva.getDataEventoFim(),
+                reserva.getStatusReserva(),
+                reserva.getSerie() != null
+            );
+        }
+
+        // Mesmo período, outro status
+        public Estado comStatus(String novoStatus) {
+            return new Estado(idEspaco, inicio, fim, novoStatus, ocorrenciaDeSerie);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.seucantinho.exception;
+
+// Falha técnica na chamada ao gateway de pagamento (erro, timeout); o pagamento é tentado de novo
+public class GatewayIndisponivelException extends RuntimeException {
+
+    public GatewayIndisponivelException(String message) {
+        super(message);
+    }
+
+    public GatewayIndisponivelException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -43,6 +43,19 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST); // 400
     }
 
+    /**
+     * Trata RequisicaoEmAndamentoException (409 CONFLICT): repetição de uma Idempotency-Key ainda em execução.
+     */
+    @ExceptionHandler(RequisicaoEmAndamentoException.class)
+    public ResponseEntity<ErrorDetails> handleConflictExceptions(RequisicaoEmAndamentoException ex, WebRequest request) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                "Requisição em andamento",
+                ex.getMessage()
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT); // 409
+    }
+
     /**
      * Trata erros de validação de DTOs (@Valid) (400 BAD REQUEST).
      */
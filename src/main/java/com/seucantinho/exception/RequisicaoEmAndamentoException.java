@@ -0,0 +1,9 @@
+package com.seucantinho.exception;
+
+// Uma requisição com a mesma Idempotency-Key ainda está sendo executada
+public class RequisicaoEmAndamentoException extends RuntimeException {
+
+    public RequisicaoEmAndamentoException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,8 @@ package com.seucantinho.model;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -21,6 +23,7 @@ public class Administrador extends Usuario {
     private String matricula;
 
     @Builder.Default
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "administrador-filiais")
     @ManyToMany
     @JoinTable(
             name = "TB_ADMINISTRADOR_FILIAL",
@@ -0,0 +1,39 @@
+package com.seucantinho.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resposta guardada para uma Idempotency-Key (ver RegistroIdempotencia).
+ * A linha é criada sem resposta quando a execução começa e recebe a resposta na mesma
+ * transação da operação; sai da tabela depois de 'expiraEm'.
+ */
+@Entity
+@Table(name = "TB_CHAVE_IDEMPOTENCIA",
+       indexes = @Index(name = "idx_chave_idempotencia_expira", columnList = "expira_em"))
+@Data
+@NoArgsConstructor
+public class ChaveIdempotencia {
+
+    // Operação + chave enviada pelo cliente (ex: "pagamento:3f2a...")
+    @Id
+    @Column(length = 300)
+    private String chave;
+
+    // SHA-256 do corpo da requisição: a mesma chave com outro corpo é recusada
+    @Column(name = "hash_requisicao", nullable = false, length = 64)
+    private String hashRequisicao;
+
+    // JSON da resposta; null enquanto a operação está em execução
+    @Column(length = 4000)
+    private String resposta;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
@@ -0,0 +1,54 @@
+package com.seucantinho.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Diferença encontrada por uma execução da conciliação (inserida em lote pelo ConciliacaoPagamentosService).
+ */
+@Entity
+@Table(name = "TB_DIVERGENCIA_CONCILIACAO",
+       indexes = @Index(name = "ix_divergencia_execucao", columnList = "id_execucao, id_divergencia"))
+@Data
+@NoArgsConstructor
+public class DivergenciaConciliacao {
+
+    // VALOR_DIFERENTE, STATUS_DIFERENTE, AUSENTE_NO_BANCO, AUSENTE_NO_ARQUIVO, LINHA_INVALIDA
+    public static final String VALOR_DIFERENTE = "VALOR_DIFERENTE";
+    public static final String STATUS_DIFERENTE = "STATUS_DIFERENTE";
+    public static final String AUSENTE_NO_BANCO = "AUSENTE_NO_BANCO";
+    public static final String AUSENTE_NO_ARQUIVO = "AUSENTE_NO_ARQUIVO";
+    public static final String LINHA_INVALIDA = "LINHA_INVALIDA";
+
+    @Id
+    private String idDivergencia;
+
+    @Column(name = "id_execucao", nullable = false)
+    private String idExecucao;
+
+    @Column(name = "id_pagamento")
+    private String idPagamento;
+
+    @Column(nullable = false, length = 30)
+    private String tipo;
+
+    // Linha do arquivo (null para AUSENTE_NO_ARQUIVO)
+    @Column(name = "numero_linha")
+    private Long numeroLinha;
+
+    @Column(name = "status_local")
+    private String statusLocal;
+
+    @Column(name = "status_gateway")
+    private String statusGateway;
+
+    @Column(name = "valor_local_centavos")
+    private Long valorLocalCentavos;
+
+    @Column(name = "valor_gateway_centavos")
+    private Long valorGatewayCentavos;
+
+    @Column(length = 300)
+    private String detalhe;
+}
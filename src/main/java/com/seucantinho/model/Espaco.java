@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
@@ -11,6 +13,8 @@ import lombok.experimental.SuperBuilder;
 @Entity
 @Table(name = "TB_ESPACO")
 @Inheritance(strategy = InheritanceType.JOINED)
+// Cache de segundo nível: vale para toda a hierarquia (só a raiz pode declarar)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "espaco")
 @Data 
 @NoArgsConstructor 
 @AllArgsConstructor 
@@ -0,0 +1,90 @@
+package com.seucantinho.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Execução da conciliação de pagamentos com um arquivo de liquidação do gateway.
+ * Guarda o checkpoint de cada fase (posição no arquivo e último pagamento percorrido), gravado na
+ * mesma transação de cada lote: uma execução interrompida continua do último lote confirmado.
+ */
+@Entity
+@Table(name = "TB_EXECUCAO_CONCILIACAO")
+@Data
+@NoArgsConstructor
+public class ExecucaoConciliacao {
+
+    // Fases: linhas do arquivo x pagamentos, depois pagamentos do período que não vieram no arquivo
+    public static final String FASE_ARQUIVO = "ARQUIVO";
+    public static final String FASE_AUSENTES = "AUSENTES";
+
+    public static final String EM_EXECUCAO = "EM_EXECUCAO";
+    public static final String CONCLUIDA = "CONCLUIDA";
+    public static final String FALHOU = "FALHOU";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String idExecucao;
+
+    // Nome do arquivo dentro do diretório de liquidação
+    @Column(nullable = false)
+    private String arquivo;
+
+    // Período dos pagamentos cobertos pelo arquivo [dataInicio, dataFim)
+    @Column(name = "data_inicio", nullable = false)
+    private LocalDateTime dataInicio;
+
+    @Column(name = "data_fim", nullable = false)
+    private LocalDateTime dataFim;
+
+    @Column(nullable = false, length = 20)
+    private String fase;
+
+    @Column(nullable = false, length = 20)
+    private String situacao;
+
+    // Checkpoints
+    @Column(name = "offset_arquivo")
+    private long offsetArquivo;
+
+    @Column(name = "linhas_lidas")
+    private long linhasLidas;
+
+    // Fase AUSENTES: último (data_pagamento, id_pagamento) percorrido
+    @Column(name = "ultima_data_pagamento")
+    private LocalDateTime ultimaDataPagamento;
+
+    @Column(name = "ultimo_id_pagamento")
+    private String ultimoIdPagamento;
+
+    // Contadores
+    private long conciliados;
+    private long divergencias;
+    private long correcoes;
+
+    @Column(name = "iniciada_em", nullable = false)
+    private LocalDateTime iniciadaEm;
+
+    @Column(name = "atualizada_em")
+    private LocalDateTime atualizadaEm;
+
+    @Column(name = "concluida_em")
+    private LocalDateTime concluidaEm;
+
+    @Column(length = 500)
+    private String erro;
+
+    // Vazão média desde o início (linhas do arquivo por segundo)
+    public double getLinhasPorSegundo() {
+        LocalDateTime fim = concluidaEm != null ? concluidaEm : atualizadaEm;
+        if (fim == null) {
+            return 0;
+        }
+        long ms = Duration.between(iniciadaEm, fim).toMillis();
+        return ms > 0 ? linhasLidas * 1000.0 / ms : 0;
+    }
+}
@@ -1,14 +1,21 @@
 
 package com.seucantinho.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Entity
-@Table(name = "TB_FILIAL")
+@Table(name = "TB_FILIAL", indexes = {
+    // Paginação por cursor da listagem (mesma ordem do ORDER BY)
+    @Index(name = "ix_filial_nome", columnList = "nome_filial, id_filial")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "filial")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,8 +32,15 @@ public class Filial {
     private String telefone;
     
     private boolean status;
+
+    // Coordenadas (graus decimais, WGS84); opcionais, usadas na busca por filiais próximas
+    private Double latitude;
+    private Double longitude;
     
     // Relacionamento 1:N com Espacos (Uma Filial tem muitos Espaços)
+    // Fora do JSON: os espaços têm endpoint próprio e voltariam para a filial (Espaco.filial), em ciclo
+    @JsonIgnore
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "filial-espacos")
     @OneToMany(mappedBy = "filial", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Espaco> espacos;
 }
\ No newline at end of file
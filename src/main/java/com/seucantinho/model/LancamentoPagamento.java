@@ -0,0 +1,55 @@
+package com.seucantinho.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lançamento do razão de pagamentos de uma reserva. O razão só recebe inserções: pagamentos aprovados
+ * entram com valor positivo e estornos com valor negativo. Reserva.saldoPagoCentavos é a soma dos
+ * lançamentos, mantida na mesma transação, então saldo e valor devido não precisam somar o histórico.
+ */
+@Entity
+@Immutable
+@Table(name = "TB_LANCAMENTO_PAGAMENTO",
+       indexes = @Index(name = "ix_lancamento_reserva", columnList = "id_reserva, data_lancamento"),
+       // Cada pagamento entra no máximo uma vez e é estornado no máximo uma vez
+       uniqueConstraints = @UniqueConstraint(name = "uk_lancamento_pagamento_tipo", columnNames = {"id_pagamento", "tipo"}))
+@Data
+@NoArgsConstructor
+public class LancamentoPagamento {
+
+    public static final String PAGAMENTO = "PAGAMENTO";
+    public static final String ESTORNO = "ESTORNO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String idLancamento;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_reserva", nullable = false)
+    private Reserva reserva;
+
+    @Column(name = "id_pagamento", nullable = false)
+    private String idPagamento;
+
+    // PAGAMENTO ou ESTORNO
+    @Column(nullable = false, length = 20)
+    private String tipo;
+
+    // Positivo para pagamento, negativo para estorno
+    @Column(name = "valor_centavos", nullable = false)
+    private long valorCentavos;
+
+    // Saldo pago da reserva logo após este lançamento
+    @Column(name = "saldo_apos_centavos", nullable = false)
+    private long saldoAposCentavos;
+
+    @Column(name = "data_lancamento", nullable = false)
+    private LocalDateTime dataLancamento;
+}
@@ -0,0 +1,68 @@
+package com.seucantinho.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada da outbox de pagamentos: gravada na mesma transação do Pagamento PROCESSANDO e
+ * consumida pelo ProcessadorPagamentos, que chama o gateway fora de qualquer transação.
+ *
+ * Número do cartão, titular e CVV nunca são gravados: ficam no CofreDadosCartao da instância que aceitou
+ * o pagamento (registrada em 'instancia'). Aqui ficam só o método e os últimos dígitos do cartão.
+ */
+@Entity
+@Table(name = "TB_OUTBOX_PAGAMENTO",
+       indexes = @Index(name = "idx_outbox_pagamento_fila", columnList = "situacao, proxima_tentativa"))
+@Data
+@NoArgsConstructor
+public class OutboxPagamento {
+
+    public static final String PENDENTE = "PENDENTE";
+    public static final String EM_ANDAMENTO = "EM_ANDAMENTO";
+    public static final String CONCLUIDO = "CONCLUIDO";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String idOutbox;
+
+    @Column(name = "id_pagamento", nullable = false, unique = true)
+    private String idPagamento;
+
+    // PENDENTE, EM_ANDAMENTO (reservada por um worker até 'proximaTentativa') ou CONCLUIDO
+    @Column(nullable = false, length = 20)
+    private String situacao;
+
+    private int tentativas;
+
+    // PENDENTE: quando pode ser processada; EM_ANDAMENTO: quando a reserva do worker expira
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm;
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+
+    @Column(name = "ultimo_erro", length = 500)
+    private String ultimoErro;
+
+    // Instância cujo CofreDadosCartao tem o cartão; só ela processa a entrada
+    @Column(length = 36)
+    private String instancia;
+
+    // Dados enviados ao gateway (o cartão vem do CofreDadosCartao)
+    @Column(name = "metodo_pagamento")
+    private String metodoPagamento;
+
+    @Column(name = "final_cartao", length = 4)
+    private String finalCartao;
+
+    public void limparDadosCobranca() {
+        this.metodoPagamento = null;
+        this.finalCartao = null;
+    }
+}
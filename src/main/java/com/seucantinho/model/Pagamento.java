@@ -4,10 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "TB_PAGAMENTO")
+@Table(name = "TB_PAGAMENTO", indexes = {
+    @Index(name = "ix_pagamento_reserva", columnList = "id_reserva"),
+    // Conciliação: pagamentos do período percorridos por keyset
+    @Index(name = "ix_pagamento_data", columnList = "data_pagamento, id_pagamento")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,15 +23,25 @@ public class Pagamento {
     @GeneratedValue(strategy = GenerationType.UUID)
     private String idPagamento;
 
-    // Relacionamento 1:1 com Reserva (Um Pagamento pertence a uma Reserva)
-    @OneToOne(fetch = FetchType.LAZY)
+    // Relacionamento N:1 com Reserva (sinal, parcelas e quitação são pagamentos separados)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_reserva", nullable = false)
     private Reserva reserva;
     
-    private float valor;
+    @ColumnDefault("0")
+    @Column(name = "valor_centavos", nullable = false)
+    private long valorCentavos;
     
     @Column(name = "data_pagamento")
     private LocalDateTime dataPagamento;
     
-    private String status; // Ex: SINAL, QUITADO, FALHOU
+    private String status; // Ex: PROCESSANDO, QUITADO, FALHOU, ESTORNO_PENDENTE
+
+    // Resultado da última conciliação com o arquivo de liquidação do gateway (CONCILIADO, DIVERGENTE,
+    // AUSENTE_NO_ARQUIVO). Gravado só pelos UPDATEs em lote do ConciliacaoPagamentosService
+    @Column(name = "situacao_conciliacao", length = 20, updatable = false)
+    private String situacaoConciliacao;
+
+    @Column(name = "id_execucao_conciliacao", updatable = false)
+    private String idExecucaoConciliacao;
 }
\ No newline at end of file
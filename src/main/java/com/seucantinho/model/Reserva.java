@@ -1,17 +1,33 @@
 package com.seucantinho.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Entity
-@Table(name = "TB_RESERVA")
+@Table(name = "TB_RESERVA", indexes = {
+    // Paginação por cursor das listagens (mesma ordem do ORDER BY)
+    @Index(name = "ix_reserva_data_reserva", columnList = "data_reserva, id_reserva"),
+    @Index(name = "ix_reserva_cliente_data_reserva", columnList = "id_cliente, data_reserva, id_reserva")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reserva {
+
+    // Status que ocupam o espaço na agenda (considerados nas checagens de sobreposição).
+    // Inclui PENDENTE: a reserva segura o horário enquanto aguarda o pagamento.
+    // Deve ficar igual ao WHERE da restrição em db/restricao-sobreposicao-reserva.sql
+    public static final Set<String> STATUS_QUE_OCUPAM = Set.of("PENDENTE", "SINAL_PAGO", "QUITADA", "CONFIRMADA");
+
+    // Percentual do valor total que conta como sinal (SINAL_PAGO)
+    public static final int PERCENTUAL_SINAL = 30;
     
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -43,8 +59,37 @@ public class Reserva {
     @Column(name = "status_reserva")
     private String statusReserva; 
 
-    // Relacionamento 1:1 com Pagamento (Uma Reserva tem um Pagamento)
-    // O CascadeType.ALL garante que o Pagamento seja salvo junto com a Reserva
-    @OneToOne(mappedBy = "reserva", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    private Pagamento pagamento;
+    // Série recorrente de origem (null para reservas avulsas)
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_serie")
+    private SerieReserva serie;
+
+    // Soma dos lançamentos do razão de pagamentos (TB_LANCAMENTO_PAGAMENTO), em centavos.
+    // Atualizado na mesma transação de cada lançamento (ver ReservaService.registrarPagamento)
+    @ColumnDefault("0")
+    @Column(name = "saldo_pago_centavos", nullable = false)
+    private long saldoPagoCentavos;
+
+    public static boolean ocupaEspaco(String status) {
+        return status != null && STATUS_QUE_OCUPAM.contains(status);
+    }
+
+    // valorPago guarda o valor total da reserva, em reais
+    public long valorTotalCentavos() {
+        return paraCentavos(valorPago);
+    }
+
+    // Arredondado para cima: o sinal nunca fica abaixo do percentual
+    public long sinalMinimoCentavos() {
+        return (valorTotalCentavos() * PERCENTUAL_SINAL + 99) / 100;
+    }
+
+    public long valorDevidoCentavos() {
+        return Math.max(0, valorTotalCentavos() - saldoPagoCentavos);
+    }
+
+    public static long paraCentavos(float valor) {
+        return Math.round(valor * 100.0);
+    }
 }
\ No newline at end of file
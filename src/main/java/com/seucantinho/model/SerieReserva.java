@@ -0,0 +1,80 @@
+package com.seucantinho.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Série de reservas recorrentes (ex: quadra toda terça às 19h até o fim do semestre).
+ * Guarda a regra; as ocorrências (até SerieReservaService.MAXIMO_OCORRENCIAS) são todas gravadas como
+ * Reservas na criação, ligadas à série por id_serie, para que as checagens de disponibilidade enxerguem os horários.
+ */
+@Entity
+@Table(name = "TB_SERIE_RESERVA")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieReserva {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String idSerie;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_cliente", nullable = false)
+    private Cliente cliente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_espaco", nullable = false)
+    private Espaco espaco;
+
+    // Início da primeira ocorrência
+    @Column(name = "data_primeiro_evento", nullable = false)
+    private LocalDateTime dataPrimeiroEvento;
+
+    @Column(name = "duracao_minutos", nullable = false)
+    private int duracaoMinutos;
+
+    // DIARIA, SEMANAL ou MENSAL
+    @Column(nullable = false)
+    private String frequencia;
+
+    // A cada quantas unidades da frequência (ex: 2 + SEMANAL = quinzenal)
+    @Column(nullable = false)
+    private int intervalo;
+
+    // Último dia (inclusive) em que a série pode ter ocorrência
+    @Column(name = "data_fim_serie", nullable = false)
+    private LocalDate dataFimSerie;
+
+    @Column(name = "valor_por_ocorrencia")
+    private float valorPorOcorrencia;
+
+    // ATIVA ou CANCELADA
+    private String status;
+
+    /**
+     * Início de cada ocorrência, gerado sob demanda a partir da regra. A n-ésima ocorrência é calculada a partir
+     * da primeira (e não da anterior), então uma série MENSAL no dia 31 volta ao dia 31 depois de um mês curto.
+     */
+    public Stream<LocalDateTime> inicios() {
+        return Stream.iterate(0L, n -> n + 1)
+                .map(this::ocorrencia)
+                .takeWhile(inicio -> !inicio.toLocalDate().isAfter(dataFimSerie));
+    }
+
+    private LocalDateTime ocorrencia(long n) {
+        long passos = n * intervalo;
+        return switch (frequencia) {
+            case "DIARIA" -> dataPrimeiroEvento.plusDays(passos);
+            case "SEMANAL" -> dataPrimeiroEvento.plusWeeks(passos);
+            case "MENSAL" -> dataPrimeiroEvento.plusMonths(passos);
+            default -> throw new IllegalStateException("Frequência inválida: " + frequencia);
+        };
+    }
+}
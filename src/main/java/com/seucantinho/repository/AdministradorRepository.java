@@ -1,11 +1,19 @@
 package com.seucantinho.repository;
 
 import com.seucantinho.model.Administrador;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AdministradorRepository extends JpaRepository<Administrador, String> {
     
     Administrador findByMatricula(String matricula);
+
+    // Paginação por cursor: ordem pela chave primária
+    List<Administrador> findByOrderByIdUsuarioAsc(Limit limite);
+
+    List<Administrador> findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(String idUsuario, Limit limite);
 }
\ No newline at end of file
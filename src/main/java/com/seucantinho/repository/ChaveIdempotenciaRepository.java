@@ -0,0 +1,52 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.model.ChaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, String> {
+
+    /**
+     * Registra o início da execução. Devolve 0 se a chave já existe (outra instância ou execução anterior).
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO tb_chave_idempotencia (chave, hash_requisicao, criado_em, expira_em)
+        VALUES (:chave, :hash, :agora, :expiraEm)
+        ON CONFLICT DO NOTHING
+        """, nativeQuery = true)
+    int registrarInicio(@Param("chave") String chave, @Param("hash") String hash,
+                        @Param("agora") LocalDateTime agora, @Param("expiraEm") LocalDateTime expiraEm);
+
+    /**
+     * Assume uma execução sem resposta iniciada antes de 'limite' (ex: a instância caiu no meio)
+     * ou uma chave já expirada. Só uma instância consegue (devolve 1).
+     */
+    @Modifying
+    @Query("""
+        UPDATE ChaveIdempotencia c
+        SET c.hashRequisicao = :hash, c.resposta = NULL, c.criadoEm = :agora, c.expiraEm = :expiraEm
+        WHERE c.chave = :chave
+          AND ((c.resposta IS NULL AND c.criadoEm < :limite) OR c.expiraEm < :agora)
+        """)
+    int assumirExecucao(@Param("chave") String chave, @Param("hash") String hash, @Param("agora") LocalDateTime agora,
+                        @Param("expiraEm") LocalDateTime expiraEm, @Param("limite") LocalDateTime limite);
+
+    @Modifying
+    @Query("UPDATE ChaveIdempotencia c SET c.resposta = :resposta WHERE c.chave = :chave")
+    int gravarResposta(@Param("chave") String chave, @Param("resposta") String resposta);
+
+    @Modifying
+    @Query("DELETE FROM ChaveIdempotencia c WHERE c.chave = :chave AND c.resposta IS NULL")
+    int liberar(@Param("chave") String chave);
+
+    @Modifying
+    @Query("DELETE FROM ChaveIdempotencia c WHERE c.expiraEm < :agora")
+    int removerExpiradas(@Param("agora") LocalDateTime agora);
+}
@@ -1,12 +1,20 @@
 package com.seucantinho.repository;
 
 import com.seucantinho.model.Cliente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface ClienteRepository extends JpaRepository<Cliente, String> {
     
     // Método para buscar um cliente pelo CPF (essencial para cadastro e validação)
     Cliente findByCpf(String cpf);
 
+    // Paginação por cursor: ordem pela chave primária
+    List<Cliente> findByOrderByIdUsuarioAsc(Limit limite);
+
+    List<Cliente> findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(String idUsuario, Limit limite);
+
     // O método findByEmail(String email) também é herdável, mas é mais limpo defini-lo no UsuarioRepository.
 }
\ No newline at end of file
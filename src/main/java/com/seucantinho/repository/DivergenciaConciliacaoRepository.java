@@ -0,0 +1,18 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.model.DivergenciaConciliacao;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DivergenciaConciliacaoRepository extends JpaRepository<DivergenciaConciliacao, String> {
+
+    // Paginação por cursor (idDivergencia), índice ix_divergencia_execucao
+    List<DivergenciaConciliacao> findByIdExecucaoOrderByIdDivergenciaAsc(String idExecucao, Limit limite);
+
+    List<DivergenciaConciliacao> findByIdExecucaoAndIdDivergenciaGreaterThanOrderByIdDivergenciaAsc(
+            String idExecucao, String idDivergencia, Limit limite);
+}
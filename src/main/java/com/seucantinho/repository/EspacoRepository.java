@@ -2,10 +2,67 @@
 package com.seucantinho.repository;
 
 import com.seucantinho.model.Espaco;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface EspacoRepository extends JpaRepository<Espaco, String> {
-    // Métodos de busca específicos, se necessário
+
+    // Espaços de uma filial, em ordem alfabética (linhas da matriz de disponibilidade); cache de consultas
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Espaco> findByFilialIdFilialOrderByNome(String idFilial);
+
+    // Carga do CatalogoEspacos: espaços já com a filial, sem uma consulta extra por espaço
+    @Query("SELECT e FROM Espaco e JOIN FETCH e.filial")
+    List<Espaco> findAllComFilial();
+
+    @Query("SELECT e FROM Espaco e JOIN FETCH e.filial WHERE e.idEspaco = :idEspaco")
+    Optional<Espaco> findComFilialById(@Param("idEspaco") String idEspaco);
+
+    @Query("SELECT e FROM Espaco e JOIN FETCH e.filial f WHERE f.idFilial = :idFilial")
+    List<Espaco> findComFilialByIdFilial(@Param("idFilial") String idFilial);
+
+    /**
+     * Lista os espaços livres no período em uma única consulta (anti-join NOT EXISTS),
+     * com os filtros de tipo e filial aplicados no banco. Filtros nulos são ignorados.
+     * O tipo deve vir em maiúsculas (SALAO, CHACARA, QUADRAESPORTIVA).
+     *
+     * Retorna Slice para paginar sem a consulta extra de contagem.
+     */
+    @Query("""
+        SELECT e
+        FROM Espaco e
+        WHERE (:idFilial IS NULL OR e.filial.idFilial = :idFilial)
+          AND (:tipo IS NULL
+               OR (:tipo = 'SALAO' AND TYPE(e) = Salao)
+               OR (:tipo = 'CHACARA' AND TYPE(e) = Chacara)
+               OR (:tipo = 'QUADRAESPORTIVA' AND TYPE(e) = QuadraEsportiva))
+          AND NOT EXISTS (
+                SELECT 1
+                FROM Reserva r
+                WHERE r.espaco = e
+                  AND r.statusReserva IN :#{T(com.seucantinho.model.Reserva).STATUS_QUE_OCUPAM}
+                  AND :dataInicio < r.dataEventoFim
+                  AND :dataFim > r.dataEvento
+          )
+        ORDER BY e.nome, e.idEspaco
+    """)
+    Slice<Espaco> findDisponiveis(
+            @Param("dataInicio") LocalDateTime dataInicio,
+            @Param("dataFim") LocalDateTime dataFim,
+            @Param("tipo") String tipo,
+            @Param("idFilial") String idFilial,
+            Pageable pageable
+    );
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.model.ExecucaoConciliacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ExecucaoConciliacaoRepository extends JpaRepository<ExecucaoConciliacao, String> {
+
+    List<ExecucaoConciliacao> findBySituacaoOrderByIniciadaEmAsc(String situacao);
+
+    // Só a situação: os contadores e checkpoints ficam como o último lote confirmado deixou
+    @Modifying
+    @Query("""
+        UPDATE ExecucaoConciliacao e
+        SET e.situacao = :situacao, e.erro = :erro, e.atualizadaEm = :agora
+        WHERE e.idExecucao = :idExecucao
+    """)
+    int atualizarSituacao(@Param("idExecucao") String idExecucao, @Param("situacao") String situacao,
+                          @Param("erro") String erro, @Param("agora") LocalDateTime agora);
+}
@@ -1,11 +1,34 @@
 package com.seucantinho.repository;
 
 import com.seucantinho.model.Filial;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface FilialRepository extends JpaRepository<Filial, String> {
     // Métodos CRUD (save, findById, findAll, delete) são herdados automaticamente.
     
     // Podemos adicionar consultas personalizadas aqui, se necessário. Ex:
     // Filial findByNomeFilial(String nomeFilial);
+
+    // Paginação por cursor: ordem (nomeFilial, idFilial), índice ix_filial_nome
+    List<Filial> findByOrderByNomeFilialAscIdFilialAsc(Limit limite);
+
+    @Query("""
+        SELECT f
+        FROM Filial f
+        WHERE (f.nomeFilial, f.idFilial) > (:nomeFilial, :idFilial)
+        ORDER BY f.nomeFilial, f.idFilial
+    """)
+    List<Filial> findPaginaApos(@Param("nomeFilial") String nomeFilial, @Param("idFilial") String idFilial, Limit limite);
+
+    // Filiais ativas em ordem estável (nome, id); cache de consultas
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Filial> findByStatusTrueOrderByNomeFilialAscIdFilialAsc();
 }
\ No newline at end of file
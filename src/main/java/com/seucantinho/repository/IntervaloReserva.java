@@ -0,0 +1,17 @@
+package com.seucantinho.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção enxuta de uma reserva: apenas o necessário para montar os índices de disponibilidade.
+ */
+public interface IntervaloReserva {
+
+    String getIdReserva();
+
+    String getIdEspaco();
+
+    LocalDateTime getDataEvento();
+
+    LocalDateTime getDataEventoFim();
+}
@@ -0,0 +1,15 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.model.LancamentoPagamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LancamentoPagamentoRepository extends JpaRepository<LancamentoPagamento, String> {
+
+    List<LancamentoPagamento> findByReservaIdReservaOrderByDataLancamentoAsc(String idReserva);
+
+    boolean existsByIdPagamentoAndTipo(String idPagamento, String tipo);
+}
@@ -0,0 +1,53 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.model.OutboxPagamento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxPagamentoRepository extends JpaRepository<OutboxPagamento, String> {
+
+    /**
+     * Entradas desta instância prontas para processar: PENDENTE vencida ou EM_ANDAMENTO com a reserva do worker
+     * expirada. Timeout de lock -2 = SKIP LOCKED: workers concorrentes pegam linhas diferentes.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT o FROM OutboxPagamento o WHERE o.situacao <> 'CONCLUIDO' AND o.instancia = :instancia "
+         + "AND o.proximaTentativa <= :agora ORDER BY o.proximaTentativa")
+    List<OutboxPagamento> findProntasParaProcessar(@Param("instancia") String instancia,
+                                                   @Param("agora") LocalDateTime agora, Limit limite);
+
+    /**
+     * Entradas de outras instâncias (ou de uma subida anterior desta) criadas antes de 'limite': os dados
+     * do cartão já expiraram de qualquer cofre, então ninguém mais consegue cobrá-las. SKIP LOCKED.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT o FROM OutboxPagamento o WHERE o.situacao <> 'CONCLUIDO' "
+         + "AND (o.instancia IS NULL OR o.instancia <> :instancia) AND o.criadoEm < :limite ORDER BY o.criadoEm")
+    List<OutboxPagamento> findOrfas(@Param("instancia") String instancia,
+                                    @Param("limite") LocalDateTime limite, Limit quantidade);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxPagamento o WHERE o.idOutbox = :idOutbox")
+    Optional<OutboxPagamento> findParaAtualizar(@Param("idOutbox") String idOutbox);
+
+    // Entradas dos pagamentos (FOR UPDATE, em ordem de idPagamento), para concluí-las fora do worker
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxPagamento o WHERE o.idPagamento IN :idsPagamento ORDER BY o.idPagamento")
+    List<OutboxPagamento> findParaAtualizarPorPagamentos(@Param("idsPagamento") Collection<String> idsPagamento);
+}
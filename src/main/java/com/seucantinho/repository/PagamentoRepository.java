@@ -4,7 +4,14 @@ import com.seucantinho.model.Pagamento;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PagamentoRepository extends JpaRepository<Pagamento, String> {
-    // Espaco para métodos de consulta personalizados, se necessário
+
+    boolean existsByReservaIdReserva(String idReserva);
+
+    boolean existsByReservaIdReservaAndStatus(String idReserva, String status);
+
+    List<Pagamento> findByReservaIdReservaAndStatus(String idReserva, String status);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.seucantinho.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção com os dados que definem os prazos do ciclo de vida de uma reserva
+ * (expiração da pré-reserva e conclusão do evento).
+ */
+public interface PrazoReserva {
+
+    String getIdReserva();
+
+    String getStatusReserva();
+
+    LocalDateTime getDataReserva();
+
+    LocalDateTime getDataEventoFim();
+
+    // Null se a reserva não pertence a uma série
+    String getIdSerie();
+}
@@ -1,13 +1,20 @@
 package com.seucantinho.repository;
 
+import com.seucantinho.dto.ReservaResponse;
 import com.seucantinho.model.Reserva;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, String> {
@@ -15,8 +22,85 @@ public interface ReservaRepository extends JpaRepository<Reserva, String> {
     // Busca reservas por cliente
     List<Reserva> findByClienteIdUsuario(String idUsuario);
 
+    // ------------------------------------------------------------------------
+    // Leitura de ReservaResponse: projeção por construtor, um único SELECT com os joins
+    // de cliente e espaço (sem carregar entidades nem consultas extras por linha). O saldo pago
+    // vem da própria linha da reserva (materializado), sem somar os pagamentos.
+    //
+    // Paginação por cursor: ordem (dataReserva, idReserva), índices ix_reserva_data_reserva
+    // e ix_reserva_cliente_data_reserva. O "Apos" continua depois da última linha entregue.
+    // ------------------------------------------------------------------------
+
+    @Query("""
+        SELECT new com.seucantinho.dto.ReservaResponse(
+                   r.idReserva, c.idUsuario, c.nome, e.idEspaco, e.nome,
+                   r.dataReserva, r.dataEvento, r.valorPago, r.statusReserva, r.saldoPagoCentavos)
+        FROM Reserva r
+        JOIN r.cliente c
+        JOIN r.espaco e
+        WHERE r.idReserva = :idReserva
+    """)
+    Optional<ReservaResponse> findRespostaPorId(@Param("idReserva") String idReserva);
+
+    @Query("""
+        SELECT new com.seucantinho.dto.ReservaResponse(
+                   r.idReserva, c.idUsuario, c.nome, e.idEspaco, e.nome,
+                   r.dataReserva, r.dataEvento, r.valorPago, r.statusReserva, r.saldoPagoCentavos)
+        FROM Reserva r
+        JOIN r.cliente c
+        JOIN r.espaco e
+        ORDER BY r.dataReserva, r.idReserva
+    """)
+    List<ReservaResponse> findPagina(Limit limite);
+
+    @Query("""
+        SELECT new com.seucantinho.dto.ReservaResponse(
+                   r.idReserva, c.idUsuario, c.nome, e.idEspaco, e.nome,
+                   r.dataReserva, r.dataEvento, r.valorPago, r.statusReserva, r.saldoPagoCentavos)
+        FROM Reserva r
+        JOIN r.cliente c
+        JOIN r.espaco e
+        WHERE (r.dataReserva, r.idReserva) > (:dataReserva, :idReserva)
+        ORDER BY r.dataReserva, r.idReserva
+    """)
+    List<ReservaResponse> findPaginaApos(
+            @Param("dataReserva") LocalDateTime dataReserva,
+            @Param("idReserva") String idReserva,
+            Limit limite
+    );
+
+    @Query("""
+        SELECT new com.seucantinho.dto.ReservaResponse(
+                   r.idReserva, c.idUsuario, c.nome, e.idEspaco, e.nome,
+                   r.dataReserva, r.dataEvento, r.valorPago, r.statusReserva, r.saldoPagoCentavos)
+        FROM Reserva r
+        JOIN r.cliente c
+        JOIN r.espaco e
+        WHERE r.cliente.idUsuario = :idCliente
+        ORDER BY r.dataReserva, r.idReserva
+    """)
+    List<ReservaResponse> findPaginaDoCliente(@Param("idCliente") String idCliente, Limit limite);
+
+    @Query("""
+        SELECT new com.seucantinho.dto.ReservaResponse(
+                   r.idReserva, c.idUsuario, c.nome, e.idEspaco, e.nome,
+                   r.dataReserva, r.dataEvento, r.valorPago, r.statusReserva, r.saldoPagoCentavos)
+        FROM Reserva r
+        JOIN r.cliente c
+        JOIN r.espaco e
+        WHERE r.cliente.idUsuario = :idCliente
+          AND (r.dataReserva, r.idReserva) > (:dataReserva, :idReserva)
+        ORDER BY r.dataReserva, r.idReserva
+    """)
+    List<ReservaResponse> findPaginaDoClienteApos(
+            @Param("idCliente") String idCliente,
+            @Param("dataReserva") LocalDateTime dataReserva,
+            @Param("idReserva") String idReserva,
+            Limit limite
+    );
+
     /**
-     * Verifica se existe alguma reserva CONFIRMADA que se sobreponha ao período solicitado.
+     * Verifica se existe alguma reserva ativa (Reserva.STATUS_QUE_OCUPAM) que se sobreponha ao período solicitado.
      * A lógica de sobreposição é:
      *
      *   (início solicitado < fim da reserva existente)
@@ -28,7 +112,7 @@ public interface ReservaRepository extends JpaRepository<Reserva, String> {
         SELECT r
         FROM Reserva r
         WHERE r.espaco.idEspaco = :idEspaco
-          AND r.statusReserva = 'CONFIRMADA'
+          AND r.statusReserva IN :#{T(com.seucantinho.model.Reserva).STATUS_QUE_OCUPAM}
           AND (
                 :dataInicio < r.dataEventoFim
             AND :dataFim > r.dataEvento
@@ -39,4 +123,135 @@ public interface ReservaRepository extends JpaRepository<Reserva, String> {
             @Param("dataInicio") LocalDateTime dataInicio,
             @Param("dataFim") LocalDateTime dataFim
     );
+
+    /**
+     * Carrega apenas os intervalos das reservas ativas, usado para montar o
+     * índice de disponibilidade em memória (IndiceDisponibilidade).
+     */
+    @Query("""
+        SELECT r.idReserva AS idReserva,
+               r.espaco.idEspaco AS idEspaco,
+               r.dataEvento AS dataEvento,
+               r.dataEventoFim AS dataEventoFim
+        FROM Reserva r
+        WHERE r.statusReserva IN :#{T(com.seucantinho.model.Reserva).STATUS_QUE_OCUPAM}
+    """)
+    List<IntervaloReserva> findIntervalosOcupados();
+
+    /**
+     * Intervalos ativos de um espaço que tocam o período [inicio, fim).
+     * Usado para recalcular só os dias afetados do CalendarioOcupacao.
+     */
+    @Query("""
+        SELECT r.idReserva AS idReserva,
+               r.espaco.idEspaco AS idEspaco,
+               r.dataEvento AS dataEvento,
+               r.dataEventoFim AS dataEventoFim
+        FROM Reserva r
+        WHERE r.espaco.idEspaco = :idEspaco
+          AND r.statusReserva IN :#{T(com.seucantinho.model.Reserva).STATUS_QUE_OCUPAM}
+          AND r.dataEvento < :fim
+          AND r.dataEventoFim > :inicio
+    """)
+    List<IntervaloReserva> findIntervalosOcupadosDoEspaco(
+            @Param("idEspaco") String idEspaco,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fim") LocalDateTime fim
+    );
+
+    /**
+     * Intervalos ativos de vários espaços que tocam o período [inicio, fim).
+     * Usado na criação em lote para checar todas as reservas com uma única consulta.
+     */
+    @Query("""
+        SELECT r.idReserva AS idReserva,
+               r.espaco.idEspaco AS idEspaco,
+               r.dataEvento AS dataEvento,
+               r.dataEventoFim AS dataEventoFim
+        FROM Reserva r
+        WHERE r.espaco.idEspaco IN :idsEspaco
+          AND r.statusReserva IN :#{T(com.seucantinho.model.Reserva).STATUS_QUE_OCUPAM}
+          AND r.dataEvento < :fim
+          AND r.dataEventoFim > :inicio
+    """)
+    List<IntervaloReserva> findIntervalosOcupadosDosEspacos(
+            @Param("idsEspaco") Collection<String> idsEspaco,
+            @Param("inicio") LocalDateTime inicio,
+            @Param("fim") LocalDateTime fim
+    );
+
+    /**
+     * Ocorrências futuras de uma série em determinados status, bloqueadas (FOR UPDATE) para que um pagamento
+     * ou o ciclo de vida não as altere enquanto a série é cancelada. Em ordem de id, como toda trava em lote.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT r FROM Reserva r
+        WHERE r.serie.idSerie = :idSerie
+          AND r.dataEvento >= :apartir
+          AND r.statusReserva IN :status
+        ORDER BY r.idReserva
+    """)
+    List<Reserva> findOcorrenciasParaAtualizar(
+            @Param("idSerie") String idSerie,
+            @Param("apartir") LocalDateTime apartir,
+            @Param("status") Collection<String> status
+    );
+
+    /**
+     * Atualiza o valor das ocorrências futuras (não canceladas) de uma série em um único UPDATE.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Reserva r
+        SET r.valorPago = :valor
+        WHERE r.serie.idSerie = :idSerie
+          AND r.dataEvento >= :apartir
+          AND r.statusReserva <> 'CANCELADA'
+    """)
+    int atualizarValorOcorrenciasDaSerie(
+            @Param("idSerie") String idSerie,
+            @Param("apartir") LocalDateTime apartir,
+            @Param("valor") float valor
+    );
+
+    /**
+     * Prazos de todas as reservas ativas, usados para remontar o AgendadorCicloReserva na subida.
+     */
+    @Query("""
+        SELECT r.idReserva AS idReserva,
+               r.statusReserva AS statusReserva,
+               r.dataReserva AS dataReserva,
+               r.dataEventoFim AS dataEventoFim,
+               r.serie.idSerie AS idSerie
+        FROM Reserva r
+        WHERE r.statusReserva IN :#{T(com.seucantinho.model.Reserva).STATUS_QUE_OCUPAM}
+    """)
+    List<PrazoReserva> findPrazosAtivos();
+
+    // Bloqueia a reserva (FOR UPDATE) enquanto um lançamento do razão de pagamentos atualiza o saldo
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reserva r WHERE r.idReserva = :idReserva")
+    Optional<Reserva> findParaAtualizar(@Param("idReserva") String idReserva);
+
+    // Bloqueia as linhas (FOR UPDATE) para que o UPDATE seguinte afete exatamente as reservas lidas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Reserva> findByIdReservaInAndStatusReservaIn(Collection<String> idsReserva, Collection<String> status);
+
+    /**
+     * Muda o status de várias reservas em um único UPDATE. O filtro pelo status de origem
+     * garante que uma reserva alterada nesse meio tempo (ex: paga) não seja sobrescrita.
+     */
+    @Modifying
+    @Query("""
+        UPDATE Reserva r
+        SET r.statusReserva = :novoStatus
+        WHERE r.idReserva IN :idsReserva
+          AND r.statusReserva IN :statusOrigem
+    """)
+    int atualizarStatusEmLote(
+            @Param("idsReserva") Collection<String> idsReserva,
+            @Param("statusOrigem") Collection<String> statusOrigem,
+            @Param("novoStatus") String novoStatus
+    );
 }
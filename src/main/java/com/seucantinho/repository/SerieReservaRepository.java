@@ -0,0 +1,9 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.model.SerieReserva;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SerieReservaRepository extends JpaRepository<SerieReserva, String> {
+}
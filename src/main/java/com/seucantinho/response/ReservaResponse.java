@@ -1,10 +1,21 @@
 package com.seucantinho.dto;
 
+import com.seucantinho.model.Reserva;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class ReservaResponse {
+
+    // Mostrado quando a reserva ainda não tem pagamento
+    public static final String PAGAMENTO_NAO_INICIADO = "NÃO INICIADO";
+    // Parte do valor já paga (ex: sinal)
+    public static final String PAGAMENTO_PARCIAL = "PARCIAL";
+    public static final String PAGAMENTO_QUITADO = "QUITADO";
+
     private String idReserva;
     private String idCliente;
     private String nomeCliente; 
@@ -15,4 +26,32 @@ public class ReservaResponse {
     private Float valorPago;
     private String statusReserva;
     private String statusPagamento; 
-}
\ No newline at end of file
+    private Long saldoPagoCentavos;
+    private Long valorDevidoCentavos;
+
+    // Usado pelas consultas "SELECT new ..." do ReservaRepository
+    public ReservaResponse(String idReserva, String idCliente, String nomeCliente, String idEspaco, String nomeEspaco,
+                           LocalDateTime dataReserva, LocalDateTime dataEvento, Float valorPago,
+                           String statusReserva, Long saldoPagoCentavos) {
+        this.idReserva = idReserva;
+        this.idCliente = idCliente;
+        this.nomeCliente = nomeCliente;
+        this.idEspaco = idEspaco;
+        this.nomeEspaco = nomeEspaco;
+        this.dataReserva = dataReserva;
+        this.dataEvento = dataEvento;
+        this.valorPago = valorPago;
+        this.statusReserva = statusReserva;
+        preencherSaldo(valorPago != null ? Reserva.paraCentavos(valorPago) : 0, saldoPagoCentavos != null ? saldoPagoCentavos : 0);
+    }
+
+    /**
+     * Saldo, valor devido e situação do pagamento a partir do total e do saldo materializado da reserva.
+     */
+    public void preencherSaldo(long valorTotalCentavos, long saldoPagoCentavos) {
+        this.saldoPagoCentavos = saldoPagoCentavos;
+        this.valorDevidoCentavos = Math.max(0, valorTotalCentavos - saldoPagoCentavos);
+        this.statusPagamento = saldoPagoCentavos <= 0 ? PAGAMENTO_NAO_INICIADO
+                : valorDevidoCentavos > 0 ? PAGAMENTO_PARCIAL : PAGAMENTO_QUITADO;
+    }
+}
@@ -1,5 +1,6 @@
 package com.seucantinho.service;
 
+import com.seucantinho.dto.PaginaDTO;
 import com.seucantinho.model.Administrador;
 import com.seucantinho.model.Filial;
 import com.seucantinho.repository.AdministradorRepository;
@@ -7,6 +8,7 @@ import com.seucantinho.exception.UsuarioNaoEncontradoException;
 import com.seucantinho.exception.ValidacaoException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -47,8 +49,17 @@ public class AdministradorService {
         return administradorRepository.save(administrador);
     }
 
-    public List<Administrador> listarTodos() {
-        return administradorRepository.findAll();
+    /**
+     * Lista os Administradores paginados por cursor (ordem do ID).
+     * @param cursor proximoCursor da página anterior (null na primeira página).
+     */
+    public PaginaDTO<Administrador> listarTodos(String cursor, int limite) {
+        int tamanho = CursorPaginacao.limitar(limite);
+        String[] chaves = CursorPaginacao.decodificar(cursor, 1);
+        List<Administrador> administradores = chaves == null
+                ? administradorRepository.findByOrderByIdUsuarioAsc(Limit.of(tamanho + 1))
+                : administradorRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(chaves[0], Limit.of(tamanho + 1));
+        return CursorPaginacao.montar(administradores, tamanho, a -> CursorPaginacao.codificar(a.getIdUsuario()), a -> a);
     }
 
     public Administrador buscarPorId(String id) {
@@ -0,0 +1,252 @@
+package com.seucantinho.service;
+
+import com.seucantinho.event.ReservaAlteradaEvent;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.repository.PrazoReserva;
+import com.seucantinho.repository.ReservaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ciclo de vida das reservas guiado por prazos em memória (RodaTemporizacao):
+ *  - PENDENTE sem pagamento expira (EXPIRADA) após o TTL da pré-reserva, ou no fim do evento se vier antes;
+ *    ocorrências de série não têm TTL (cada uma é paga perto da sua data) e só expiram no fim do evento;
+ *  - SINAL_PAGO, QUITADA e CONFIRMADA viram CONCLUIDA quando o evento termina.
+ *
+ * Os prazos são remontados do banco na subida e mantidos pelos ReservaAlteradaEvent.
+ * As transições vencidas são gravadas em UPDATEs em lote, sem varrer a TB_RESERVA.
+ */
+@Component
+public class AgendadorCicloReserva {
+
+    private static final Logger log = LoggerFactory.getLogger(AgendadorCicloReserva.class);
+
+    enum Transicao {
+        EXPIRAR(Set.of("PENDENTE"), "EXPIRADA"),
+        CONCLUIR(Set.of("SINAL_PAGO", "QUITADA", "CONFIRMADA"), "CONCLUIDA");
+
+        final Set<String> statusOrigem;
+        final String statusDestino;
+
+        Transicao(Set<String> statusOrigem, String statusDestino) {
+            this.statusOrigem = statusOrigem;
+            this.statusDestino = statusDestino;
+        }
+
+        static Transicao para(String status) {
+            for (Transicao transicao : values()) {
+                if (transicao.statusOrigem.contains(status)) {
+                    return transicao;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final ReservaRepository reservaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean ativo;
+    private final Duration ttlPendente;
+    private final int tamanhoLote;
+    private final ZoneId fusoHorario = ZoneId.systemDefault();
+
+    private final RodaTemporizacao<String> roda;
+    private final Map<String, Transicao> agendadas = new HashMap<>();
+    private volatile boolean carregado = false;
+
+    @Autowired
+    public AgendadorCicloReserva(
+            ReservaRepository reservaRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${seucantinho.reservas.ciclo.ativo:true}") boolean ativo,
+            @Value("${seucantinho.reservas.ciclo.ttl-pendente-minutos:30}") long ttlPendenteMinutos,
+            @Value("${seucantinho.reservas.ciclo.tick-ms:1000}") long tickMs,
+            @Value("${seucantinho.reservas.ciclo.tamanho-lote:500}") int tamanhoLote) {
+        this.reservaRepository = reservaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ativo = ativo;
+        this.ttlPendente = Duration.ofMinutes(ttlPendenteMinutos);
+        this.tamanhoLote = tamanhoLote;
+        this.roda = new RodaTemporizacao<>(tickMs, System.currentTimeMillis());
+    }
+
+    // ------------------------------------------------------------------------
+    // CARGA E ATUALIZAÇÃO DOS PRAZOS
+    // ------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        if (!ativo) {
+            log.info("Agendador do ciclo de reservas desabilitado.");
+            return;
+        }
+        for (PrazoReserva prazo : reservaRepository.findPrazosAtivos()) {
+            LocalDateTime inicioPreReserva = prazo.getIdSerie() == null ? prazo.getDataReserva() : null;
+            agendar(prazo.getIdReserva(), prazo.getStatusReserva(), inicioPreReserva, prazo.getDataEventoFim());
+        }
+        carregado = true;
+        log.info("Agendador do ciclo de reservas carregado com {} prazos.", roda.tamanho());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarReserva(ReservaAlteradaEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        ReservaAlteradaEvent.Estado anterior = evento.anterior();
+        ReservaAlteradaEvent.Estado atual = evento.atual();
+        if (atual == null) {
+            cancelar(evento.idReserva());
+            return;
+        }
+
+        if (atual.ocorrenciaDeSerie()) {
+            agendar(evento.idReserva(), atual.status(), null, atual.fim());
+            return;
+        }
+
+        // Uma reserva que continua PENDENTE mantém o prazo da pré-reserva original
+        boolean continuaPendente = anterior != null && "PENDENTE".equals(anterior.status()) && "PENDENTE".equals(atual.status());
+        Long prazoAtual = roda.prazo(evento.idReserva());
+        LocalDateTime inicioPreReserva = continuaPendente && prazoAtual != null
+                ? paraData(prazoAtual).minus(ttlPendente)
+                : LocalDateTime.now();
+        agendar(evento.idReserva(), atual.status(), inicioPreReserva, atual.fim());
+    }
+
+    public synchronized int quantidadeAgendada() {
+        return roda.tamanho();
+    }
+
+    // ------------------------------------------------------------------------
+    // DISPARO
+    // ------------------------------------------------------------------------
+
+    /**
+     * Avança a roda até agora e grava as transições vencidas, em lotes.
+     * @return quantidade de reservas que mudaram de status.
+     */
+    @Scheduled(fixedDelayString = "${seucantinho.reservas.ciclo.tick-ms:1000}")
+    public int processarVencidas() {
+        if (!ativo || !carregado) {
+            return 0;
+        }
+        Map<Transicao, List<String>> vencidas = new EnumMap<>(Transicao.class);
+        synchronized (this) {
+            for (String idReserva : roda.avancar(System.currentTimeMillis())) {
+                Transicao transicao = agendadas.remove(idReserva);
+                if (transicao != null) {
+                    vencidas.computeIfAbsent(transicao, t -> new ArrayList<>()).add(idReserva);
+                }
+            }
+        }
+
+        int alteradas = 0;
+        for (Map.Entry<Transicao, List<String>> entrada : vencidas.entrySet()) {
+            List<String> ids = entrada.getValue();
+            for (int i = 0; i < ids.size(); i += tamanhoLote) {
+                List<String> lote = ids.subList(i, Math.min(i + tamanhoLote, ids.size()));
+                try {
+                    alteradas += transactionTemplate.execute(status -> aplicar(entrada.getKey(), lote));
+                } catch (RuntimeException e) {
+                    // Recoloca o lote para nova tentativa no próximo tick
+                    log.error("Falha ao aplicar {} em {} reservas; tentando novamente.", entrada.getKey(), lote.size(), e);
+                    reagendar(entrada.getKey(), lote);
+                }
+            }
+        }
+        if (alteradas > 0) {
+            log.info("Ciclo de reservas: {} reservas atualizadas.", alteradas);
+        }
+        return alteradas;
+    }
+
+    private int aplicar(Transicao transicao, List<String> ids) {
+        // Linhas bloqueadas: o UPDATE afeta exatamente as reservas lidas aqui
+        List<Reserva> reservas = reservaRepository.findByIdReservaInAndStatusReservaIn(ids, transicao.statusOrigem);
+        if (reservas.isEmpty()) {
+            return 0;
+        }
+        List<String> idsAtuais = reservas.stream().map(Reserva::getIdReserva).toList();
+        int alteradas = reservaRepository.atualizarStatusEmLote(idsAtuais, transicao.statusOrigem, transicao.statusDestino);
+
+        for (Reserva reserva : reservas) {
+            ReservaAlteradaEvent.Estado anterior = ReservaAlteradaEvent.Estado.de(reserva);
+            eventPublisher.publishEvent(new ReservaAlteradaEvent(
+                    reserva.getIdReserva(),
+                    anterior,
+                    anterior.comStatus(transicao.statusDestino)
+            ));
+        }
+        return alteradas;
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    // Sem inicioPreReserva (ocorrência de série) a PENDENTE só expira no fim do evento
+    private void agendar(String idReserva, String status, LocalDateTime inicioPreReserva, LocalDateTime fimEvento) {
+        Transicao transicao = Transicao.para(status);
+        if (transicao == null || fimEvento == null) {
+            cancelar(idReserva);
+            return;
+        }
+        LocalDateTime prazo = fimEvento;
+        if (transicao == Transicao.EXPIRAR && inicioPreReserva != null) {
+            LocalDateTime fimPreReserva = inicioPreReserva.plus(ttlPendente);
+            if (fimPreReserva.isBefore(prazo)) {
+                prazo = fimPreReserva;
+            }
+        }
+        roda.agendar(idReserva, paraMillis(prazo));
+        agendadas.put(idReserva, transicao);
+    }
+
+    private synchronized void reagendar(Transicao transicao, List<String> ids) {
+        long agora = System.currentTimeMillis();
+        for (String idReserva : ids) {
+            if (!agendadas.containsKey(idReserva)) {
+                roda.agendar(idReserva, agora);
+                agendadas.put(idReserva, transicao);
+            }
+        }
+    }
+
+    private void cancelar(String idReserva) {
+        roda.cancelar(idReserva);
+        agendadas.remove(idReserva);
+    }
+
+    private long paraMillis(LocalDateTime data) {
+        return data.atZone(fusoHorario).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime paraData(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), fusoHorario);
+    }
+}
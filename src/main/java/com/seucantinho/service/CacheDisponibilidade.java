@@ -0,0 +1,148 @@
+package com.seucantinho.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seucantinho.dto.EspacoDTO;
+import com.seucantinho.event.ReservaAlteradaEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache dos resultados da listagem de espaços disponíveis (GET /api/espacos com datas).
+ * Limitado por tamanho e com expiração (TTL). A chave é a janela + tipo + filial + página, já normalizados.
+ *
+ * Quando uma reserva muda, só são descartadas as entradas cuja janela cruza o período da reserva
+ * e cujo filtro de tipo/filial inclui o espaço afetado (tipo e filial lidos do CatalogoEspacos, sem ir ao banco).
+ * Hits e misses ficam em cache.gets{cache=disponibilidade}.
+ */
+@Component
+public class CacheDisponibilidade {
+
+    private final CatalogoEspacos catalogoEspacos;
+    private final boolean ativo;
+    private final Cache<Chave, List<EspacoDTO>> cache;
+
+    // Incrementada a cada invalidação: um resultado calculado enquanto houve invalidação não é guardado
+    private final AtomicLong geracao = new AtomicLong();
+
+    @Autowired
+    public CacheDisponibilidade(
+            CatalogoEspacos catalogoEspacos,
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.disponibilidade.cache.ativo:true}") boolean ativo,
+            @Value("${seucantinho.disponibilidade.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+            @Value("${seucantinho.disponibilidade.cache.ttl-segundos:30}") long ttlSegundos) {
+        this.catalogoEspacos = catalogoEspacos;
+        this.ativo = ativo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "disponibilidade");
+    }
+
+    /**
+     * Chave normalizada de uma consulta: datas sem frações de segundo, tipo em maiúsculas, filial sem espaços.
+     */
+    public record Chave(LocalDateTime inicio, LocalDateTime fim, String tipo, String idFilial, int pagina, int tamanho) {
+
+        public static Chave de(LocalDateTime inicio, LocalDateTime fim, String tipo, String idFilial, int pagina, int tamanho) {
+            return new Chave(inicio.withNano(0), fim.withNano(0), tipo, idFilial, pagina, tamanho);
+        }
+
+        boolean cruza(LocalDateTime outroInicio, LocalDateTime outroFim) {
+            return inicio.isBefore(outroFim) && fim.isAfter(outroInicio);
+        }
+    }
+
+    /**
+     * Devolve o resultado em cache ou calcula com a função informada.
+     */
+    public List<EspacoDTO> buscar(Chave chave, Supplier<List<EspacoDTO>> consulta) {
+        if (!ativo) {
+            return consulta.get();
+        }
+        List<EspacoDTO> emCache = cache.getIfPresent(chave);
+        if (emCache != null) {
+            return emCache;
+        }
+        long geracaoInicial = geracao.get();
+        List<EspacoDTO> resultado = List.copyOf(consulta.get());
+        if (geracao.get() == geracaoInicial) {
+            cache.put(chave, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta tudo (ex: espaço criado, alterado ou removido). Dentro de uma transação
+     * o descarte acontece após o commit, para que nenhuma consulta guarde o estado antigo.
+     */
+    public void invalidarTudo() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartarTudo();
+                }
+            });
+        } else {
+            descartarTudo();
+        }
+    }
+
+    private void descartarTudo() {
+        geracao.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarReserva(ReservaAlteradaEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        Alvo anterior = alvo(evento.anterior());
+        Alvo atual = alvo(evento.atual());
+        if (anterior == null && atual == null) {
+            return;
+        }
+        geracao.incrementAndGet();
+
+        // Uma varredura para os dois estados
+        cache.asMap().keySet().removeIf(chave ->
+                (anterior != null && anterior.afeta(chave)) || (atual != null && atual.afeta(chave)));
+    }
+
+    // Período, filial e tipo do espaço de um estado da reserva; filial/tipo null (catálogo fora do ar) afetam qualquer filtro
+    private Alvo alvo(ReservaAlteradaEvent.Estado estado) {
+        if (estado == null || estado.inicio() == null || estado.fim() == null) {
+            return null;
+        }
+        EspacoDTO espaco = catalogoEspacos.disponivel() ? catalogoEspacos.buscar(estado.idEspaco()) : null;
+        return new Alvo(estado.inicio(), estado.fim(),
+                espaco != null ? espaco.getIdFilial() : null,
+                espaco != null ? espaco.getTipo() : null);
+    }
+
+    private record Alvo(LocalDateTime inicio, LocalDateTime fim, String idFilial, String tipo) {
+
+        boolean afeta(Chave chave) {
+            return chave.cruza(inicio, fim)
+                    && (chave.idFilial() == null || idFilial == null || chave.idFilial().equals(idFilial))
+                    && (chave.tipo() == null || tipo == null || chave.tipo().equals(tipo));
+        }
+    }
+}
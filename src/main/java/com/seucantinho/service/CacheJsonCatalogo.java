@@ -0,0 +1,185 @@
+package com.seucantinho.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seucantinho.dto.EspacoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON já renderizado das respostas do catálogo, escrito direto na resposta HTTP sem passar pelo Jackson.
+ *
+ * Espaços: cada EspacoDTO do CatalogoEspacos vira um fragmento de bytes, reaproveitado enquanto o
+ * catálogo mantiver a mesma instância do DTO (o catálogo só troca os DTOs dos espaços alterados).
+ * A lista completa é a concatenação dos fragmentos, então uma alteração reserializa só um espaço.
+ *
+ * Filiais: respostas inteiras em um cache Caffeine cuja chave inclui o ETag da VersaoCatalogo;
+ * uma escrita muda o ETag e as entradas antigas saem por tamanho/tempo.
+ *
+ * As variantes gzip e deflate de cada resposta são calculadas na primeira vez que alguém as pede.
+ */
+@Component
+public class CacheJsonCatalogo {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Json> respostas;
+
+    // Fragmentos por idEspaco, junto do DTO de origem (comparado por identidade)
+    private volatile Map<String, Fragmento> fragmentos = Map.of();
+    private volatile ListaRenderizada lista = new ListaRenderizada(null, null);
+
+    @Autowired
+    public CacheJsonCatalogo(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.catalogo.json.tamanho-maximo:1000}") long tamanhoMaximo) {
+        this.objectMapper = objectMapper;
+        this.respostas = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, respostas, "catalogo-json");
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSULTA
+    // ------------------------------------------------------------------------
+
+    /**
+     * JSON da lista de espaços do catálogo (a mesma instância de lista devolve sempre o mesmo Json).
+     */
+    public Json listaEspacos(List<EspacoDTO> catalogo) {
+        ListaRenderizada atual = lista;
+        if (atual.origem() == catalogo) {
+            return atual.json();
+        }
+        synchronized (this) {
+            if (lista.origem() == catalogo) {
+                return lista.json();
+            }
+            Map<String, Fragmento> anteriores = fragmentos;
+            Map<String, Fragmento> novos = new HashMap<>(catalogo.size() * 2);
+            ByteArrayOutputStream saida = new ByteArrayOutputStream();
+            saida.write('[');
+            for (int i = 0; i < catalogo.size(); i++) {
+                EspacoDTO dto = catalogo.get(i);
+                Fragmento fragmento = anteriores.get(dto.getIdEspaco());
+                if (fragmento == null || fragmento.origem() != dto) {
+                    fragmento = new Fragmento(dto, serializar(dto));
+                }
+                novos.put(dto.getIdEspaco(), fragmento);
+                if (i > 0) {
+                    saida.write(',');
+                }
+                saida.writeBytes(fragmento.json());
+            }
+            saida.write(']');
+
+            fragmentos = novos;
+            lista = new ListaRenderizada(catalogo, new Json(saida.toByteArray()));
+            return lista.json();
+        }
+    }
+
+    /**
+     * JSON de um espaço do catálogo (fragmento da lista, quando o DTO é o mesmo).
+     */
+    public Json espaco(EspacoDTO dto) {
+        Fragmento fragmento = fragmentos.get(dto.getIdEspaco());
+        if (fragmento != null && fragmento.origem() == dto) {
+            return new Json(fragmento.json());
+        }
+        return new Json(serializar(dto));
+    }
+
+    /**
+     * Resposta guardada pela chave; 'conteudo' só é chamado (e serializado) em caso de ausência.
+     * @param chave Deve incluir a versão dos dados (ex: o ETag da VersaoCatalogo).
+     */
+    public Json resposta(String chave, Supplier<Object> conteudo) {
+        return respostas.get(chave, k -> new Json(serializar(conteudo.get())));
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    private byte[] serializar(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar resposta do catálogo.", e);
+        }
+    }
+
+    private record Fragmento(EspacoDTO origem, byte[] json) {
+    }
+
+    private record ListaRenderizada(List<EspacoDTO> origem, Json json) {
+    }
+
+    /**
+     * Bytes de uma resposta e suas variantes comprimidas. Uma variante que não fica menor que o
+     * original é descartada (gzip()/deflate() devolvem null e o chamador envia sem compressão).
+     */
+    public static final class Json {
+
+        private static final byte[] NAO_COMPENSA = new byte[0];
+
+        private final byte[] identidade;
+        private volatile byte[] gzip;
+        private volatile byte[] deflate;
+
+        Json(byte[] identidade) {
+            this.identidade = identidade;
+        }
+
+        public byte[] identidade() {
+            return identidade;
+        }
+
+        public byte[] gzip() {
+            if (gzip == null) {
+                gzip = comprimir(GZIPOutputStream::new);
+            }
+            return gzip == NAO_COMPENSA ? null : gzip;
+        }
+
+        public byte[] deflate() {
+            if (deflate == null) {
+                deflate = comprimir(DeflaterOutputStream::new);
+            }
+            return deflate == NAO_COMPENSA ? null : deflate;
+        }
+
+        private byte[] comprimir(Compressor compressor) {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(identidade.length / 4 + 64);
+            try (OutputStream comprimido = compressor.abrir(saida)) {
+                comprimido.write(identidade);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return saida.size() < identidade.length ? saida.toByteArray() : NAO_COMPENSA;
+        }
+
+        private interface Compressor {
+            OutputStream abrir(OutputStream destino) throws IOException;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.seucantinho.service;
+
+import com.seucantinho.event.ReservaAlteradaEvent;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.repository.IntervaloReserva;
+import com.seucantinho.repository.ReservaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calendário de ocupação em bitmap: para cada espaço, um mapa esparso dia -> máscara de 24 bits
+ * (bit h ligado = alguma reserva ocupa a hora [h, h+1) daquele dia). Dias sem ocupação não são
+ * armazenados, no estilo dos containers do Roaring Bitmap (chave alta = dia, container = horas).
+ *
+ * Permite montar a matriz espaços x dias de uma filial inteira com operações bit a bit,
+ * sem SQL. É montado a partir da TB_RESERVA na subida e recalculado, só nos dias afetados,
+ * quando uma reserva muda.
+ */
+@Component
+public class CalendarioOcupacao {
+
+    private static final Logger log = LoggerFactory.getLogger(CalendarioOcupacao.class);
+
+    public static final int HORAS_DIA = 24;
+    public static final int DIA_INTEIRO = (1 << HORAS_DIA) - 1;
+
+    private final ReservaRepository reservaRepository;
+
+    // idEspaco -> (epochDay -> máscara de horas ocupadas)
+    private final Map<String, Map<Long, Integer>> porEspaco = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CalendarioOcupacao(ReservaRepository reservaRepository) {
+        this.reservaRepository = reservaRepository;
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSULTA
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return máscara das horas ocupadas do espaço no dia (0 = dia livre).
+     */
+    public int ocupacao(String idEspaco, LocalDate dia) {
+        Map<Long, Integer> dias = porEspaco.get(idEspaco);
+        if (dias == null) {
+            return 0;
+        }
+        return dias.getOrDefault(dia.toEpochDay(), 0);
+    }
+
+    /**
+     * Máscara com os bits das horas [horaInicio, horaFim) ligados.
+     */
+    public static int janela(int horaInicio, int horaFim) {
+        return DIA_INTEIRO & ~((1 << horaInicio) - 1) & ((int) ((1L << horaFim) - 1));
+    }
+
+    // ------------------------------------------------------------------------
+    // CARGA E ATUALIZAÇÃO
+    // ------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        Map<String, Map<Long, Integer>> novo = new HashMap<>();
+        for (IntervaloReserva intervalo : reservaRepository.findIntervalosOcupados()) {
+            marcar(novo.computeIfAbsent(intervalo.getIdEspaco(), k -> new HashMap<>()),
+                   intervalo.getDataEvento(), intervalo.getDataEventoFim());
+        }
+        novo.forEach((idEspaco, dias) -> porEspaco.put(idEspaco, new ConcurrentHashMap<>(dias)));
+        porEspaco.keySet().retainAll(novo.keySet());
+        log.info("Calendário de ocupação carregado para {} espaços.", porEspaco.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarReserva(ReservaAlteradaEvent evento) {
+        ReservaAlteradaEvent.Estado anterior = evento.anterior();
+        ReservaAlteradaEvent.Estado atual = evento.atual();
+
+        // Reservas que não ocupam o espaço (ex: CANCELADA, EXPIRADA) não mexem no calendário
+        boolean ocupavaAntes = anterior != null && Reserva.ocupaEspaco(anterior.status());
+        boolean ocupaAgora = atual != null && Reserva.ocupaEspaco(atual.status());
+        if (!ocupavaAntes && !ocupaAgora) {
+            return;
+        }
+        if (anterior != null) {
+            recalcular(anterior);
+        }
+        if (atual != null) {
+            recalcular(atual);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    /**
+     * Recalcula, a partir do banco, apenas os dias cobertos pelo intervalo informado.
+     * Como vários intervalos podem dividir a mesma hora, não dá para simplesmente desligar bits.
+     */
+    private void recalcular(ReservaAlteradaEvent.Estado estado) {
+        if (estado.inicio() == null || estado.fim() == null || !estado.fim().isAfter(estado.inicio())) {
+            return;
+        }
+        LocalDateTime inicio = estado.inicio().toLocalDate().atStartOfDay();
+        LocalDateTime fim = estado.fim().minusNanos(1).toLocalDate().plusDays(1).atStartOfDay();
+
+        Map<Long, Integer> recalculados = new HashMap<>();
+        List<IntervaloReserva> intervalos = reservaRepository.findIntervalosOcupadosDoEspaco(estado.idEspaco(), inicio, fim);
+        for (IntervaloReserva intervalo : intervalos) {
+            marcar(recalculados, max(intervalo.getDataEvento(), inicio), min(intervalo.getDataEventoFim(), fim));
+        }
+
+        Map<Long, Integer> dias = porEspaco.computeIfAbsent(estado.idEspaco(), k -> new ConcurrentHashMap<>());
+        for (long dia = inicio.toLocalDate().toEpochDay(); dia < fim.toLocalDate().toEpochDay(); dia++) {
+            Integer mascara = recalculados.get(dia);
+            if (mascara == null) {
+                dias.remove(dia);
+            } else {
+                dias.put(dia, mascara);
+            }
+        }
+    }
+
+    // Liga os bits das horas tocadas pelo intervalo [inicio, fim)
+    private static void marcar(Map<Long, Integer> dias, LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio == null || fim == null || !fim.isAfter(inicio)) {
+            return;
+        }
+        LocalDateTime hora = inicio.truncatedTo(ChronoUnit.HOURS);
+        while (hora.isBefore(fim)) {
+            dias.merge(hora.toLocalDate().toEpochDay(), 1 << hora.getHour(), (a, b) -> a | b);
+            hora = hora.plusHours(1);
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
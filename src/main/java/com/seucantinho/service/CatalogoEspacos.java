@@ -0,0 +1,161 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.EspacoDTO;
+import com.seucantinho.event.EspacoAlteradoEvent;
+import com.seucantinho.event.FilialAlteradaEvent;
+import com.seucantinho.model.Espaco;
+import com.seucantinho.repository.EspacoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo de espaços em memória (modelo de leitura): cada espaço já no formato final de EspacoDTO,
+ * com o tipo resolvido e o nome/status da filial copiados. Leituras (buscarPorId, listarTodos)
+ * viram uma consulta a um mapa, sem os joins da hierarquia TB_ESPACO/TB_SALAO/... nem a carga da filial.
+ *
+ * É carregado na subida da aplicação e atualizado pelos eventos de espaço e de filial (após o commit).
+ * Os DTOs devolvidos são compartilhados: quem precisar alterar algum deve trabalhar em uma cópia.
+ */
+@Component
+public class CatalogoEspacos {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoEspacos.class);
+
+    private static final Comparator<EspacoDTO> ORDEM =
+            Comparator.comparing(EspacoDTO::getNome).thenComparing(EspacoDTO::getIdEspaco);
+
+    private final EspacoRepository espacoRepository;
+    private final boolean habilitado;
+
+    // Snapshot imutável (mapa por ID na ordem nome, id): leituras não precisam de lock,
+    // escritas (raras) montam um novo snapshot e trocam a referência
+    private volatile Map<String, EspacoDTO> porId = Map.of();
+    private volatile List<EspacoDTO> ordenados = List.of();
+
+    private volatile boolean carregado = false;
+
+    @Autowired
+    public CatalogoEspacos(
+            EspacoRepository espacoRepository,
+            @Value("${seucantinho.catalogo.em-memoria:true}") boolean habilitado) {
+        this.espacoRepository = espacoRepository;
+        this.habilitado = habilitado;
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSULTA
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true se o catálogo pode responder (habilitado e já carregado).
+     * Caso contrário o chamador deve usar a consulta ao banco.
+     */
+    public boolean disponivel() {
+        return habilitado && carregado;
+    }
+
+    /**
+     * Espaço pelo ID, ou null se não existir. Um ID ausente do snapshot é conferido no banco
+     * (ex: espaço gravado por fora do EspacoService) e, se existir, passa a fazer parte do catálogo.
+     */
+    public EspacoDTO buscar(String idEspaco) {
+        EspacoDTO espaco = porId.get(idEspaco);
+        if (espaco != null) {
+            return espaco;
+        }
+        aoAlterarEspaco(new EspacoAlteradoEvent(idEspaco));
+        return porId.get(idEspaco);
+    }
+
+    // Todos os espaços, em ordem (nome, id)
+    public List<EspacoDTO> listar() {
+        return ordenados;
+    }
+
+    // ------------------------------------------------------------------------
+    // CARGA E ATUALIZAÇÃO
+    // ------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            log.info("Catálogo de espaços em memória desabilitado; usando consulta ao banco.");
+            return;
+        }
+        synchronized (this) {
+            Map<String, EspacoDTO> novo = new LinkedHashMap<>();
+            for (Espaco espaco : espacoRepository.findAllComFilial()) {
+                novo.put(espaco.getIdEspaco(), montar(espaco));
+            }
+            publicar(novo);
+            carregado = true;
+        }
+        log.info("Catálogo de espaços carregado com {} espaços.", porId.size());
+    }
+
+    @Order(VersaoCatalogo.ORDEM_ATUALIZACAO_LEITURA)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarEspaco(EspacoAlteradoEvent evento) {
+        if (!habilitado) {
+            return;
+        }
+        Espaco espaco = espacoRepository.findComFilialById(evento.idEspaco()).orElse(null);
+        if (espaco == null && !porId.containsKey(evento.idEspaco())) {
+            return;
+        }
+        Map<String, EspacoDTO> novo = new LinkedHashMap<>(porId);
+        if (espaco != null) {
+            novo.put(espaco.getIdEspaco(), montar(espaco));
+        } else {
+            novo.remove(evento.idEspaco());
+        }
+        publicar(novo);
+    }
+
+    @Order(VersaoCatalogo.ORDEM_ATUALIZACAO_LEITURA)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarFilial(FilialAlteradaEvent evento) {
+        if (!habilitado) {
+            return;
+        }
+        // Relê todos os espaços da filial: além do nome/status, a filial pode ter levado espaços junto (cascade)
+        Map<String, EspacoDTO> novo = new LinkedHashMap<>(porId);
+        novo.values().removeIf(dto -> evento.idFilial().equals(dto.getIdFilial()));
+        for (Espaco espaco : espacoRepository.findComFilialByIdFilial(evento.idFilial())) {
+            novo.put(espaco.getIdEspaco(), montar(espaco));
+        }
+        publicar(novo);
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    private static EspacoDTO montar(Espaco espaco) {
+        EspacoDTO dto = EspacoService.paraDTO(espaco);
+        dto.setNomeFilial(espaco.getFilial().getNomeFilial());
+        dto.setStatusFilial(espaco.getFilial().isStatus());
+        return dto;
+    }
+
+    private void publicar(Map<String, EspacoDTO> espacos) {
+        List<EspacoDTO> lista = espacos.values().stream().sorted(ORDEM).toList();
+        Map<String, EspacoDTO> mapa = new LinkedHashMap<>(lista.size() * 2);
+        lista.forEach(dto -> mapa.put(dto.getIdEspaco(), dto));
+        ordenados = lista;
+        porId = Collections.unmodifiableMap(mapa);
+    }
+}
@@ -3,15 +3,21 @@ package com.seucantinho.service;
 import com.seucantinho.model.Cliente;
 import com.seucantinho.repository.ClienteRepository;
 import com.seucantinho.dto.ClienteDTO; 
+import com.seucantinho.dto.PaginaDTO;
 import com.seucantinho.model.Usuario;
 import com.seucantinho.exception.ValidacaoException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; 
 
 import jakarta.persistence.EntityNotFoundException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ClienteService {
@@ -106,6 +112,15 @@ public class ClienteService {
                 .orElseThrow(() -> new EntityNotFoundException("Cliente com ID " + idCliente + " não encontrado."));
     }
 
+    /**
+     * Busca vários Clientes de uma vez (uma única consulta IN).
+     * @return Mapa idUsuario -> Cliente; IDs inexistentes ficam de fora.
+     */
+    public Map<String, Cliente> buscarEntitiesPorIds(Collection<String> idsCliente) {
+        return clienteRepository.findAllById(idsCliente).stream()
+                .collect(Collectors.toMap(Cliente::getIdUsuario, Function.identity()));
+    }
+
     /**
      * Busca um Cliente pelo CPF.
      * @param cpf O CPF do cliente.
@@ -184,12 +199,16 @@ public class ClienteService {
     }
 
     /**
-     * Lista todos os Clientes.
-     * @return Uma lista de todos os Clientes em DTO.
+     * Lista os Clientes paginados por cursor (ordem do ID).
+     * @param cursor proximoCursor da página anterior (null na primeira página).
+     * @return Uma página de Clientes em DTO.
      */
-    public List<ClienteDTO> listarTodos() {
-        return clienteRepository.findAll().stream()
-                .map(this::toDTO) // Mapeia cada Entity para um DTO
-                .toList();
+    public PaginaDTO<ClienteDTO> listarTodos(String cursor, int limite) {
+        int tamanho = CursorPaginacao.limitar(limite);
+        String[] chaves = CursorPaginacao.decodificar(cursor, 1);
+        List<Cliente> clientes = chaves == null
+                ? clienteRepository.findByOrderByIdUsuarioAsc(Limit.of(tamanho + 1))
+                : clienteRepository.findByIdUsuarioGreaterThanOrderByIdUsuarioAsc(chaves[0], Limit.of(tamanho + 1));
+        return CursorPaginacao.montar(clientes, tamanho, c -> CursorPaginacao.codificar(c.getIdUsuario()), this::toDTO);
     }
 }
\ No newline at end of file
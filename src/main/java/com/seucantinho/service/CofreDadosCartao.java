@@ -0,0 +1,114 @@
+package com.seucantinho.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Dados do cartão (número, titular, CVV) de cada pagamento em andamento, só em memória, pelo idPagamento.
+ * Nada disso vai para o banco: a outbox guarda apenas o método e os últimos dígitos do cartão.
+ *
+ * Por isso só esta instância consegue cobrar os pagamentos que ela aceitou (a outbox registra a instância).
+ * Os dados saem do cofre quando o pagamento conclui e expiram após o prazo de retenção; um pagamento
+ * cujo cartão não está mais aqui (processo reiniciado, prazo vencido) é recusado pelo ProcessadorPagamentos.
+ */
+@Component
+public class CofreDadosCartao {
+
+    public record DadosCartao(String numeroCartao, String nomeTitular, Integer cvv) {
+
+        // Evita que o número e o CVV apareçam em logs
+        @Override
+        public String toString() {
+            return "DadosCartao[final " + finalCartao(numeroCartao) + "]";
+        }
+    }
+
+    // Identifica esta instância (muda a cada subida do processo)
+    private final String instancia = UUID.randomUUID().toString();
+    private final Cache<String, DadosCartao> dados;
+    private final Duration retencao;
+
+    @Autowired
+    public CofreDadosCartao(
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.pagamentos.cartao.retencao-minutos:15}") long retencaoMinutos) {
+        this.retencao = Duration.ofMinutes(retencaoMinutos);
+        this.dados = Caffeine.newBuilder()
+                .expireAfterWrite(retencao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, dados, "cartoes");
+    }
+
+    public String instancia() {
+        return instancia;
+    }
+
+    // Passado o prazo, nenhuma instância tem mais os dados de um pagamento criado antes dele
+    public Duration retencao() {
+        return retencao;
+    }
+
+    /**
+     * Guarda os dados do cartão. Dentro de uma transação eles são descartados se ela for desfeita.
+     */
+    public void guardar(String idPagamento, DadosCartao cartao) {
+        dados.put(idPagamento, cartao);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        descartar(idPagamento);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return Os dados do cartão, ou null se não estão (mais) nesta instância.
+     */
+    public DadosCartao buscar(String idPagamento) {
+        return dados.getIfPresent(idPagamento);
+    }
+
+    public void descartar(String idPagamento) {
+        dados.invalidate(idPagamento);
+    }
+
+    /**
+     * Descarta só depois do commit: se a conclusão do pagamento for desfeita, a entrada volta a ser
+     * processada e ainda precisa do cartão.
+     */
+    public void descartarAposCommit(String idPagamento) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar(idPagamento);
+                }
+            });
+        } else {
+            descartar(idPagamento);
+        }
+    }
+
+    public static String finalCartao(String numeroCartao) {
+        if (numeroCartao == null) {
+            return null;
+        }
+        String digitos = numeroCartao.replaceAll("\\D", "");
+        return digitos.length() <= 4 ? digitos : digitos.substring(digitos.length() - 4);
+    }
+}
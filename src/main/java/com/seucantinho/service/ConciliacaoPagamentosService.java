@@ -0,0 +1,591 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.PaginaDTO;
+import com.seucantinho.event.PagamentoConcluidoEvent;
+import com.seucantinho.exception.ValidacaoException;
+import com.seucantinho.model.DivergenciaConciliacao;
+import com.seucantinho.model.ExecucaoConciliacao;
+import com.seucantinho.model.OutboxPagamento;
+import com.seucantinho.repository.DivergenciaConciliacaoRepository;
+import com.seucantinho.repository.ExecucaoConciliacaoRepository;
+import com.seucantinho.repository.OutboxPagamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Conciliação dos pagamentos (TB_PAGAMENTO) com o arquivo de liquidação do gateway, em lotes:
+ *  1. ARQUIVO: o arquivo é lido por NIO (LeitorArquivoLiquidacao) e o próximo lote de linhas é lido em paralelo
+ *     enquanto o atual é comparado com os pagamentos correspondentes (uma consulta por lote). Cada lote grava,
+ *     em uma transação, a marca de conciliação dos pagamentos, as correções de status e as divergências
+ *     (JdbcTemplate.batchUpdate) junto com o checkpoint (posição no arquivo).
+ *  2. AUSENTES: pagamentos cobrados no período que nenhuma linha marcou, percorridos por keyset
+ *     (data_pagamento, id_pagamento), também com checkpoint por lote.
+ *
+ * O arquivo não precisa vir ordenado: a ordem do gateway não é a do banco, então cada lote do arquivo
+ * busca seus pagamentos pelo id em vez de um merge das duas sequências.
+ *
+ * O gateway é a fonte da verdade só para pagamentos ainda PROCESSANDO ou com estorno pendente: uma aprovação
+ * passa pelo PagamentoService.concluirPagamento (lança no razão da reserva); recusas e estornos confirmados são
+ * UPDATEs em lote condicionados ao status lido. A entrada da outbox de um pagamento PROCESSANDO liquidado aqui
+ * é bloqueada e concluída na mesma transação (o worker não cobra de novo) e quem aguarda o resultado é avisado.
+ * As demais diferenças viram divergências para análise.
+ *
+ * Uma execução por vez. A execução interrompida por queda do processo continua do último checkpoint quando a
+ * aplicação sobe; uma que falhou, pelo retomar().
+ */
+@Service
+public class ConciliacaoPagamentosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConciliacaoPagamentosService.class);
+
+    // Status do arquivo de liquidação
+    static final String APROVADO = "APROVADO";
+    static final String RECUSADO = "RECUSADO";
+    static final String ESTORNADO = "ESTORNADO";
+
+    // TB_PAGAMENTO.situacao_conciliacao
+    private static final String CONCILIADO = "CONCILIADO";
+    private static final String DIVERGENTE = "DIVERGENTE";
+
+    private static final String SQL_PAGAMENTOS_DO_LOTE =
+            "SELECT id_pagamento, status, valor_centavos, data_pagamento FROM tb_pagamento WHERE id_pagamento IN (%s)";
+
+    // Cobrados no período [?, ?) e ainda não marcados por esta execução, depois do checkpoint (data, id)
+    private static final String SQL_AUSENTES = """
+        SELECT id_pagamento, status, valor_centavos, data_pagamento FROM tb_pagamento
+        WHERE (data_pagamento > ? OR (data_pagamento = ? AND id_pagamento > ?))
+          AND data_pagamento < ?
+          AND status IN ('QUITADO', 'ESTORNO_PENDENTE')
+          AND (id_execucao_conciliacao IS NULL OR id_execucao_conciliacao <> ?)
+        ORDER BY data_pagamento, id_pagamento
+        LIMIT ?
+        """;
+
+    private static final String SQL_MARCAR =
+            "UPDATE tb_pagamento SET situacao_conciliacao = ?, id_execucao_conciliacao = ? WHERE id_pagamento = ?";
+
+    // Condicionado ao status lido: um pagamento concluído pelo worker nesse meio tempo não é sobrescrito
+    private static final String SQL_CORRIGIR_STATUS =
+            "UPDATE tb_pagamento SET status = ? WHERE id_pagamento = ? AND status = ?";
+
+    private static final String SQL_INSERIR_DIVERGENCIA = """
+        INSERT INTO tb_divergencia_conciliacao (id_divergencia, id_execucao, id_pagamento, tipo, numero_linha,
+            status_local, status_gateway, valor_local_centavos, valor_gateway_centavos, detalhe)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final ExecucaoConciliacaoRepository execucaoRepository;
+    private final DivergenciaConciliacaoRepository divergenciaRepository;
+    private final PagamentoService pagamentoService;
+    private final OutboxPagamentoRepository outboxPagamentoRepository;
+    private final CofreDadosCartao cofreDadosCartao;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Path diretorio;
+    private final int tamanhoLote;
+
+    private final Counter linhasConciliadas;
+    private final Counter correcoes;
+    private final Timer loteArquivo;
+    private final Timer loteAusentes;
+
+    // Execução em andamento nesta instância (null = livre)
+    private final AtomicReference<String> emExecucao = new AtomicReference<>();
+
+    @Autowired
+    public ConciliacaoPagamentosService(
+            ExecucaoConciliacaoRepository execucaoRepository,
+            DivergenciaConciliacaoRepository divergenciaRepository,
+            PagamentoService pagamentoService,
+            OutboxPagamentoRepository outboxPagamentoRepository,
+            CofreDadosCartao cofreDadosCartao,
+            ApplicationEventPublisher eventPublisher,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("executorConciliacao") ThreadPoolExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.pagamentos.conciliacao.diretorio:liquidacao}") String diretorio,
+            @Value("${seucantinho.pagamentos.conciliacao.tamanho-lote:1000}") int tamanhoLote) {
+        this.execucaoRepository = execucaoRepository;
+        this.divergenciaRepository = divergenciaRepository;
+        this.pagamentoService = pagamentoService;
+        this.outboxPagamentoRepository = outboxPagamentoRepository;
+        this.cofreDadosCartao = cofreDadosCartao;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.diretorio = Paths.get(diretorio).toAbsolutePath().normalize();
+        this.tamanhoLote = tamanhoLote;
+
+        this.linhasConciliadas = Counter.builder("pagamentos.conciliacao.linhas")
+                .description("Linhas do arquivo de liquidação conciliadas")
+                .register(meterRegistry);
+        this.correcoes = Counter.builder("pagamentos.conciliacao.correcoes")
+                .description("Pagamentos com status corrigido pelo arquivo de liquidação")
+                .register(meterRegistry);
+        this.loteArquivo = Timer.builder("pagamentos.conciliacao.lote")
+                .description("Duração de cada lote da conciliação (consulta, comparação e gravação)")
+                .tag("fase", ExecucaoConciliacao.FASE_ARQUIVO)
+                .register(meterRegistry);
+        this.loteAusentes = Timer.builder("pagamentos.conciliacao.lote")
+                .description("Duração de cada lote da conciliação (consulta, comparação e gravação)")
+                .tag("fase", ExecucaoConciliacao.FASE_AUSENTES)
+                .register(meterRegistry);
+    }
+
+    // ------------------------------------------------------------------------
+    // EXECUÇÕES
+    // ------------------------------------------------------------------------
+
+    /**
+     * Registra a execução e a inicia em segundo plano.
+     * @param arquivo Nome do arquivo dentro do diretório de liquidação.
+     * @throws ValidacaoException se o arquivo não existir, o período for inválido ou já houver uma execução em andamento.
+     */
+    public synchronized ExecucaoConciliacao iniciar(String arquivo, LocalDateTime dataInicio, LocalDateTime dataFim) {
+        if (!dataInicio.isBefore(dataFim)) {
+            throw new ValidacaoException("A data de início deve ser anterior à data de fim.");
+        }
+        resolverArquivo(arquivo);
+        verificarLivre();
+
+        LocalDateTime agora = LocalDateTime.now();
+        ExecucaoConciliacao execucao = new ExecucaoConciliacao();
+        execucao.setArquivo(arquivo);
+        execucao.setDataInicio(dataInicio);
+        execucao.setDataFim(dataFim);
+        execucao.setFase(ExecucaoConciliacao.FASE_ARQUIVO);
+        execucao.setSituacao(ExecucaoConciliacao.EM_EXECUCAO);
+        execucao.setUltimaDataPagamento(dataInicio);
+        execucao.setUltimoIdPagamento("");
+        execucao.setIniciadaEm(agora);
+        execucao.setAtualizadaEm(agora);
+        execucao = execucaoRepository.save(execucao);
+
+        despachar(execucao.getIdExecucao());
+        return execucao;
+    }
+
+    /**
+     * Continua uma execução que falhou a partir do último checkpoint gravado.
+     */
+    public synchronized ExecucaoConciliacao retomar(String idExecucao) {
+        ExecucaoConciliacao execucao = buscar(idExecucao);
+        if (ExecucaoConciliacao.CONCLUIDA.equals(execucao.getSituacao())) {
+            throw new ValidacaoException("A conciliação " + idExecucao + " já foi concluída.");
+        }
+        verificarLivre();
+        transactionTemplate.executeWithoutResult(status -> execucaoRepository.atualizarSituacao(
+                idExecucao, ExecucaoConciliacao.EM_EXECUCAO, null, LocalDateTime.now()));
+
+        despachar(idExecucao);
+        return buscar(idExecucao);
+    }
+
+    public ExecucaoConciliacao buscar(String idExecucao) {
+        return execucaoRepository.findById(idExecucao)
+                .orElseThrow(() -> new EntityNotFoundException("Conciliação com ID " + idExecucao + " não encontrada."));
+    }
+
+    public PaginaDTO<DivergenciaConciliacao> listarDivergencias(String idExecucao, String cursor, int limite) {
+        buscar(idExecucao);
+        int tamanho = CursorPaginacao.limitar(limite);
+        String[] chaves = CursorPaginacao.decodificar(cursor, 1);
+        Limit limiteConsulta = Limit.of(tamanho + 1);
+        List<DivergenciaConciliacao> linhas = chaves == null
+                ? divergenciaRepository.findByIdExecucaoOrderByIdDivergenciaAsc(idExecucao, limiteConsulta)
+                : divergenciaRepository.findByIdExecucaoAndIdDivergenciaGreaterThanOrderByIdDivergenciaAsc(
+                        idExecucao, chaves[0], limiteConsulta);
+        return CursorPaginacao.montar(linhas, tamanho, d -> CursorPaginacao.codificar(d.getIdDivergencia()), d -> d);
+    }
+
+    /**
+     * Conciliação noturna do arquivo do dia anterior (liquidacao-AAAA-MM-DD.csv); desligada por padrão.
+     */
+    @Scheduled(cron = "${seucantinho.pagamentos.conciliacao.agendamento:-}")
+    public void conciliarDiaAnterior() {
+        LocalDate dia = LocalDate.now().minusDays(1);
+        String arquivo = "liquidacao-" + dia + ".csv";
+        try {
+            iniciar(arquivo, dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+        } catch (ValidacaoException e) {
+            log.warn("Conciliação de {} não iniciada: {}", dia, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void retomarInterrompidas() {
+        List<ExecucaoConciliacao> interrompidas =
+                execucaoRepository.findBySituacaoOrderByIniciadaEmAsc(ExecucaoConciliacao.EM_EXECUCAO);
+        if (interrompidas.isEmpty() || emExecucao.get() != null) {
+            return;
+        }
+        String idExecucao = interrompidas.get(0).getIdExecucao();
+        log.info("Retomando a conciliação {} do último checkpoint.", idExecucao);
+        despachar(idExecucao);
+    }
+
+    private void verificarLivre() {
+        String atual = emExecucao.get();
+        if (atual != null) {
+            throw new ValidacaoException("A conciliação " + atual + " ainda está em execução.");
+        }
+    }
+
+    private void despachar(String idExecucao) {
+        emExecucao.set(idExecucao);
+        try {
+            executor.execute(() -> executar(idExecucao));
+        } catch (RejectedExecutionException e) {
+            // Fica EM_EXECUCAO: é retomada na próxima subida ou pelo retomar()
+            emExecucao.set(null);
+            throw new IllegalStateException("Pool da conciliação indisponível.", e);
+        }
+    }
+
+    private void executar(String idExecucao) {
+        try {
+            ExecucaoConciliacao execucao = buscar(idExecucao);
+            if (ExecucaoConciliacao.FASE_ARQUIVO.equals(execucao.getFase())) {
+                conciliarArquivo(execucao);
+                execucao.setFase(ExecucaoConciliacao.FASE_AUSENTES);
+                salvar(execucao);
+            }
+            conciliarAusentes(execucao);
+
+            execucao.setSituacao(ExecucaoConciliacao.CONCLUIDA);
+            execucao.setConcluidaEm(LocalDateTime.now());
+            salvar(execucao);
+            log.info("Conciliação {} concluída: {} linhas, {} conciliados, {} divergências, {} correções.",
+                    idExecucao, execucao.getLinhasLidas(), execucao.getConciliados(),
+                    execucao.getDivergencias(), execucao.getCorrecoes());
+        } catch (RuntimeException e) {
+            Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Conciliação {} falhou; pode ser retomada do último lote gravado.", idExecucao, causa);
+            String erro = String.valueOf(causa.getMessage() != null ? causa.getMessage() : causa.getClass().getName());
+            try {
+                // Só a situação: contadores e checkpoints ficam como o último lote confirmado deixou
+                transactionTemplate.executeWithoutResult(status -> execucaoRepository.atualizarSituacao(
+                        idExecucao, ExecucaoConciliacao.FALHOU, erro.substring(0, Math.min(erro.length(), 500)),
+                        LocalDateTime.now()));
+            } catch (RuntimeException ex) {
+                log.error("Falha ao registrar o erro da conciliação {}.", idExecucao, ex);
+            }
+        } finally {
+            emExecucao.set(null);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // FASE 1: ARQUIVO
+    // ------------------------------------------------------------------------
+
+    private void conciliarArquivo(ExecucaoConciliacao execucao) {
+        Path caminho = resolverArquivo(execucao.getArquivo());
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            LeitorArquivoLiquidacao leitor = new LeitorArquivoLiquidacao(
+                    canal, execucao.getOffsetArquivo(), execucao.getLinhasLidas());
+            LeitorArquivoLiquidacao.Lote lote = leitor.ler(tamanhoLote);
+            while (!lote.linhas().isEmpty()) {
+                // O próximo lote é lido enquanto este é conciliado e gravado
+                CompletableFuture<LeitorArquivoLiquidacao.Lote> proximo =
+                        CompletableFuture.supplyAsync(() -> leitor.ler(tamanhoLote), executor);
+                LeitorArquivoLiquidacao.Lote atual = lote;
+                Gravacao gravacao = loteArquivo.record(() -> transactionTemplate.execute(status -> {
+                    Gravacao g = conciliarLote(execucao, atual.linhas());
+                    execucao.setOffsetArquivo(atual.posicaoFinal());
+                    execucao.setLinhasLidas(atual.numeroLinhaFinal());
+                    gravar(execucao, g);
+                    return g;
+                }));
+                registrarMetricas(gravacao, atual.linhas().size());
+                lote = proximo.join();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Gravacao conciliarLote(ExecucaoConciliacao execucao, List<LeitorArquivoLiquidacao.Linha> linhas) {
+        Map<String, PagamentoLocal> locais = carregarPagamentos(linhas);
+        Gravacao g = new Gravacao(execucao.getIdExecucao());
+        for (LeitorArquivoLiquidacao.Linha linha : linhas) {
+            if (linha.erro() != null) {
+                g.divergencia(linha.idPagamento(), DivergenciaConciliacao.LINHA_INVALIDA, linha, null, linha.erro());
+                continue;
+            }
+            PagamentoLocal local = locais.get(linha.idPagamento());
+            if (local == null) {
+                g.divergencia(linha.idPagamento(), DivergenciaConciliacao.AUSENTE_NO_BANCO, linha, null,
+                        "Pagamento não encontrado.");
+                continue;
+            }
+            comparar(linha, local, g);
+        }
+
+        // Entradas da outbox dos pagamentos PROCESSANDO liquidados aqui: bloqueadas antes de mudar o pagamento
+        // (mesma ordem do worker: outbox, depois pagamento/reserva), para que ele não cobre de novo depois
+        List<OutboxPagamento> entradas = g.processando.isEmpty() ? List.of()
+                : outboxPagamentoRepository.findParaAtualizarPorPagamentos(g.processando);
+
+        // Aprovações de pagamentos ainda PROCESSANDO: mesmo caminho do worker (razão e status da reserva)
+        for (String idPagamento : g.aprovar) {
+            pagamentoService.concluirPagamento(idPagamento, "SUCESSO");
+        }
+        g.corrigidos = g.aprovar.size() + executarLote(SQL_CORRIGIR_STATUS, g.correcoes);
+
+        LocalDateTime agora = LocalDateTime.now();
+        for (OutboxPagamento entrada : entradas) {
+            if (OutboxPagamento.CONCLUIDO.equals(entrada.getSituacao())) {
+                continue;
+            }
+            entrada.setSituacao(OutboxPagamento.CONCLUIDO);
+            entrada.setConcluidoEm(agora);
+            entrada.limparDadosCobranca();
+            cofreDadosCartao.descartarAposCommit(entrada.getIdPagamento());
+        }
+        for (String idPagamento : g.processando) {
+            eventPublisher.publishEvent(new PagamentoConcluidoEvent(idPagamento));
+        }
+        return g;
+    }
+
+    /**
+     * Tabela de decisão: status do arquivo x status local.
+     */
+    private void comparar(LeitorArquivoLiquidacao.Linha linha, PagamentoLocal local, Gravacao g) {
+        String tipo = null;
+        String detalhe = null;
+        switch (linha.status()) {
+            case APROVADO -> {
+                if (local.valorCentavos() != linha.valorCentavos()) {
+                    tipo = DivergenciaConciliacao.VALOR_DIFERENTE;
+                } else if (PagamentoService.STATUS_PROCESSANDO.equals(local.status())) {
+                    g.aprovar.add(local.idPagamento());
+                    g.processando.add(local.idPagamento());
+                } else if (!"QUITADO".equals(local.status())
+                        && !PagamentoService.STATUS_ESTORNO_PENDENTE.equals(local.status())) {
+                    tipo = DivergenciaConciliacao.STATUS_DIFERENTE;
+                }
+            }
+            case RECUSADO -> {
+                if (PagamentoService.STATUS_PROCESSANDO.equals(local.status())) {
+                    g.correcoes.add(new Object[] { "FALHOU", local.idPagamento(), local.status() });
+                    g.processando.add(local.idPagamento());
+                } else if (!"FALHOU".equals(local.status())) {
+                    tipo = DivergenciaConciliacao.STATUS_DIFERENTE;
+                }
+            }
+            case ESTORNADO -> {
+                if (PagamentoService.STATUS_ESTORNO_PENDENTE.equals(local.status())) {
+                    g.correcoes.add(new Object[] { "CANCELADO", local.idPagamento(), local.status() });
+                } else if (!"CANCELADO".equals(local.status())) {
+                    tipo = DivergenciaConciliacao.STATUS_DIFERENTE;
+                }
+            }
+            default -> {
+                tipo = DivergenciaConciliacao.LINHA_INVALIDA;
+                detalhe = "Status desconhecido: " + linha.status();
+            }
+        }
+
+        if (tipo == null) {
+            g.marcas.add(new Object[] { CONCILIADO, g.idExecucao, local.idPagamento() });
+            g.conciliados++;
+        } else {
+            g.marcas.add(new Object[] { DIVERGENTE, g.idExecucao, local.idPagamento() });
+            g.divergencia(local.idPagamento(), tipo, linha, local, detalhe);
+        }
+    }
+
+    private Map<String, PagamentoLocal> carregarPagamentos(List<LeitorArquivoLiquidacao.Linha> linhas) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (LeitorArquivoLiquidacao.Linha linha : linhas) {
+            if (linha.erro() == null) {
+                ids.add(linha.idPagamento());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        String sql = String.format(SQL_PAGAMENTOS_DO_LOTE, String.join(",", Collections.nCopies(ids.size(), "?")));
+        Map<String, PagamentoLocal> locais = new HashMap<>(ids.size() * 2);
+        for (PagamentoLocal local : jdbcTemplate.query(sql, ConciliacaoPagamentosService::paraLocal, ids.toArray())) {
+            locais.put(local.idPagamento(), local);
+        }
+        return locais;
+    }
+
+    // ------------------------------------------------------------------------
+    // FASE 2: PAGAMENTOS AUSENTES DO ARQUIVO
+    // ------------------------------------------------------------------------
+
+    private void conciliarAusentes(ExecucaoConciliacao execucao) {
+        while (true) {
+            List<PagamentoLocal> pagamentos = jdbcTemplate.query(SQL_AUSENTES, ConciliacaoPagamentosService::paraLocal,
+                    execucao.getUltimaDataPagamento(), execucao.getUltimaDataPagamento(), execucao.getUltimoIdPagamento(),
+                    execucao.getDataFim(), execucao.getIdExecucao(), tamanhoLote);
+            if (pagamentos.isEmpty()) {
+                return;
+            }
+            Gravacao gravacao = loteAusentes.record(() -> transactionTemplate.execute(status -> {
+                Gravacao g = new Gravacao(execucao.getIdExecucao());
+                for (PagamentoLocal local : pagamentos) {
+                    g.marcas.add(new Object[] { DivergenciaConciliacao.AUSENTE_NO_ARQUIVO, g.idExecucao, local.idPagamento() });
+                    g.divergencia(local.idPagamento(), DivergenciaConciliacao.AUSENTE_NO_ARQUIVO, null, local,
+                            "Pagamento cobrado no período sem linha no arquivo.");
+                }
+                PagamentoLocal ultimo = pagamentos.get(pagamentos.size() - 1);
+                execucao.setUltimaDataPagamento(ultimo.dataPagamento());
+                execucao.setUltimoIdPagamento(ultimo.idPagamento());
+                gravar(execucao, g);
+                return g;
+            }));
+            registrarMetricas(gravacao, 0);
+            if (pagamentos.size() < tamanhoLote) {
+                return;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    /**
+     * Marcas, divergências e checkpoint do lote, na transação corrente.
+     */
+    private void gravar(ExecucaoConciliacao execucao, Gravacao g) {
+        executarLote(SQL_MARCAR, g.marcas);
+        executarLote(SQL_INSERIR_DIVERGENCIA, g.divergencias);
+        execucao.setConciliados(execucao.getConciliados() + g.conciliados);
+        execucao.setDivergencias(execucao.getDivergencias() + g.divergencias.size());
+        execucao.setCorrecoes(execucao.getCorrecoes() + g.corrigidos);
+        execucao.setAtualizadaEm(LocalDateTime.now());
+        execucaoRepository.save(execucao);
+    }
+
+    private void salvar(ExecucaoConciliacao execucao) {
+        execucao.setAtualizadaEm(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> execucaoRepository.save(execucao));
+    }
+
+    // @return linhas alteradas
+    private int executarLote(String sql, List<Object[]> argumentos) {
+        if (argumentos.isEmpty()) {
+            return 0;
+        }
+        int alteradas = 0;
+        for (int resultado : jdbcTemplate.batchUpdate(sql, argumentos)) {
+            if (resultado > 0 || resultado == Statement.SUCCESS_NO_INFO) {
+                alteradas += Math.max(resultado, 1);
+            }
+        }
+        return alteradas;
+    }
+
+    // Depois do commit, para não contar lotes desfeitos
+    private void registrarMetricas(Gravacao g, int linhas) {
+        linhasConciliadas.increment(linhas);
+        correcoes.increment(g.corrigidos);
+        for (Object[] divergencia : g.divergencias) {
+            meterRegistry.counter("pagamentos.conciliacao.divergencias", "tipo", (String) divergencia[3]).increment();
+        }
+    }
+
+    private Path resolverArquivo(String arquivo) {
+        Path caminho = diretorio.resolve(arquivo).normalize();
+        // Só arquivos dentro do diretório de liquidação
+        if (!caminho.startsWith(diretorio) || !Files.isRegularFile(caminho)) {
+            throw new ValidacaoException("Arquivo de liquidação não encontrado: " + arquivo);
+        }
+        return caminho;
+    }
+
+    private static PagamentoLocal paraLocal(ResultSet rs, int linha) throws SQLException {
+        return new PagamentoLocal(rs.getString("id_pagamento"), rs.getString("status"),
+                rs.getLong("valor_centavos"), rs.getObject("data_pagamento", LocalDateTime.class));
+    }
+
+    private record PagamentoLocal(String idPagamento, String status, long valorCentavos, LocalDateTime dataPagamento) {
+    }
+
+    /**
+     * Escritas acumuladas de um lote (argumentos dos batchUpdate).
+     */
+    private static final class Gravacao {
+
+        final String idExecucao;
+        final List<Object[]> marcas = new ArrayList<>();
+        final List<Object[]> correcoes = new ArrayList<>();
+        final List<Object[]> divergencias = new ArrayList<>();
+        final Set<String> aprovar = new LinkedHashSet<>();
+        // PROCESSANDO liquidados pelo arquivo (aprovados ou recusados): a entrada da outbox é concluída junto
+        final Set<String> processando = new LinkedHashSet<>();
+        long conciliados;
+        int corrigidos;
+
+        Gravacao(String idExecucao) {
+            this.idExecucao = idExecucao;
+        }
+
+        void divergencia(String idPagamento, String tipo, LeitorArquivoLiquidacao.Linha linha, PagamentoLocal local,
+                         String detalhe) {
+            divergencias.add(new Object[] {
+                    UUID.randomUUID().toString(), idExecucao, idPagamento, tipo,
+                    linha != null ? linha.numero() : null,
+                    local != null ? local.status() : null,
+                    linha != null ? linha.status() : null,
+                    local != null ? local.valorCentavos() : null,
+                    linha != null && linha.erro() == null ? linha.valorCentavos() : null,
+                    detalhe != null && detalhe.length() > 300 ? detalhe.substring(0, 300) : detalhe });
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.PaginaDTO;
+import com.seucantinho.exception.ValidacaoException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação por cursor (keyset/seek): o cursor guarda os valores das chaves de ordenação do último item
+ * entregue, e a próxima página começa com um "WHERE (chaves) > (cursor)" sobre um índice com as mesmas
+ * colunas. O custo de cada página não depende de quantas páginas vieram antes (sem OFFSET).
+ */
+final class CursorPaginacao {
+
+    static final int LIMITE_PADRAO = 50;
+    static final int LIMITE_MAXIMO = 200;
+
+    private static final String SEPARADOR = "\n";
+
+    private CursorPaginacao() {
+    }
+
+    static int limitar(int limite) {
+        if (limite < 1) {
+            throw new ValidacaoException("O limite deve ser no mínimo 1.");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    static String codificar(String... chaves) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARADOR, chaves).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return as chaves do cursor, ou null se não houver cursor (primeira página).
+     * @throws ValidacaoException se o cursor for inválido.
+     */
+    static String[] decodificar(String cursor, int quantidadeChaves) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] chaves = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARADOR, -1);
+            if (chaves.length != quantidadeChaves) {
+                throw new ValidacaoException("Cursor inválido.");
+            }
+            return chaves;
+        } catch (IllegalArgumentException e) {
+            throw new ValidacaoException("Cursor inválido.");
+        }
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou limite + 1 linhas:
+     * a linha excedente só indica que existe uma próxima página.
+     */
+    static <E, T> PaginaDTO<T> montar(List<E> linhas, int limite, Function<E, String> cursorDe, Function<E, T> conversor) {
+        boolean temMais = linhas.size() > limite;
+        List<E> pagina = temMais ? linhas.subList(0, limite) : linhas;
+        String proximoCursor = temMais ? cursorDe.apply(pagina.get(pagina.size() - 1)) : null;
+        return new PaginaDTO<>(pagina.stream().map(conversor).toList(), proximoCursor);
+    }
+}
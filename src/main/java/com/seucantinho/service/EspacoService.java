@@ -1,31 +1,98 @@
 package com.seucantinho.service;
 
+import com.seucantinho.dto.DisponibilidadeFiliaisDTO;
 import com.seucantinho.dto.EspacoDTO;
+import com.seucantinho.dto.FilialProximaDTO;
+import com.seucantinho.dto.FiltroBuscaEspacosDTO;
+import com.seucantinho.dto.JanelaLivreDTO;
+import com.seucantinho.dto.MatrizDisponibilidadeDTO;
+import com.seucantinho.dto.ResultadoBuscaEspacosDTO;
+import com.seucantinho.event.EspacoAlteradoEvent;
 import com.seucantinho.model.*; // Importando todas as entidades, incluindo Salao, Chacara, QuadraEsportiva, Reserva
 import com.seucantinho.repository.EspacoRepository;
+import com.seucantinho.repository.IntervaloReserva;
 import com.seucantinho.repository.ReservaRepository;
 import com.seucantinho.exception.ValidacaoException;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class EspacoService {
 
+    private static final Logger log = LoggerFactory.getLogger(EspacoService.class);
+
+    // Limite de itens por página nas consultas de disponibilidade
+    public static final int TAMANHO_MAXIMO_PAGINA = 100;
+    // Limite de dias da matriz de disponibilidade por filial
+    public static final int MAXIMO_DIAS_MATRIZ = 366;
+    // Até onde a busca por próximos horários olha na agenda, e quantas janelas devolve no máximo
+    public static final int HORIZONTE_PROXIMOS_HORARIOS_DIAS = 366;
+    public static final int LIMITE_MAXIMO_HORARIOS = 50;
+    // Raio máximo e quantidade máxima de filiais na busca por proximidade
+    public static final double RAIO_MAXIMO_KM = 500;
+    public static final int LIMITE_MAXIMO_FILIAIS_PROXIMAS = 50;
+
     private final EspacoRepository espacoRepository;
     private final ReservaRepository reservaRepository;
     private final FilialService filialService; 
+    private final IndiceDisponibilidade indiceDisponibilidade;
+    private final CalendarioOcupacao calendarioOcupacao;
+    private final CacheDisponibilidade cacheDisponibilidade;
+    private final CatalogoEspacos catalogoEspacos;
+    private final IndiceBuscaEspacos indiceBuscaEspacos;
+    private final IndiceGeograficoFiliais indiceGeograficoFiliais;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService executorDisponibilidade;
+    private final long prazoPadraoMs;
+    private final long prazoMaximoMs;
 
     @Autowired
-    public EspacoService(EspacoRepository espacoRepository, ReservaRepository reservaRepository, FilialService filialService) {
+    public EspacoService(EspacoRepository espacoRepository, ReservaRepository reservaRepository, FilialService filialService,
+                         IndiceDisponibilidade indiceDisponibilidade, CalendarioOcupacao calendarioOcupacao,
+                         CacheDisponibilidade cacheDisponibilidade, CatalogoEspacos catalogoEspacos,
+                         IndiceBuscaEspacos indiceBuscaEspacos, IndiceGeograficoFiliais indiceGeograficoFiliais,
+                         ApplicationEventPublisher eventPublisher,
+                         @Qualifier("executorDisponibilidade") ExecutorService executorDisponibilidade,
+                         @Value("${seucantinho.disponibilidade.fan-out.prazo-ms:2000}") long prazoPadraoMs,
+                         @Value("${seucantinho.disponibilidade.fan-out.prazo-maximo-ms:10000}") long prazoMaximoMs) {
         this.espacoRepository = espacoRepository;
         this.reservaRepository = reservaRepository;
         this.filialService = filialService; 
+        this.indiceDisponibilidade = indiceDisponibilidade;
+        this.calendarioOcupacao = calendarioOcupacao;
+        this.cacheDisponibilidade = cacheDisponibilidade;
+        this.catalogoEspacos = catalogoEspacos;
+        this.indiceBuscaEspacos = indiceBuscaEspacos;
+        this.indiceGeograficoFiliais = indiceGeograficoFiliais;
+        this.eventPublisher = eventPublisher;
+        this.executorDisponibilidade = executorDisponibilidade;
+        this.prazoPadraoMs = prazoPadraoMs;
+        this.prazoMaximoMs = prazoMaximoMs;
     }
     
     // ------------------------------------------------------------------------
@@ -34,12 +101,18 @@ public class EspacoService {
     
     // Converte a ENTITY (Salao, Chacara, etc.) para o DTO genérico
     public EspacoDTO toDTO(Espaco espaco) {
+        return paraDTO(espaco);
+    }
+
+    // Também usado pelo CatalogoEspacos (não depende de estado do serviço)
+    static EspacoDTO paraDTO(Espaco espaco) {
         EspacoDTO dto = new EspacoDTO();
         
         // Campos Comuns
         dto.setIdEspaco(espaco.getIdEspaco());
         dto.setNome(espaco.getNome());
-        dto.setTipo(espaco.getTipo());
+        // O campo 'tipo' da entidade é @Transient (vem nulo do banco); o tipo sai da subclasse
+        dto.setTipo(tipoDe(espaco));
         dto.setCapacidade(espaco.getCapacidade());
         dto.setPreco(espaco.getPreco());
         dto.setFoto(espaco.getFoto());
@@ -66,6 +139,18 @@ public class EspacoService {
         return dto;
     }
 
+    // Mesmo formato usado no filtro de tipo da listagem (SALAO, CHACARA, QUADRAESPORTIVA)
+    static String tipoDe(Espaco espaco) {
+        if (espaco instanceof Salao) {
+            return "SALAO";
+        } else if (espaco instanceof Chacara) {
+            return "CHACARA";
+        } else if (espaco instanceof QuadraEsportiva) {
+            return "QUADRAESPORTIVA";
+        }
+        return null;
+    }
+
     // Converte o DTO genérico para a ENTITY específica (Salao, Chacara, etc.)
     private Espaco convertDtoToModel(EspacoDTO dto) {
         
@@ -136,13 +221,22 @@ public class EspacoService {
         
         // 3. Persiste a Entity
         Espaco espacoSalvo = espacoRepository.save(espaco);
+        cacheDisponibilidade.invalidarTudo();
+        eventPublisher.publishEvent(new EspacoAlteradoEvent(espacoSalvo.getIdEspaco()));
         
         // 4. CONVERTE ENTITY para DTO e retorna
         return toDTO(espacoSalvo);
     }
     
-    // BUSCA POR ID
+    // BUSCA POR ID (catálogo em memória; banco só enquanto o catálogo não estiver carregado)
     public EspacoDTO buscarPorId(String idEspaco) {
+        if (catalogoEspacos.disponivel()) {
+            EspacoDTO espaco = catalogoEspacos.buscar(idEspaco);
+            if (espaco == null) {
+                throw new EntityNotFoundException("Espaço com ID " + idEspaco + " não encontrado.");
+            }
+            return espaco;
+        }
         Espaco espaco = buscarEntityPorId(idEspaco);
         return toDTO(espaco);
     }
@@ -153,32 +247,287 @@ public class EspacoService {
                 .orElseThrow(() -> new EntityNotFoundException("Espaço com ID " + idEspaco + " não encontrado."));
     }
     
+    // Busca vários espaços de uma vez (uma única consulta IN); IDs inexistentes ficam de fora
+    public Map<String, Espaco> buscarEntitiesPorIds(Collection<String> idsEspaco) {
+        return espacoRepository.findAllById(idsEspaco).stream()
+                .collect(Collectors.toMap(Espaco::getIdEspaco, Function.identity()));
+    }
+    
     // LISTAR TODOS
     public List<EspacoDTO> listarTodos() {
+        if (catalogoEspacos.disponivel()) {
+            return catalogoEspacos.listar();
+        }
         return espacoRepository.findAll().stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
+    // BUSCA FACETADA
+    /**
+     * Filtra o catálogo por tipo, filial, tipoPiso, piscina e faixas de capacidade, preço e quartos,
+     * em memória (IndiceBuscaEspacos). Devolve o total, os K primeiros na ordenação pedida
+     * e a contagem de cada faceta dentro do resultado.
+     */
+    public ResultadoBuscaEspacosDTO buscarFacetado(FiltroBuscaEspacosDTO filtro) {
+        if (filtro.getLimite() < 1) {
+            throw new ValidacaoException("O limite deve ser no mínimo 1.");
+        }
+        validarFaixa(filtro.getCapacidadeMin(), filtro.getCapacidadeMax(), "capacidade");
+        validarFaixa(filtro.getPrecoMin(), filtro.getPrecoMax(), "preço");
+        validarFaixa(filtro.getNumQuartosMin(), filtro.getNumQuartosMax(), "número de quartos");
+        return indiceBuscaEspacos.buscar(listarTodos(), filtro);
+    }
+
+    private static void validarFaixa(Number min, Number max, String campo) {
+        if (min != null && max != null && min.doubleValue() > max.doubleValue()) {
+            throw new ValidacaoException("Faixa de " + campo + " inválida: mínimo maior que o máximo.");
+        }
+    }
+
+    // FILIAIS PRÓXIMAS
+    /**
+     * Filiais ativas a até 'raioKm' do ponto, da mais próxima para a mais distante (IndiceGeograficoFiliais).
+     * Com período informado, cada filial traz os espaços livres nele e filiais sem nenhum ficam de fora.
+     * @param tipo Filtro opcional por tipo de espaço (só com período).
+     */
+    public List<FilialProximaDTO> buscarFiliaisProximas(double latitude, double longitude, double raioKm, int limite,
+                                                        LocalDateTime dataInicio, LocalDateTime dataFim, String tipo) {
+        FilialService.validarCoordenadas(latitude, longitude);
+        if (raioKm <= 0 || raioKm > RAIO_MAXIMO_KM) {
+            throw new ValidacaoException("O raio deve estar entre 0 e " + (int) RAIO_MAXIMO_KM + " km.");
+        }
+        if (limite < 1 || limite > LIMITE_MAXIMO_FILIAIS_PROXIMAS) {
+            throw new ValidacaoException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_FILIAIS_PROXIMAS + ".");
+        }
+        if ((dataInicio == null) != (dataFim == null)) {
+            throw new ValidacaoException("Informe dataInicio e dataFim juntas.");
+        }
+
+        if (dataInicio == null) {
+            return indiceGeograficoFiliais.buscarProximas(latitude, longitude, raioKm, limite).stream()
+                    .map(vizinha -> paraFilialProxima(vizinha, null))
+                    .toList();
+        }
+
+        // Com período: percorre as filiais do raio em ordem de distância até juntar 'limite' com espaço livre
+        validarPeriodo(dataInicio, dataFim);
+        String tipoNormalizado = (tipo == null || tipo.trim().isEmpty()) ? null : tipo.trim().toUpperCase();
+        Map<String, List<EspacoDTO>> espacosPorFilial = listarTodos().stream()
+                .filter(dto -> tipoNormalizado == null || tipoNormalizado.equals(dto.getTipo()))
+                .collect(Collectors.groupingBy(EspacoDTO::getIdFilial));
+
+        List<FilialProximaDTO> resultado = new ArrayList<>();
+        for (IndiceGeograficoFiliais.Vizinha vizinha
+                : indiceGeograficoFiliais.buscarProximas(latitude, longitude, raioKm, Integer.MAX_VALUE)) {
+            List<EspacoDTO> livres = espacosPorFilial.getOrDefault(vizinha.filial().getIdFilial(), List.of()).stream()
+                    .filter(dto -> verificarDisponibilidade(dto.getIdEspaco(), dataInicio, dataFim))
+                    .toList();
+            if (!livres.isEmpty()) {
+                resultado.add(paraFilialProxima(vizinha, livres));
+                if (resultado.size() == limite) {
+                    break;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private static FilialProximaDTO paraFilialProxima(IndiceGeograficoFiliais.Vizinha vizinha, List<EspacoDTO> espacos) {
+        Filial filial = vizinha.filial();
+        return new FilialProximaDTO(filial.getIdFilial(), filial.getNomeFilial(), filial.getEndereco(),
+                filial.getLatitude(), filial.getLongitude(), vizinha.distanciaKm(), espacos);
+    }
+
     // LISTAR DISPONÍVEIS
-    public List<EspacoDTO> listarDisponiveis(LocalDateTime dataInicio, LocalDateTime dataFim, String tipo) {
-        
-        // 1. Busca todos os espaços no repositório
-        List<Espaco> todosEspacos = espacoRepository.findAll();
+    /**
+     * Lista os espaços sem reserva no período. Tudo é resolvido em uma única consulta
+     * (anti-join no banco), independente do tamanho do catálogo, e o resultado fica no CacheDisponibilidade.
+     * @param tipo Filtro opcional por tipo (Salao, Chacara, QuadraEsportiva).
+     * @param idFilial Filtro opcional por filial.
+     * @param pagina Página (a partir de 0).
+     * @param tamanho Quantidade de itens por página (máximo TAMANHO_MAXIMO_PAGINA).
+     */
+    public List<EspacoDTO> listarDisponiveis(LocalDateTime dataInicio, LocalDateTime dataFim, String tipo,
+                                             String idFilial, int pagina, int tamanho) {
+        validarPeriodo(dataInicio, dataFim);
+        if (pagina < 0 || tamanho < 1) {
+            throw new ValidacaoException("Paginação inválida.");
+        }
 
-        // 2. Filtra por tipo, se fornecido
-        if (tipo != null && !tipo.trim().isEmpty()) {
-            todosEspacos = todosEspacos.stream()
-                .filter(e -> e.getTipo().equalsIgnoreCase(tipo))
-                .collect(Collectors.toList());
+        String tipoNormalizado = (tipo == null || tipo.trim().isEmpty()) ? null : tipo.trim().toUpperCase();
+        String filial = (idFilial == null || idFilial.trim().isEmpty()) ? null : idFilial.trim();
+
+        int tamanhoPagina = Math.min(tamanho, TAMANHO_MAXIMO_PAGINA);
+
+        // Consultas idênticas são servidas pelo CacheDisponibilidade até alguma reserva no período mudar
+        CacheDisponibilidade.Chave chave = CacheDisponibilidade.Chave.de(dataInicio, dataFim, tipoNormalizado, filial, pagina, tamanhoPagina);
+        return cacheDisponibilidade.buscar(chave, () -> espacoRepository.findDisponiveis(
+                    chave.inicio(), chave.fim(), tipoNormalizado, filial, PageRequest.of(pagina, tamanhoPagina))
+                .map(this::toDTO)
+                .getContent());
+    }
+
+    // DISPONIBILIDADE EM TODAS AS FILIAIS
+    /**
+     * Busca os espaços livres no período em todas as filiais ativas, uma tarefa por filial
+     * em paralelo no executorDisponibilidade; cada tarefa lê todas as páginas da sua filial.
+     * O resultado segue a ordem das filiais (nome, id).
+     * Filiais que não terminarem dentro do prazo da requisição voltam como TEMPO_ESGOTADO,
+     * sem atrasar a resposta das demais.
+     * @param prazoMs Prazo total da requisição (padrão e máximo configuráveis).
+     */
+    public DisponibilidadeFiliaisDTO buscarDisponibilidadeEmFiliais(LocalDateTime dataInicio, LocalDateTime dataFim,
+                                                                    String tipo, Long prazoMs) {
+        validarPeriodo(dataInicio, dataFim);
+        long prazo = Math.min(prazoMs != null && prazoMs > 0 ? prazoMs : prazoPadraoMs, prazoMaximoMs);
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(prazo);
+
+        // 1. Dispara uma tarefa por filial
+        List<Filial> filiais = filialService.listarAtivas();
+        List<Future<List<EspacoDTO>>> tarefas = new ArrayList<>(filiais.size());
+        for (Filial filial : filiais) {
+            try {
+                tarefas.add(executorDisponibilidade.submit(
+                    () -> listarTodosDisponiveis(dataInicio, dataFim, tipo, filial.getIdFilial())));
+            } catch (RejectedExecutionException e) {
+                tarefas.add(null);
+            }
         }
-        
-        // 3. Filtra por Disponibilidade e converte para DTO
-        return todosEspacos.stream()
-                // A chave é a chamada ao método de verificação de sobreposição
-                .filter(espaco -> verificarDisponibilidade(espaco.getIdEspaco(), dataInicio, dataFim)) 
-                .map(this::toDTO) 
-                .collect(Collectors.toList());
+
+        // 2. Junta os resultados na ordem das filiais, respeitando o prazo
+        List<DisponibilidadeFiliaisDTO.ResultadoFilial> resultados = new ArrayList<>(filiais.size());
+        boolean completo = true;
+        for (int i = 0; i < filiais.size(); i++) {
+            Filial filial = filiais.get(i);
+            Future<List<EspacoDTO>> tarefa = tarefas.get(i);
+            String status;
+            List<EspacoDTO> espacos = List.of();
+            if (tarefa == null) {
+                status = DisponibilidadeFiliaisDTO.FALHA;
+            } else {
+                try {
+                    espacos = tarefa.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    status = DisponibilidadeFiliaisDTO.CONCLUIDA;
+                } catch (TimeoutException e) {
+                    tarefa.cancel(true);
+                    status = DisponibilidadeFiliaisDTO.TEMPO_ESGOTADO;
+                } catch (ExecutionException e) {
+                    log.warn("Falha ao buscar disponibilidade da filial {}.", filial.getIdFilial(), e.getCause());
+                    status = DisponibilidadeFiliaisDTO.FALHA;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    tarefa.cancel(true);
+                    status = DisponibilidadeFiliaisDTO.TEMPO_ESGOTADO;
+                }
+            }
+            completo &= DisponibilidadeFiliaisDTO.CONCLUIDA.equals(status);
+            resultados.add(new DisponibilidadeFiliaisDTO.ResultadoFilial(
+                filial.getIdFilial(), filial.getNomeFilial(), status, espacos));
+        }
+
+        DisponibilidadeFiliaisDTO resposta = new DisponibilidadeFiliaisDTO();
+        resposta.setDataInicio(dataInicio);
+        resposta.setDataFim(dataFim);
+        resposta.setCompleto(completo);
+        resposta.setFiliais(resultados);
+        return resposta;
+    }
+
+    // Todas as páginas da filial, para que mais de TAMANHO_MAXIMO_PAGINA espaços livres não voltem CONCLUIDA pela metade
+    private List<EspacoDTO> listarTodosDisponiveis(LocalDateTime dataInicio, LocalDateTime dataFim, String tipo, String idFilial) {
+        List<EspacoDTO> todos = new ArrayList<>();
+        for (int pagina = 0; ; pagina++) {
+            List<EspacoDTO> espacos = listarDisponiveis(dataInicio, dataFim, tipo, idFilial, pagina, TAMANHO_MAXIMO_PAGINA);
+            todos.addAll(espacos);
+            // Tarefa cancelada por tempo esgotado: o resultado seria descartado
+            if (espacos.size() < TAMANHO_MAXIMO_PAGINA || Thread.currentThread().isInterrupted()) {
+                return todos;
+            }
+        }
+    }
+
+    // MATRIZ DE DISPONIBILIDADE
+    /**
+     * Monta a matriz espaços x dias de uma filial. Só a lista de espaços vem do banco;
+     * a ocupação sai do CalendarioOcupacao com operações bit a bit.
+     * @param horaInicio Primeira hora da janela consultada (0-23).
+     * @param horaFim Hora final (exclusiva) da janela consultada (1-24).
+     */
+    public MatrizDisponibilidadeDTO montarMatrizDisponibilidade(String idFilial, LocalDate dataInicio, LocalDate dataFim,
+                                                               int horaInicio, int horaFim) {
+        if (dataInicio == null || dataFim == null || dataFim.isBefore(dataInicio)) {
+            throw new ValidacaoException("Período inválido.");
+        }
+        if (ChronoUnit.DAYS.between(dataInicio, dataFim) >= MAXIMO_DIAS_MATRIZ) {
+            throw new ValidacaoException("O período da matriz não pode passar de " + MAXIMO_DIAS_MATRIZ + " dias.");
+        }
+        if (horaInicio < 0 || horaFim > CalendarioOcupacao.HORAS_DIA || horaInicio >= horaFim) {
+            throw new ValidacaoException("Janela de horas inválida.");
+        }
+        filialService.buscarPorId(idFilial); // 404 se a filial não existir
+
+        List<LocalDate> dias = dataInicio.datesUntil(dataFim.plusDays(1)).toList();
+        int janela = CalendarioOcupacao.janela(horaInicio, horaFim);
+
+        List<MatrizDisponibilidadeDTO.LinhaEspaco> linhas = new ArrayList<>();
+        for (Espaco espaco : espacoRepository.findByFilialIdFilialOrderByNome(idFilial)) {
+            int[] ocupadas = new int[dias.size()];
+            boolean[] livre = new boolean[dias.size()];
+            for (int i = 0; i < dias.size(); i++) {
+                ocupadas[i] = calendarioOcupacao.ocupacao(espaco.getIdEspaco(), dias.get(i));
+                livre[i] = (ocupadas[i] & janela) == 0;
+            }
+            linhas.add(new MatrizDisponibilidadeDTO.LinhaEspaco(espaco.getIdEspaco(), espaco.getNome(), ocupadas, livre));
+        }
+
+        MatrizDisponibilidadeDTO matriz = new MatrizDisponibilidadeDTO();
+        matriz.setIdFilial(idFilial);
+        matriz.setHoraInicio(horaInicio);
+        matriz.setHoraFim(horaFim);
+        matriz.setDias(dias);
+        matriz.setEspacos(linhas);
+        return matriz;
+    }
+
+    // PRÓXIMOS HORÁRIOS LIVRES
+    /**
+     * Devolve as próximas janelas livres do espaço que comportam a duração pedida.
+     * Os intervalos ocupados são lidos uma única vez (índice em memória ou uma consulta)
+     * e percorridos em ordem; o horizonte é limitado, então o custo não cresce com a agenda inteira.
+     * @param duracaoMinutos Duração desejada da reserva.
+     * @param apartir Início da busca (padrão: agora).
+     * @param limite Quantidade de janelas (máximo LIMITE_MAXIMO_HORARIOS).
+     */
+    public List<JanelaLivreDTO> buscarProximosHorarios(String idEspaco, int duracaoMinutos, LocalDateTime apartir, int limite) {
+        if (duracaoMinutos < 1) {
+            throw new ValidacaoException("A duração deve ser de pelo menos 1 minuto.");
+        }
+        if (limite < 1) {
+            throw new ValidacaoException("O limite deve ser no mínimo 1.");
+        }
+        buscarEntityPorId(idEspaco); // 404 se o espaço não existir
+
+        LocalDateTime agora = LocalDateTime.now().withNano(0);
+        LocalDateTime inicio = (apartir == null || apartir.isBefore(agora)) ? agora : apartir.withNano(0);
+        LocalDateTime horizonte = inicio.plusDays(HORIZONTE_PROXIMOS_HORARIOS_DIAS);
+        long duracaoSegundos = duracaoMinutos * 60L;
+        int quantidade = Math.min(limite, LIMITE_MAXIMO_HORARIOS);
+
+        if (indiceDisponibilidade.disponivel()) {
+            return indiceDisponibilidade.janelasLivres(idEspaco, inicio, horizonte, duracaoSegundos, quantidade);
+        }
+
+        List<IntervaloReserva> ocupados = new ArrayList<>(reservaRepository.findIntervalosOcupadosDoEspaco(idEspaco, inicio, horizonte));
+        ocupados.sort(Comparator.comparing(IntervaloReserva::getDataEvento));
+        long[] inicios = new long[ocupados.size()];
+        long[] fins = new long[ocupados.size()];
+        for (int i = 0; i < ocupados.size(); i++) {
+            inicios[i] = IndiceDisponibilidade.paraSegundos(ocupados.get(i).getDataEvento());
+            fins[i] = IndiceDisponibilidade.paraSegundos(ocupados.get(i).getDataEventoFim());
+        }
+        return IndiceDisponibilidade.varrerLacunas(inicios, fins, 0, IndiceDisponibilidade.paraSegundos(inicio),
+                IndiceDisponibilidade.paraSegundos(horizonte), duracaoSegundos, quantidade);
     }
 
     // DELETAR 
@@ -186,7 +535,7 @@ public class EspacoService {
     public void deletarEspaco(String idEspaco) {
         Espaco espaco = buscarEntityPorId(idEspaco);
         
-        // REGRA DE NEGÓCIO: Não pode deletar um espaço com reservas CONFIRMADAS
+        // REGRA DE NEGÓCIO: Não pode deletar um espaço com reservas ativas
         List<Reserva> reservasAtivas = reservaRepository.findSobreposicaoDeReserva(idEspaco, LocalDateTime.MIN, LocalDateTime.MAX);
         
         // Se houver reservas ativas, o sistema deve impedir a exclusão.
@@ -195,10 +544,12 @@ public class EspacoService {
         }
         
         espacoRepository.delete(espaco);
+        cacheDisponibilidade.invalidarTudo();
+        eventPublisher.publishEvent(new EspacoAlteradoEvent(idEspaco));
     }
     
     /**
-     * Lógica crítica: Verifica se não há sobreposição de reservas CONFIRMADAS.
+     * Lógica crítica: Verifica se não há sobreposição de reservas ativas (Reserva.STATUS_QUE_OCUPAM).
      * @param idEspaco ID do espaço.
      * @param dataInicio Início da janela de checagem.
      * @param dataFim Fim da janela de checagem.
@@ -207,12 +558,14 @@ public class EspacoService {
     public boolean verificarDisponibilidade(String idEspaco, LocalDateTime dataInicio, LocalDateTime dataFim) {
         
         // Validação básica de datas
-        if (dataInicio == null || dataFim == null || dataInicio.isAfter(dataFim) || dataInicio.isEqual(dataFim)) {
-            // Em um sistema real, essa validação deveria ocorrer antes da chamada.
-            throw new ValidacaoException("Período de reserva inválido.");
-        }
+        validarPeriodo(dataInicio, dataFim);
         
-        // O ReservaRepository faz o trabalho pesado consultando no banco.
+        // Caminho rápido: índice em memória, sem ida ao banco.
+        if (indiceDisponibilidade.disponivel()) {
+            return !indiceDisponibilidade.possuiSobreposicao(idEspaco, dataInicio, dataFim);
+        }
+
+        // Fallback (índice desabilitado ou ainda carregando): o ReservaRepository consulta o banco.
         List<Reserva> reservasConflitantes = reservaRepository.findSobreposicaoDeReserva(
             idEspaco, dataInicio, dataFim
         );
@@ -220,4 +573,11 @@ public class EspacoService {
         // Retorna true se a lista de conflitos estiver vazia, ou seja, está disponível.
         return reservasConflitantes.isEmpty(); 
     }
+
+    private void validarPeriodo(LocalDateTime dataInicio, LocalDateTime dataFim) {
+        if (dataInicio == null || dataFim == null || dataInicio.isAfter(dataFim) || dataInicio.isEqual(dataFim)) {
+            // Em um sistema real, essa validação deveria ocorrer antes da chamada.
+            throw new ValidacaoException("Período de reserva inválido.");
+        }
+    }
 }
\ No newline at end of file
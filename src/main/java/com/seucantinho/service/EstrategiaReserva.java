@@ -0,0 +1,14 @@
+package com.seucantinho.service;
+
+/**
+ * Como a criação de reservas garante que não haja sobreposição no mesmo espaço.
+ * Configurado em seucantinho.reservas.estrategia.
+ */
+public enum EstrategiaReserva {
+
+    // Checa a disponibilidade na aplicação e depois insere (padrão)
+    VERIFICAR_E_INSERIR,
+
+    // Apenas insere; a restrição de exclusão do PostgreSQL rejeita a sobreposição
+    RESTRICAO_BANCO
+}
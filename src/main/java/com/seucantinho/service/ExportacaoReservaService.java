@@ -0,0 +1,155 @@
+package com.seucantinho.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seucantinho.exception.ValidacaoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportação de reservas em NDJSON (um objeto JSON por linha) para rotinas de financeiro/BI.
+ *
+ * As linhas saem de um cursor JDBC somente-leitura e de avanço único (fetch size configurável,
+ * dentro de uma transação para que o driver do PostgreSQL realmente use cursor) e são escritas
+ * direto no corpo da resposta. Nenhuma entidade é montada e a memória usada não depende do tamanho da tabela.
+ */
+@Service
+public class ExportacaoReservaService {
+
+    // Linhas escritas entre um flush e outro da resposta
+    private static final int LINHAS_POR_FLUSH = 1000;
+
+    private static final String SQL_BASE = """
+        SELECT r.id_reserva, r.id_cliente, u.nome AS nome_cliente, r.id_espaco, e.nome AS nome_espaco,
+               e.id_filial, r.data_reserva, r.data_evento, r.data_evento_fim, r.valor_pago, r.status_reserva
+        FROM tb_reserva r
+        JOIN tb_espaco e ON e.id_espaco = r.id_espaco
+        JOIN tb_usuario u ON u.id_usuario = r.id_cliente
+        WHERE 1 = 1
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacaoLeitura;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    @Autowired
+    public ExportacaoReservaService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${seucantinho.reservas.exportacao.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Valida os filtros e devolve o corpo da resposta; a consulta só roda quando o corpo é escrito.
+     * @param dataInicio Filtro opcional: eventos que começam a partir desta data.
+     * @param dataFim Filtro opcional: eventos que começam antes desta data.
+     * @param idFilial Filtro opcional por filial.
+     * @param status Filtro opcional por status (um ou mais).
+     */
+    public StreamingResponseBody exportar(LocalDateTime dataInicio, LocalDateTime dataFim, String idFilial, List<String> status) {
+        if (dataInicio != null && dataFim != null && !dataInicio.isBefore(dataFim)) {
+            throw new ValidacaoException("Período de exportação inválido.");
+        }
+
+        StringBuilder sql = new StringBuilder(SQL_BASE);
+        List<Object> parametros = new ArrayList<>();
+        if (dataInicio != null) {
+            sql.append(" AND r.data_evento >= ?");
+            parametros.add(Timestamp.valueOf(dataInicio));
+        }
+        if (dataFim != null) {
+            sql.append(" AND r.data_evento < ?");
+            parametros.add(Timestamp.valueOf(dataFim));
+        }
+        if (idFilial != null && !idFilial.isBlank()) {
+            sql.append(" AND e.id_filial = ?");
+            parametros.add(idFilial.trim());
+        }
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND r.status_reserva IN (").append(String.join(", ", status.stream().map(s -> "?").toList())).append(')');
+            status.forEach(s -> parametros.add(s.trim().toUpperCase()));
+        }
+
+        String consulta = sql.toString();
+        return saida -> escrever(consulta, parametros, saida);
+    }
+
+    private void escrever(String sql, List<Object> parametros, OutputStream saida) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(saida)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            PreparedStatementCreator cursor = conexao -> {
+                PreparedStatement ps = conexao.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < parametros.size(); i++) {
+                    ps.setObject(i + 1, parametros.get(i));
+                }
+                return ps;
+            };
+            int[] linhas = {0};
+            RowCallbackHandler escritor = rs -> {
+                escreverLinha(json, rs);
+                if (++linhas[0] % LINHAS_POR_FLUSH == 0) {
+                    try {
+                        json.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            transacaoLeitura.executeWithoutResult(status -> jdbcTemplate.query(cursor, escritor));
+        } catch (UncheckedIOException e) {
+            // Cliente desconectou no meio da exportação
+            throw e.getCause();
+        }
+    }
+
+    private static void escreverLinha(JsonGenerator json, ResultSet rs) throws SQLException {
+        try {
+            json.writeStartObject();
+            json.writeStringField("idReserva", rs.getString("id_reserva"));
+            json.writeStringField("idCliente", rs.getString("id_cliente"));
+            json.writeStringField("nomeCliente", rs.getString("nome_cliente"));
+            json.writeStringField("idEspaco", rs.getString("id_espaco"));
+            json.writeStringField("nomeEspaco", rs.getString("nome_espaco"));
+            json.writeStringField("idFilial", rs.getString("id_filial"));
+            json.writeStringField("dataReserva", texto(rs.getTimestamp("data_reserva")));
+            json.writeStringField("dataEvento", texto(rs.getTimestamp("data_evento")));
+            json.writeStringField("dataEventoFim", texto(rs.getTimestamp("data_evento_fim")));
+            json.writeNumberField("valorPago", rs.getFloat("valor_pago"));
+            json.writeStringField("statusReserva", rs.getString("status_reserva"));
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String texto(Timestamp data) {
+        return data != null ? data.toLocalDateTime().toString() : null;
+    }
+}
@@ -1,11 +1,15 @@
 package com.seucantinho.service;
 
+import com.seucantinho.dto.PaginaDTO;
+import com.seucantinho.event.FilialAlteradaEvent;
 import com.seucantinho.model.Filial;
 import com.seucantinho.repository.FilialRepository;
 import com.seucantinho.exception.ValidacaoException;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,17 +18,40 @@ import java.util.List;
 public class FilialService {
 
     private final FilialRepository filialRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public FilialService(FilialRepository filialRepository) {
+    public FilialService(FilialRepository filialRepository, ApplicationEventPublisher eventPublisher) {
         this.filialRepository = filialRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public Filial salvarFilial(Filial filial) {
         if (filial.getNomeFilial() == null || filial.getNomeFilial().trim().isEmpty()) {
             throw new ValidacaoException("O nome da filial não pode ser vazio.");
         }
-        return filialRepository.save(filial);
+        if ((filial.getLatitude() == null) != (filial.getLongitude() == null)) {
+            throw new ValidacaoException("Informe latitude e longitude juntas.");
+        }
+        if (filial.getLatitude() != null) {
+            validarCoordenadas(filial.getLatitude(), filial.getLongitude());
+        }
+        // Atualização: copia os campos editáveis para a filial gravada, preservando a coleção de espaços
+        // (o corpo do PUT não traz 'espacos', e uma coleção nula com orphanRemoval não pode ser mesclada)
+        Filial destino = filial.getIdFilial() == null ? filial : filialRepository.findById(filial.getIdFilial())
+                .map(existente -> {
+                    existente.setNomeFilial(filial.getNomeFilial());
+                    existente.setEndereco(filial.getEndereco());
+                    existente.setTelefone(filial.getTelefone());
+                    existente.setStatus(filial.isStatus());
+                    existente.setLatitude(filial.getLatitude());
+                    existente.setLongitude(filial.getLongitude());
+                    return existente;
+                })
+                .orElse(filial);
+        Filial filialSalva = filialRepository.save(destino);
+        eventPublisher.publishEvent(new FilialAlteradaEvent(filialSalva.getIdFilial()));
+        return filialSalva;
     }
 
     public Filial buscarPorId(String idFilial) {
@@ -33,13 +60,34 @@ public class FilialService {
                     new EntityNotFoundException("Filial com ID " + idFilial + " não encontrada."));
     }
 
-    public List<Filial> listarTodas() {
-        return filialRepository.findAll();
+    /**
+     * Lista as filiais paginadas por cursor (nomeFilial, idFilial).
+     * @param cursor proximoCursor da página anterior (null na primeira página).
+     */
+    public PaginaDTO<Filial> listarTodas(String cursor, int limite) {
+        int tamanho = CursorPaginacao.limitar(limite);
+        String[] chaves = CursorPaginacao.decodificar(cursor, 2);
+        List<Filial> filiais = chaves == null
+                ? filialRepository.findByOrderByNomeFilialAscIdFilialAsc(Limit.of(tamanho + 1))
+                : filialRepository.findPaginaApos(chaves[0], chaves[1], Limit.of(tamanho + 1));
+        return CursorPaginacao.montar(filiais, tamanho,
+                f -> CursorPaginacao.codificar(f.getNomeFilial(), f.getIdFilial()), f -> f);
+    }
+
+    public List<Filial> listarAtivas() {
+        return filialRepository.findByStatusTrueOrderByNomeFilialAscIdFilialAsc();
+    }
+
+    static void validarCoordenadas(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ValidacaoException("Coordenadas inválidas: latitude entre -90 e 90, longitude entre -180 e 180.");
+        }
     }
 
     public void desativarFilial(String idFilial) {
         Filial filial = buscarPorId(idFilial);
         filial.setStatus(false);
         filialRepository.save(filial);
+        eventPublisher.publishEvent(new FilialAlteradaEvent(idFilial));
     }
 }
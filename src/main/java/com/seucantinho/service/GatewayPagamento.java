@@ -0,0 +1,30 @@
+package com.seucantinho.service;
+
+/**
+ * Adaptador de um gateway de pagamento (SPI). A aplicação usa o único bean desta interface, escolhido por
+ * seucantinho.pagamentos.gateway.tipo; as chamadas passam sempre pelo GatewayPagamentoProtegido
+ * (timeout, bulkhead e circuit breaker), então a implementação não precisa tratar nada disso.
+ *
+ * Recusa do cartão é resultado (RECUSADO); falha técnica é exceção, e o pagamento é tentado de novo
+ * com o mesmo idPagamento (que deve ser a chave de idempotência no gateway). A chamada roda em uma
+ * thread que é interrompida no timeout.
+ */
+public interface GatewayPagamento {
+
+    Resultado cobrar(Cobranca cobranca);
+
+    enum Resultado {
+        APROVADO,
+        RECUSADO
+    }
+
+    record Cobranca(String idPagamento, long valorCentavos, String metodoPagamento,
+                    String numeroCartao, String nomeTitular, Integer cvv) {
+
+        // Evita que o número e o CVV apareçam em logs
+        @Override
+        public String toString() {
+            return "Cobranca[" + idPagamento + ", " + valorCentavos + ", " + metodoPagamento + "]";
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.seucantinho.service;
+
+import com.seucantinho.exception.GatewayIndisponivelException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedTimeLimiterMetrics;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Chamadas ao GatewayPagamento protegidas (de fora para dentro) por:
+ *  - circuit breaker: com muitas falhas ou chamadas lentas o circuito abre e as chamadas são recusadas
+ *    na hora, sem esperar o gateway, até o período de espera acabar;
+ *  - timeout: a chamada roda no pool executorGateway e é interrompida ao estourar o prazo;
+ *  - bulkhead: limite de chamadas simultâneas; a excedente é recusada sem ocupar thread.
+ *
+ * Métricas: pagamentos.gateway.chamadas (histograma de latência por resultado) e as do Resilience4j
+ * (resilience4j.circuitbreaker.state, .calls, .failure.rate; resilience4j.bulkhead.*; resilience4j.timelimiter.calls).
+ */
+@Component
+public class GatewayPagamentoProtegido {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayPagamentoProtegido.class);
+
+    private static final String NOME = "gateway-pagamento";
+
+    private final GatewayPagamento gateway;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final TimeLimiter timeLimiter;
+
+    @Autowired
+    public GatewayPagamentoProtegido(
+            GatewayPagamento gateway,
+            @Qualifier("executorGateway") ThreadPoolExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.pagamentos.gateway.timeout-ms:5000}") long timeoutMs,
+            @Value("${seucantinho.pagamentos.gateway.max-concorrentes:4}") int maxConcorrentes,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.limite-falhas-percentual:50}") float limiteFalhas,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.limite-lentas-percentual:80}") float limiteLentas,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.lenta-ms:3000}") long lentaMs,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.janela-chamadas:20}") int janelaChamadas,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.minimo-chamadas:10}") int minimoChamadas,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.aberto-segundos:30}") long abertoSegundos,
+            @Value("${seucantinho.pagamentos.gateway.circuit-breaker.chamadas-meio-aberto:3}") int chamadasMeioAberto) {
+        this.gateway = gateway;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(janelaChamadas)
+                .minimumNumberOfCalls(minimoChamadas)
+                .failureRateThreshold(limiteFalhas)
+                .slowCallRateThreshold(limiteLentas)
+                .slowCallDurationThreshold(Duration.ofMillis(lentaMs))
+                .waitDurationInOpenState(Duration.ofSeconds(abertoSegundos))
+                .permittedNumberOfCallsInHalfOpenState(chamadasMeioAberto)
+                // Sem isso o circuito só sairia de OPEN na próxima chamada, e o ProcessadorPagamentos não chama com ele aberto
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // Bulkhead cheio é excesso local, não falha do gateway
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcorrentes)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TimeLimiterRegistry timeLimiters = TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofMillis(timeoutMs))
+                .cancelRunningFuture(true)
+                .build());
+
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NOME);
+        this.bulkhead = bulkheads.bulkhead(NOME);
+        this.timeLimiter = timeLimiters.timeLimiter(NOME);
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        TaggedTimeLimiterMetrics.ofTimeLimiterRegistry(timeLimiters).bindTo(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(evento ->
+                log.warn("Circuit breaker do gateway de pagamento: {}.", evento.getStateTransition()));
+    }
+
+    /**
+     * @throws GatewayIndisponivelException em erro ou timeout do gateway.
+     * @throws CallNotPermittedException com o circuito aberto.
+     * @throws BulkheadFullException com o limite de chamadas simultâneas atingido.
+     */
+    public GatewayPagamento.Resultado cobrar(GatewayPagamento.Cobranca cobranca) {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "ERRO";
+        try {
+            GatewayPagamento.Resultado resposta = circuitBreaker.executeCallable(
+                    () -> timeLimiter.executeFutureSupplier(() -> submeter(cobranca)));
+            resultado = resposta.name();
+            return resposta;
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            resultado = "REJEITADA";
+            throw e;
+        } catch (TimeoutException e) {
+            resultado = "TIMEOUT";
+            throw new GatewayIndisponivelException("Gateway não respondeu em " + timeoutMs + " ms.", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GatewayIndisponivelException("Falha na chamada ao gateway: " + e.getMessage(), e);
+        } finally {
+            amostra.stop(Timer.builder("pagamentos.gateway.chamadas")
+                    .description("Duração das chamadas ao gateway de pagamento, vista por quem chamou")
+                    .tag("resultado", resultado)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * false com o circuito aberto: não adianta tirar pagamentos da fila.
+     */
+    public boolean aceitaChamadas() {
+        CircuitBreaker.State estado = circuitBreaker.getState();
+        return estado != CircuitBreaker.State.OPEN && estado != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    private Future<GatewayPagamento.Resultado> submeter(GatewayPagamento.Cobranca cobranca) {
+        bulkhead.acquirePermission();
+        // A vaga volta quando a chamada termina ou é cancelada (inclusive se o cancelamento vier antes de ela começar)
+        FutureTask<GatewayPagamento.Resultado> tarefa = new FutureTask<>(() -> gateway.cobrar(cobranca)) {
+            @Override
+            protected void done() {
+                bulkhead.onComplete();
+            }
+        };
+        try {
+            executor.execute(tarefa);
+        } catch (RejectedExecutionException e) {
+            bulkhead.onComplete();
+            throw new GatewayIndisponivelException("Pool do gateway cheio.", e);
+        }
+        return tarefa;
+    }
+}
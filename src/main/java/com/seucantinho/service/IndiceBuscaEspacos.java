@@ -0,0 +1,242 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.EspacoDTO;
+import com.seucantinho.dto.FiltroBuscaEspacosDTO;
+import com.seucantinho.dto.ResultadoBuscaEspacosDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Índice da busca facetada de espaços, montado sobre a lista do catálogo (CatalogoEspacos).
+ *
+ * Cada espaço é uma posição (na ordem do catálogo: nome, id). Facetas de valor (tipo, filial,
+ * tipoPiso, temPiscina) são um BitSet por valor; facetas de faixa (capacidade, preço, numQuartos)
+ * são arrays primitivos ordenados, onde a faixa vira duas buscas binárias. Os filtros são combinados
+ * com AND de bitmaps, e o top-K por preço/capacidade percorre o array ordenado até juntar K resultados.
+ *
+ * O índice é imutável e remontado quando a lista do catálogo muda (o catálogo troca a referência
+ * a cada espaço salvo ou removido), então segue salvarEspaco/deletarEspaco sem evento próprio.
+ */
+@Component
+public class IndiceBuscaEspacos {
+
+    public static final int LIMITE_MAXIMO = 100;
+
+    private volatile Indice indice = new Indice(List.of());
+
+    /**
+     * @param catalogo Espaços do catálogo, sempre a mesma instância enquanto não houver alteração.
+     */
+    public ResultadoBuscaEspacosDTO buscar(List<EspacoDTO> catalogo, FiltroBuscaEspacosDTO filtro) {
+        Indice atual = indice;
+        if (atual.espacos != catalogo) {
+            atual = new Indice(catalogo);
+            indice = atual;
+        }
+        return atual.buscar(filtro);
+    }
+
+    // ------------------------------------------------------------------------
+    // ÍNDICE
+    // ------------------------------------------------------------------------
+
+    private static final class Indice {
+
+        private final List<EspacoDTO> espacos;
+
+        private final Map<String, BitSet> porTipo;
+        private final Map<String, BitSet> porFilial;
+        private final Map<String, BitSet> porTipoPiso;
+        private final Map<String, BitSet> porPiscina;
+
+        private final Faixa capacidade;
+        private final Faixa preco;
+        private final Faixa numQuartos;
+
+        Indice(List<EspacoDTO> espacos) {
+            this.espacos = espacos;
+            this.porTipo = porValor(espacos, dto -> normalizar(dto.getTipo()));
+            this.porFilial = porValor(espacos, EspacoDTO::getIdFilial);
+            this.porTipoPiso = porValor(espacos, dto -> normalizar(dto.getTipoPiso()));
+            this.porPiscina = porValor(espacos, dto -> dto.getTemPiscina() == null ? null : dto.getTemPiscina().toString());
+            this.capacidade = new Faixa(espacos, dto -> dto.getCapacidade() == null ? null : dto.getCapacidade().doubleValue());
+            this.preco = new Faixa(espacos, dto -> dto.getPreco() == null ? null : dto.getPreco().doubleValue());
+            this.numQuartos = new Faixa(espacos, dto -> dto.getNumQuartos() == null ? null : dto.getNumQuartos().doubleValue());
+        }
+
+        ResultadoBuscaEspacosDTO buscar(FiltroBuscaEspacosDTO filtro) {
+            BitSet resultado = new BitSet(espacos.size());
+            resultado.set(0, espacos.size());
+
+            filtrarValor(resultado, porTipo, normalizar(filtro.getTipo()));
+            filtrarValor(resultado, porFilial, filtro.getIdFilial());
+            filtrarValor(resultado, porTipoPiso, normalizar(filtro.getTipoPiso()));
+            filtrarValor(resultado, porPiscina, filtro.getTemPiscina() == null ? null : filtro.getTemPiscina().toString());
+            capacidade.filtrar(resultado, filtro.getCapacidadeMin(), filtro.getCapacidadeMax());
+            preco.filtrar(resultado, filtro.getPrecoMin(), filtro.getPrecoMax());
+            numQuartos.filtrar(resultado, filtro.getNumQuartosMin(), filtro.getNumQuartosMax());
+
+            int limite = Math.max(0, Math.min(filtro.getLimite(), LIMITE_MAXIMO));
+            FiltroBuscaEspacosDTO.Ordenacao ordenacao = filtro.getOrdenacao() != null
+                    ? filtro.getOrdenacao() : FiltroBuscaEspacosDTO.Ordenacao.NOME;
+
+            List<EspacoDTO> itens = switch (ordenacao) {
+                case PRECO_ASC -> preco.primeiros(resultado, limite, false);
+                case PRECO_DESC -> preco.primeiros(resultado, limite, true);
+                case CAPACIDADE_ASC -> capacidade.primeiros(resultado, limite, false);
+                case CAPACIDADE_DESC -> capacidade.primeiros(resultado, limite, true);
+                case NOME -> naOrdemDoCatalogo(resultado, limite);
+            };
+
+            Map<String, Map<String, Integer>> facetas = new LinkedHashMap<>();
+            facetas.put("tipo", contar(porTipo, resultado));
+            facetas.put("idFilial", contar(porFilial, resultado));
+            facetas.put("tipoPiso", contar(porTipoPiso, resultado));
+            facetas.put("temPiscina", contar(porPiscina, resultado));
+
+            return new ResultadoBuscaEspacosDTO(resultado.cardinality(), itens, facetas);
+        }
+
+        private List<EspacoDTO> naOrdemDoCatalogo(BitSet resultado, int limite) {
+            List<EspacoDTO> itens = new ArrayList<>(Math.min(limite, resultado.cardinality()));
+            for (int i = resultado.nextSetBit(0); i >= 0 && itens.size() < limite; i = resultado.nextSetBit(i + 1)) {
+                itens.add(espacos.get(i));
+            }
+            return itens;
+        }
+
+        // Faceta pedida sem nenhum espaço com o valor: o resultado fica vazio
+        private static void filtrarValor(BitSet resultado, Map<String, BitSet> faceta, String valor) {
+            if (valor == null) {
+                return;
+            }
+            BitSet bits = faceta.get(valor);
+            if (bits == null) {
+                resultado.clear();
+            } else {
+                resultado.and(bits);
+            }
+        }
+
+        private static Map<String, Integer> contar(Map<String, BitSet> faceta, BitSet resultado) {
+            Map<String, Integer> contagem = new TreeMap<>();
+            faceta.forEach((valor, bits) -> {
+                BitSet comum = (BitSet) bits.clone();
+                comum.and(resultado);
+                int quantidade = comum.cardinality();
+                if (quantidade > 0) {
+                    contagem.put(valor, quantidade);
+                }
+            });
+            return contagem;
+        }
+
+        private static Map<String, BitSet> porValor(List<EspacoDTO> espacos, Function<EspacoDTO, String> extrator) {
+            Map<String, BitSet> faceta = new HashMap<>();
+            for (int i = 0; i < espacos.size(); i++) {
+                String valor = extrator.apply(espacos.get(i));
+                if (valor != null) {
+                    faceta.computeIfAbsent(valor, k -> new BitSet(espacos.size())).set(i);
+                }
+            }
+            return faceta;
+        }
+
+        // Tipo e tipoPiso são comparados sem diferenciar maiúsculas
+        private static String normalizar(String valor) {
+            return valor == null || valor.isBlank() ? null : valor.trim().toUpperCase(Locale.ROOT);
+        }
+
+        // ------------------------------------------------------------------------
+        // Faceta de faixa: valores ordenados (empate pela posição no catálogo) e as posições correspondentes.
+        // Espaços sem valor ficam de fora, ou seja, não passam em nenhum filtro dessa faceta.
+        // ------------------------------------------------------------------------
+        private final class Faixa {
+
+            private final double[] valores;
+            private final int[] posicoes;
+
+            Faixa(List<EspacoDTO> espacos, Function<EspacoDTO, Double> extrator) {
+                List<Integer> comValor = new ArrayList<>(espacos.size());
+                double[] todos = new double[espacos.size()];
+                for (int i = 0; i < espacos.size(); i++) {
+                    Double valor = extrator.apply(espacos.get(i));
+                    if (valor != null) {
+                        todos[i] = valor;
+                        comValor.add(i);
+                    }
+                }
+                comValor.sort((a, b) -> {
+                    int comparacao = Double.compare(todos[a], todos[b]);
+                    return comparacao != 0 ? comparacao : Integer.compare(a, b);
+                });
+                this.valores = new double[comValor.size()];
+                this.posicoes = new int[comValor.size()];
+                for (int k = 0; k < comValor.size(); k++) {
+                    posicoes[k] = comValor.get(k);
+                    valores[k] = todos[posicoes[k]];
+                }
+            }
+
+            void filtrar(BitSet resultado, Number min, Number max) {
+                if (min == null && max == null) {
+                    return;
+                }
+                int de = min == null ? 0 : primeiroMaiorOuIgual(min.doubleValue());
+                int ate = max == null ? valores.length : primeiroMaior(max.doubleValue());
+                BitSet naFaixa = new BitSet(espacos.size());
+                for (int k = de; k < ate; k++) {
+                    naFaixa.set(posicoes[k]);
+                }
+                resultado.and(naFaixa);
+            }
+
+            // Top-K: percorre em ordem de valor e para assim que tiver 'limite' espaços do resultado
+            List<EspacoDTO> primeiros(BitSet resultado, int limite, boolean decrescente) {
+                List<EspacoDTO> itens = new ArrayList<>(Math.min(limite, resultado.cardinality()));
+                for (int k = 0; k < posicoes.length && itens.size() < limite; k++) {
+                    int posicao = posicoes[decrescente ? posicoes.length - 1 - k : k];
+                    if (resultado.get(posicao)) {
+                        itens.add(espacos.get(posicao));
+                    }
+                }
+                return itens;
+            }
+
+            private int primeiroMaiorOuIgual(double valor) {
+                int lo = 0, hi = valores.length;
+                while (lo < hi) {
+                    int meio = (lo + hi) >>> 1;
+                    if (valores[meio] < valor) {
+                        lo = meio + 1;
+                    } else {
+                        hi = meio;
+                    }
+                }
+                return lo;
+            }
+
+            private int primeiroMaior(double valor) {
+                int lo = 0, hi = valores.length;
+                while (lo < hi) {
+                    int meio = (lo + hi) >>> 1;
+                    if (valores[meio] <= valor) {
+                        lo = meio + 1;
+                    } else {
+                        hi = meio;
+                    }
+                }
+                return lo;
+            }
+        }
+    }
+}
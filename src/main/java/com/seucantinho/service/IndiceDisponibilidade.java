@@ -0,0 +1,362 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.JanelaLivreDTO;
+import com.seucantinho.event.ReservaAlteradaEvent;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.repository.IntervaloReserva;
+import com.seucantinho.repository.ReservaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice de disponibilidade em memória: para cada espaço guarda os intervalos das reservas
+ * que ocupam a agenda (Reserva.STATUS_QUE_OCUPAM) em arrays primitivos ordenados pelo início.
+ *
+ * A checagem de sobreposição é uma busca binária + um "máximo de fim" acumulado,
+ * ou seja O(log n) sem ida ao banco. É carregado na subida da aplicação e atualizado pelos
+ * eventos publicados pelo ReservaService (após o commit da transação).
+ */
+@Component
+public class IndiceDisponibilidade {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceDisponibilidade.class);
+
+    private final ReservaRepository reservaRepository;
+    private final boolean habilitado;
+
+    // Snapshot imutável por espaço: leituras não precisam de lock
+    private final Map<String, Intervalos> porEspaco = new ConcurrentHashMap<>();
+    // Localiza o intervalo atual de cada reserva para poder removê-lo depois
+    private final Map<String, Ocupacao> porReserva = new ConcurrentHashMap<>();
+
+    private volatile boolean carregado = false;
+
+    @Autowired
+    public IndiceDisponibilidade(
+            ReservaRepository reservaRepository,
+            @Value("${seucantinho.disponibilidade.indice-em-memoria:true}") boolean habilitado) {
+        this.reservaRepository = reservaRepository;
+        this.habilitado = habilitado;
+    }
+
+    // ------------------------------------------------------------------------
+    // CONSULTA
+    // ------------------------------------------------------------------------
+
+    /**
+     * @return true se o índice pode responder às checagens (habilitado e já carregado).
+     * Caso contrário o chamador deve usar a consulta ao banco.
+     */
+    public boolean disponivel() {
+        return habilitado && carregado;
+    }
+
+    /**
+     * Verifica se existe alguma reserva ocupando o espaço no período [dataInicio, dataFim).
+     */
+    public boolean possuiSobreposicao(String idEspaco, LocalDateTime dataInicio, LocalDateTime dataFim) {
+        Intervalos intervalos = porEspaco.get(idEspaco);
+        return intervalos != null && intervalos.sobrepoe(paraSegundos(dataInicio), paraSegundos(dataFim));
+    }
+
+    /**
+     * Próximas janelas livres do espaço a partir de 'apartir' com pelo menos a duração pedida.
+     * A varredura começa direto no primeiro intervalo relevante (busca binária) e para no horizonte.
+     */
+    public List<JanelaLivreDTO> janelasLivres(String idEspaco, LocalDateTime apartir, LocalDateTime horizonte,
+                                              long duracaoSegundos, int limite) {
+        Intervalos intervalos = porEspaco.getOrDefault(idEspaco, Intervalos.VAZIO);
+        long inicio = paraSegundos(apartir);
+        return varrerLacunas(intervalos.inicios, intervalos.fins, intervalos.primeiroComFimApos(inicio),
+                inicio, paraSegundos(horizonte), duracaoSegundos, limite);
+    }
+
+    /**
+     * Percorre intervalos ordenados pelo início (podendo se sobrepor entre si) e devolve as lacunas
+     * entre eles que comportam a duração. Também usado pelo EspacoService quando o índice não está disponível.
+     */
+    static List<JanelaLivreDTO> varrerLacunas(long[] inicios, long[] fins, int primeiro, long apartir, long horizonte,
+                                             long duracaoSegundos, int limite) {
+        List<JanelaLivreDTO> janelas = new ArrayList<>(limite);
+        long cursor = apartir;
+        int i = primeiro;
+        for (; i < inicios.length && janelas.size() < limite && inicios[i] < horizonte; i++) {
+            if (inicios[i] - cursor >= duracaoSegundos) {
+                janelas.add(new JanelaLivreDTO(paraData(cursor), paraData(inicios[i])));
+            }
+            cursor = Math.max(cursor, fins[i]);
+        }
+        if (janelas.size() < limite && cursor < horizonte) {
+            if (i < inicios.length) {
+                // Parou no horizonte, mas há reserva logo depois: a última janela termina nela
+                if (inicios[i] - cursor >= duracaoSegundos) {
+                    janelas.add(new JanelaLivreDTO(paraData(cursor), paraData(inicios[i])));
+                }
+            } else {
+                janelas.add(new JanelaLivreDTO(paraData(cursor), null));
+            }
+        }
+        return janelas;
+    }
+
+    // ------------------------------------------------------------------------
+    // CARGA E ATUALIZAÇÃO
+    // ------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            log.info("Índice de disponibilidade desabilitado; usando consulta ao banco.");
+            return;
+        }
+        synchronized (this) {
+            substituir(montarAPartirDoBanco());
+            carregado = true;
+        }
+        log.info("Índice de disponibilidade carregado com {} reservas em {} espaços.", porReserva.size(), porEspaco.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoAlterarReserva(ReservaAlteradaEvent evento) {
+        if (!habilitado) {
+            return;
+        }
+        remover(evento.idReserva());
+
+        ReservaAlteradaEvent.Estado atual = evento.atual();
+        if (atual != null && Reserva.ocupaEspaco(atual.status()) && atual.inicio() != null && atual.fim() != null) {
+            adicionar(new Ocupacao(evento.idReserva(), atual.idEspaco(), paraSegundos(atual.inicio()), paraSegundos(atual.fim())));
+        }
+    }
+
+    /**
+     * Compara o índice com o banco. Se houver divergência o índice é reconstruído.
+     * @return quantidade de reservas divergentes encontradas.
+     */
+    @Scheduled(
+        initialDelayString = "${seucantinho.disponibilidade.verificacao-consistencia-ms:300000}",
+        fixedDelayString = "${seucantinho.disponibilidade.verificacao-consistencia-ms:300000}"
+    )
+    public synchronized int verificarConsistencia() {
+        if (!disponivel()) {
+            return 0;
+        }
+        Map<String, Ocupacao> banco = montarAPartirDoBanco();
+
+        int divergencias = 0;
+        for (Ocupacao ocupacao : banco.values()) {
+            if (!ocupacao.equals(porReserva.get(ocupacao.idReserva()))) {
+                divergencias++;
+            }
+        }
+        for (String idReserva : porReserva.keySet()) {
+            if (!banco.containsKey(idReserva)) {
+                divergencias++;
+            }
+        }
+
+        if (divergencias > 0) {
+            log.warn("Índice de disponibilidade divergente do banco em {} reservas; reconstruindo.", divergencias);
+            substituir(banco);
+        }
+        return divergencias;
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    private Map<String, Ocupacao> montarAPartirDoBanco() {
+        List<IntervaloReserva> intervalos = reservaRepository.findIntervalosOcupados();
+        Map<String, Ocupacao> ocupacoes = new HashMap<>(intervalos.size() * 2);
+        for (IntervaloReserva intervalo : intervalos) {
+            if (intervalo.getDataEvento() == null || intervalo.getDataEventoFim() == null) {
+                continue;
+            }
+            ocupacoes.put(intervalo.getIdReserva(), new Ocupacao(
+                intervalo.getIdReserva(),
+                intervalo.getIdEspaco(),
+                paraSegundos(intervalo.getDataEvento()),
+                paraSegundos(intervalo.getDataEventoFim())
+            ));
+        }
+        return ocupacoes;
+    }
+
+    private void substituir(Map<String, Ocupacao> ocupacoes) {
+        Map<String, List<Ocupacao>> agrupadas = new HashMap<>();
+        for (Ocupacao ocupacao : ocupacoes.values()) {
+            agrupadas.computeIfAbsent(ocupacao.idEspaco(), k -> new ArrayList<>()).add(ocupacao);
+        }
+
+        // Substitui entrada a entrada (sem clear) para que leituras concorrentes nunca vejam o índice vazio
+        agrupadas.forEach((idEspaco, lista) -> porEspaco.put(idEspaco, Intervalos.de(lista)));
+        porEspaco.keySet().retainAll(agrupadas.keySet());
+        porReserva.putAll(ocupacoes);
+        porReserva.keySet().retainAll(ocupacoes.keySet());
+    }
+
+    private void adicionar(Ocupacao ocupacao) {
+        porReserva.put(ocupacao.idReserva(), ocupacao);
+        porEspaco.compute(ocupacao.idEspaco(), (id, atuais) ->
+            (atuais == null ? Intervalos.VAZIO : atuais).com(ocupacao));
+    }
+
+    private void remover(String idReserva) {
+        Ocupacao anterior = porReserva.remove(idReserva);
+        if (anterior != null) {
+            porEspaco.computeIfPresent(anterior.idEspaco(), (id, atuais) -> atuais.sem(idReserva));
+        }
+    }
+
+    static long paraSegundos(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime paraData(long segundos) {
+        return LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+
+    private record Ocupacao(String idReserva, String idEspaco, long inicio, long fim) {}
+
+    /**
+     * Intervalos de um espaço ordenados pelo início. maxFim[i] guarda o maior fim entre
+     * os intervalos 0..i, o que permite detectar sobreposição mesmo que os intervalos
+     * se sobreponham entre si.
+     */
+    private static final class Intervalos {
+
+        static final Intervalos VAZIO = new Intervalos(new String[0], new long[0], new long[0]);
+
+        private final String[] ids;
+        private final long[] inicios;
+        private final long[] fins;
+        private final long[] maxFim;
+
+        private Intervalos(String[] ids, long[] inicios, long[] fins) {
+            this.ids = ids;
+            this.inicios = inicios;
+            this.fins = fins;
+            this.maxFim = new long[fins.length];
+            long maior = Long.MIN_VALUE;
+            for (int i = 0; i < fins.length; i++) {
+                maior = Math.max(maior, fins[i]);
+                maxFim[i] = maior;
+            }
+        }
+
+        static Intervalos de(List<Ocupacao> ocupacoes) {
+            Ocupacao[] ordenadas = ocupacoes.toArray(new Ocupacao[0]);
+            Arrays.sort(ordenadas, (a, b) -> Long.compare(a.inicio(), b.inicio()));
+            String[] ids = new String[ordenadas.length];
+            long[] inicios = new long[ordenadas.length];
+            long[] fins = new long[ordenadas.length];
+            for (int i = 0; i < ordenadas.length; i++) {
+                ids[i] = ordenadas[i].idReserva();
+                inicios[i] = ordenadas[i].inicio();
+                fins[i] = ordenadas[i].fim();
+            }
+            return new Intervalos(ids, inicios, fins);
+        }
+
+        boolean sobrepoe(long inicio, long fim) {
+            // Último intervalo que começa antes do fim solicitado
+            int idx = ultimoComInicioAntesDe(fim);
+            return idx >= 0 && maxFim[idx] > inicio;
+        }
+
+        Intervalos com(Ocupacao ocupacao) {
+            int pos = ultimoComInicioAntesDe(ocupacao.inicio() + 1) + 1;
+            int n = ids.length;
+            String[] novosIds = new String[n + 1];
+            long[] novosInicios = new long[n + 1];
+            long[] novosFins = new long[n + 1];
+            System.arraycopy(ids, 0, novosIds, 0, pos);
+            System.arraycopy(inicios, 0, novosInicios, 0, pos);
+            System.arraycopy(fins, 0, novosFins, 0, pos);
+            novosIds[pos] = ocupacao.idReserva();
+            novosInicios[pos] = ocupacao.inicio();
+            novosFins[pos] = ocupacao.fim();
+            System.arraycopy(ids, pos, novosIds, pos + 1, n - pos);
+            System.arraycopy(inicios, pos, novosInicios, pos + 1, n - pos);
+            System.arraycopy(fins, pos, novosFins, pos + 1, n - pos);
+            return new Intervalos(novosIds, novosInicios, novosFins);
+        }
+
+        Intervalos sem(String idReserva) {
+            int pos = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (Objects.equals(ids[i], idReserva)) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                return this;
+            }
+            if (ids.length == 1) {
+                return null; // remove a entrada do mapa
+            }
+            int n = ids.length;
+            String[] novosIds = new String[n - 1];
+            long[] novosInicios = new long[n - 1];
+            long[] novosFins = new long[n - 1];
+            System.arraycopy(ids, 0, novosIds, 0, pos);
+            System.arraycopy(inicios, 0, novosInicios, 0, pos);
+            System.arraycopy(fins, 0, novosFins, 0, pos);
+            System.arraycopy(ids, pos + 1, novosIds, pos, n - pos - 1);
+            System.arraycopy(inicios, pos + 1, novosInicios, pos, n - pos - 1);
+            System.arraycopy(fins, pos + 1, novosFins, pos, n - pos - 1);
+            return new Intervalos(novosIds, novosInicios, novosFins);
+        }
+
+        // Busca binária sobre maxFim (não decrescente): primeiro índice cujo intervalo, ou algum anterior, termina após o instante
+        int primeiroComFimApos(long instante) {
+            int lo = 0;
+            int hi = maxFim.length;
+            while (lo < hi) {
+                int meio = (lo + hi) >>> 1;
+                if (maxFim[meio] > instante) {
+                    hi = meio;
+                } else {
+                    lo = meio + 1;
+                }
+            }
+            return lo;
+        }
+
+        // Busca binária: maior índice i com inicios[i] < limite (ou -1)
+        private int ultimoComInicioAntesDe(long limite) {
+            int lo = 0;
+            int hi = inicios.length - 1;
+            int resultado = -1;
+            while (lo <= hi) {
+                int meio = (lo + hi) >>> 1;
+                if (inicios[meio] < limite) {
+                    resultado = meio;
+                    lo = meio + 1;
+                } else {
+                    hi = meio - 1;
+                }
+            }
+            return resultado;
+        }
+    }
+}
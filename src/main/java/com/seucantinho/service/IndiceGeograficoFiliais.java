@@ -0,0 +1,201 @@
+package com.seucantinho.service;
+
+import com.seucantinho.event.FilialAlteradaEvent;
+import com.seucantinho.model.Filial;
+import com.seucantinho.repository.FilialRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Índice espacial das filiais ativas com coordenadas: uma KD-tree sobre os pontos convertidos para
+ * coordenadas 3D na esfera unitária. Nessa forma a distância em linha reta (corda) cresce junto com a
+ * distância sobre a superfície, então a poda da árvore vale em qualquer lugar do globo (sem problema
+ * na linha de data ou perto dos polos). A busca dos K vizinhos dentro do raio visita só os ramos que
+ * ainda podem ter algo mais perto.
+ *
+ * A árvore é imutável e remontada inteira a cada FilialAlteradaEvent (filiais mudam raramente).
+ */
+@Component
+public class IndiceGeograficoFiliais {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceGeograficoFiliais.class);
+
+    static final double RAIO_TERRA_KM = 6371.0088;
+
+    private final FilialRepository filialRepository;
+
+    private volatile Arvore arvore = new Arvore(List.of());
+
+    @Autowired
+    public IndiceGeograficoFiliais(FilialRepository filialRepository) {
+        this.filialRepository = filialRepository;
+    }
+
+    /**
+     * Filiais a até 'raioKm' do ponto, da mais próxima para a mais distante, no máximo 'limite'.
+     */
+    public List<Vizinha> buscarProximas(double latitude, double longitude, double raioKm, int limite) {
+        return arvore.buscar(latitude, longitude, raioKm, limite);
+    }
+
+    public record Vizinha(Filial filial, double distanciaKm) {
+    }
+
+    // ------------------------------------------------------------------------
+    // CARGA E ATUALIZAÇÃO
+    // ------------------------------------------------------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void carregar() {
+        List<Filial> comCoordenadas = filialRepository.findByStatusTrueOrderByNomeFilialAscIdFilialAsc().stream()
+                .filter(f -> f.getLatitude() != null && f.getLongitude() != null)
+                .toList();
+        arvore = new Arvore(comCoordenadas);
+        log.info("Índice geográfico carregado com {} filiais.", comCoordenadas.size());
+    }
+
+    @Order(VersaoCatalogo.ORDEM_ATUALIZACAO_LEITURA)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarFilial(FilialAlteradaEvent evento) {
+        carregar();
+    }
+
+    // ------------------------------------------------------------------------
+    // KD-TREE
+    // ------------------------------------------------------------------------
+
+    /**
+     * Árvore implícita: o nó de cada faixa [lo, hi) de 'ordem' é o elemento do meio, dividido pelo
+     * eixo (profundidade % 3); a metade esquerda tem coordenada menor ou igual no eixo, a direita maior ou igual.
+     */
+    private static final class Arvore {
+
+        private final Filial[] filiais;
+        private final double[][] pontos; // [i] = {x, y, z} na esfera unitária
+        private final int[] ordem;
+
+        Arvore(List<Filial> lista) {
+            this.filiais = lista.toArray(new Filial[0]);
+            this.pontos = new double[filiais.length][];
+            this.ordem = new int[filiais.length];
+            for (int i = 0; i < filiais.length; i++) {
+                pontos[i] = paraPonto(filiais[i].getLatitude(), filiais[i].getLongitude());
+                ordem[i] = i;
+            }
+            montar(0, ordem.length, 0);
+        }
+
+        private void montar(int lo, int hi, int profundidade) {
+            if (hi - lo <= 1) {
+                return;
+            }
+            int eixo = profundidade % 3;
+            Integer[] faixa = new Integer[hi - lo];
+            for (int i = lo; i < hi; i++) {
+                faixa[i - lo] = ordem[i];
+            }
+            Arrays.sort(faixa, Comparator.comparingDouble(i -> pontos[i][eixo]));
+            for (int i = lo; i < hi; i++) {
+                ordem[i] = faixa[i - lo];
+            }
+            int meio = (lo + hi) >>> 1;
+            montar(lo, meio, profundidade + 1);
+            montar(meio + 1, hi, profundidade + 1);
+        }
+
+        List<Vizinha> buscar(double latitude, double longitude, double raioKm, int limite) {
+            if (filiais.length == 0 || limite < 1) {
+                return List.of();
+            }
+            double[] alvo = paraPonto(latitude, longitude);
+            double corda = cordaDe(raioKm);
+
+            // Max-heap pelos quadrados das cordas: o topo é o pior dos K melhores até agora
+            PriorityQueue<double[]> melhores = new PriorityQueue<>(Comparator.comparingDouble((double[] c) -> c[0]).reversed());
+            visitar(0, ordem.length, 0, alvo, corda * corda, limite, melhores);
+
+            List<double[]> candidatos = new ArrayList<>(melhores);
+            candidatos.sort(Comparator.comparingDouble((double[] c) -> c[0]).thenComparingDouble(c -> c[1]));
+            List<Vizinha> vizinhas = new ArrayList<>(candidatos.size());
+            for (double[] candidato : candidatos) {
+                vizinhas.add(new Vizinha(filiais[(int) candidato[1]], distanciaDeCorda(Math.sqrt(candidato[0]))));
+            }
+            return vizinhas;
+        }
+
+        private void visitar(int lo, int hi, int profundidade, double[] alvo, double raio2, int limite,
+                             PriorityQueue<double[]> melhores) {
+            if (lo >= hi) {
+                return;
+            }
+            int meio = (lo + hi) >>> 1;
+            int indice = ordem[meio];
+            double[] ponto = pontos[indice];
+
+            double d2 = distancia2(alvo, ponto);
+            if (d2 <= raio2 && (melhores.size() < limite || d2 < melhores.peek()[0])) {
+                melhores.add(new double[] { d2, indice });
+                if (melhores.size() > limite) {
+                    melhores.poll();
+                }
+            }
+
+            int eixo = profundidade % 3;
+            double diferenca = alvo[eixo] - ponto[eixo];
+            boolean esquerdaPrimeiro = diferenca <= 0;
+            if (esquerdaPrimeiro) {
+                visitar(lo, meio, profundidade + 1, alvo, raio2, limite, melhores);
+            } else {
+                visitar(meio + 1, hi, profundidade + 1, alvo, raio2, limite, melhores);
+            }
+
+            // O outro lado só interessa se o plano de corte estiver mais perto que o raio e que o K-ésimo melhor
+            double limiteAtual = melhores.size() < limite ? raio2 : Math.min(raio2, melhores.peek()[0]);
+            if (diferenca * diferenca <= limiteAtual) {
+                if (esquerdaPrimeiro) {
+                    visitar(meio + 1, hi, profundidade + 1, alvo, raio2, limite, melhores);
+                } else {
+                    visitar(lo, meio, profundidade + 1, alvo, raio2, limite, melhores);
+                }
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    private static double[] paraPonto(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    private static double distancia2(double[] a, double[] b) {
+        double dx = a[0] - b[0], dy = a[1] - b[1], dz = a[2] - b[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Corda na esfera unitária correspondente a uma distância na superfície (e o inverso)
+    private static double cordaDe(double distanciaKm) {
+        double angulo = Math.min(distanciaKm / RAIO_TERRA_KM, Math.PI);
+        return 2 * Math.sin(angulo / 2);
+    }
+
+    private static double distanciaDeCorda(double corda) {
+        return 2 * Math.asin(Math.min(1.0, corda / 2)) * RAIO_TERRA_KM;
+    }
+}
@@ -0,0 +1,116 @@
+package com.seucantinho.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lê o arquivo de liquidação (CSV) por um FileChannel, em lotes de linhas, contando os bytes consumidos:
+ * a posição ao fim de cada lote é o checkpoint para retomar a leitura no mesmo ponto.
+ *
+ * Formato: id_pagamento,status,valor_centavos[,data_liquidacao], com cabeçalho opcional na primeira linha.
+ * Não é thread-safe: um lote por vez (o próximo pode ser lido em outra thread enquanto o anterior é processado).
+ */
+final class LeitorArquivoLiquidacao {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+
+    private long posicao;      // Byte seguinte à última linha consumida
+    private long numeroLinha;  // Linhas consumidas (inclusive cabeçalho e linhas em branco)
+    private byte[] linha = new byte[256];
+
+    /**
+     * Uma linha do arquivo; 'erro' preenchido quando a linha não pôde ser interpretada.
+     */
+    record Linha(long numero, String idPagamento, String status, long valorCentavos, String erro) {
+    }
+
+    /**
+     * @param posicaoFinal Checkpoint: posição do arquivo logo após a última linha do lote.
+     */
+    record Lote(List<Linha> linhas, long posicaoFinal, long numeroLinhaFinal) {
+    }
+
+    LeitorArquivoLiquidacao(FileChannel canal, long posicao, long numeroLinha) throws IOException {
+        this.canal = canal.position(posicao);
+        this.posicao = posicao;
+        this.numeroLinha = numeroLinha;
+        buffer.flip(); // começa vazio
+    }
+
+    Lote ler(int maximo) {
+        List<Linha> linhas = new ArrayList<>(maximo);
+        try {
+            while (linhas.size() < maximo) {
+                String texto = proximaLinha();
+                if (texto == null) {
+                    break;
+                }
+                numeroLinha++;
+                if (texto.isBlank() || (numeroLinha == 1 && texto.startsWith("id_pagamento"))) {
+                    continue;
+                }
+                linhas.add(interpretar(numeroLinha, texto));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Lote(linhas, posicao, numeroLinha);
+    }
+
+    // null no fim do arquivo; a última linha pode não ter '\n'
+    private String proximaLinha() throws IOException {
+        int tamanho = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int lidos = canal.read(buffer);
+                buffer.flip();
+                if (lidos <= 0) {
+                    return tamanho == 0 ? null : texto(tamanho);
+                }
+            }
+            byte b = buffer.get();
+            posicao++;
+            if (b == '\n') {
+                return texto(tamanho);
+            }
+            if (tamanho == linha.length) {
+                linha = Arrays.copyOf(linha, tamanho * 2);
+            }
+            linha[tamanho++] = b;
+        }
+    }
+
+    private String texto(int tamanho) {
+        if (tamanho > 0 && linha[tamanho - 1] == '\r') {
+            tamanho--;
+        }
+        return new String(linha, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    private static Linha interpretar(long numero, String texto) {
+        String[] campos = texto.split(",", -1);
+        if (campos.length < 3) {
+            return new Linha(numero, null, null, 0, "Esperado: id_pagamento,status,valor_centavos.");
+        }
+        String idPagamento = campos[0].trim();
+        String status = campos[1].trim().toUpperCase();
+        if (idPagamento.isEmpty()) {
+            return new Linha(numero, null, status, 0, "id_pagamento vazio.");
+        }
+        try {
+            return new Linha(numero, idPagamento, status, Long.parseLong(campos[2].trim()), null);
+        } catch (NumberFormatException e) {
+            return new Linha(numero, idPagamento, status, 0, "valor_centavos inválido: " + campos[2].trim());
+        }
+    }
+}
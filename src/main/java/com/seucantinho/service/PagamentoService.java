@@ -1,33 +1,59 @@
 package com.seucantinho.service;
 
 import com.seucantinho.dto.PagamentoRequest;
+import com.seucantinho.dto.StatusPagamentoDTO;
+import com.seucantinho.event.PagamentoSolicitadoEvent;
+import com.seucantinho.model.OutboxPagamento;
 import com.seucantinho.model.Pagamento;
 import com.seucantinho.model.Reserva;
+import com.seucantinho.repository.OutboxPagamentoRepository;
 import com.seucantinho.repository.PagamentoRepository;
 import com.seucantinho.exception.ValidacaoException;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PagamentoService {
 
     private final PagamentoRepository pagamentoRepository;
+    private final OutboxPagamentoRepository outboxPagamentoRepository;
     private final ReservaService reservaService; // Injeção LAZY para evitar dependência circular
-    // Define o percentual mínimo para ser considerado um Sinal (ex: 30%)
-    private static final float PERCENTUAL_MINIMO_SINAL = 0.30f; 
-    // Tolerância para comparação de floats (importante para valores monetários)
-    private static final float TOLERANCIA_VALOR = 0.01f;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CofreDadosCartao cofreDadosCartao;
+
+    private static final Logger log = LoggerFactory.getLogger(PagamentoService.class);
+
+    // Aceito e aguardando o gateway (ver ProcessadorPagamentos)
+    public static final String STATUS_PROCESSANDO = "PROCESSANDO";
+    // Aprovado no gateway, mas a reserva não aceitou mais a transição
+    public static final String STATUS_ESTORNO_PENDENTE = "ESTORNO_PENDENTE";
+
+    // Alterações manuais de status (PUT /{id}/status): só as que não mexem no razão da reserva.
+    // ESTORNO_PENDENTE -> CANCELADO: devolução confirmada fora da conciliação (o valor já saiu do saldo ou nunca entrou)
+    private static final Map<String, Set<String>> TRANSICOES_MANUAIS = Map.of(
+            STATUS_ESTORNO_PENDENTE, Set.of("CANCELADO"));
 
     @Autowired
-    public PagamentoService(PagamentoRepository pagamentoRepository, @Lazy ReservaService reservaService) {
+    public PagamentoService(PagamentoRepository pagamentoRepository, OutboxPagamentoRepository outboxPagamentoRepository,
+                            @Lazy ReservaService reservaService, ApplicationEventPublisher eventPublisher,
+                            CofreDadosCartao cofreDadosCartao) {
         this.pagamentoRepository = pagamentoRepository;
+        this.outboxPagamentoRepository = outboxPagamentoRepository;
         this.reservaService = reservaService;
+        this.eventPublisher = eventPublisher;
+        this.cofreDadosCartao = cofreDadosCartao;
     }
 
     // ------------------------------------------------------------------------
@@ -35,94 +61,141 @@ public class PagamentoService {
     // ------------------------------------------------------------------------
 
     /**
-     * Processa o pagamento de uma Reserva e atualiza o status.
-     * Esta é a simulação da integração com um gateway de pagamento.
+     * Aceita o pagamento de uma Reserva sem chamar o gateway: grava o Pagamento como PROCESSANDO e,
+     * na mesma transação, a entrada da outbox que o ProcessadorPagamentos consome depois do commit.
+     * As validações que não dependem do gateway (reserva quitada, valor devido, sinal mínimo) continuam aqui;
+     * todas comparam centavos com o saldo materializado da reserva.
      * @param request Os dados de pagamento (simulados).
-     * @return O Pagamento registrado.
+     * @return O Pagamento pendente (PROCESSANDO).
      */
     @Transactional
-    public Pagamento processarPagamento(PagamentoRequest request) {
+    public StatusPagamentoDTO solicitarPagamento(PagamentoRequest request) {
         
-        // 1. Busca a Reserva para validação e ligação
-        Reserva reserva = reservaService.buscarPorId(request.getIdReserva());
-        float valorTotal = reserva.getValorPago(); // Consideramos este o valor total da reserva
-        float valorPagamento = request.getValorPagamento();
+        // 1. Busca a Reserva para validação e ligação, bloqueada: duas solicitações da mesma reserva
+        // passam uma de cada vez pelas checagens de valor devido e de pagamento em processamento
+        Reserva reserva = reservaService.buscarParaAtualizar(request.getIdReserva());
+        long valorCentavos = Reserva.paraCentavos(request.getValorPagamento());
         
         // 2. Validação da Reserva e Pagamento
         if (reserva.getStatusReserva().equals("QUITADA")) {
             throw new ValidacaoException("Reserva já está quitada.");
         }
         
-        if (valorPagamento <= 0) {
+        if (valorCentavos <= 0) {
             throw new ValidacaoException("O valor do pagamento deve ser positivo.");
         }
+
+        // Falha antes de cobrar: sem passar do valor devido e, somado ao que já foi pago, cobrindo pelo menos o sinal
+        if (valorCentavos > reserva.valorDevidoCentavos()) {
+            throw new ValidacaoException("O valor do pagamento excede o valor devido de R$ " + reais(reserva.valorDevidoCentavos()));
+        }
+        if (reserva.getSaldoPagoCentavos() + valorCentavos < reserva.sinalMinimoCentavos()) {
+            throw new ValidacaoException("Valor insuficiente para pagar o sinal mínimo de R$ "
+                    + reais(reserva.sinalMinimoCentavos() - reserva.getSaldoPagoCentavos()));
+        }
+
+        if (pagamentoRepository.existsByReservaIdReservaAndStatus(reserva.getIdReserva(), STATUS_PROCESSANDO)) {
+            throw new ValidacaoException("Já existe um pagamento em processamento para esta reserva.");
+        }
         
-        // Simulação de Gateway de Pagamento
-        String statusGateway = simularGateway(request); 
-        
-        // 3. Criação da Entidade Pagamento
+        // 3. Criação da Entidade Pagamento (pendente até a resposta do gateway)
+        LocalDateTime agora = LocalDateTime.now();
         Pagamento pagamento = new Pagamento();
         pagamento.setReserva(reserva);
-        pagamento.setValor(valorPagamento);
-        pagamento.setDataPagamento(LocalDateTime.now());
-        
-        // Mapeamento do Status
+        pagamento.setValorCentavos(valorCentavos);
+        pagamento.setDataPagamento(agora);
+        pagamento.setStatus(STATUS_PROCESSANDO);
+        Pagamento pagamentoSalvo = pagamentoRepository.save(pagamento);
+
+        // 4. Outbox: mesma transação do Pagamento, então um não existe sem o outro
+        OutboxPagamento entrada = new OutboxPagamento();
+        entrada.setIdPagamento(pagamentoSalvo.getIdPagamento());
+        entrada.setSituacao(OutboxPagamento.PENDENTE);
+        entrada.setProximaTentativa(agora);
+        entrada.setCriadoEm(agora);
+        entrada.setInstancia(cofreDadosCartao.instancia());
+        entrada.setMetodoPagamento(request.getMetodoPagamento());
+        entrada.setFinalCartao(CofreDadosCartao.finalCartao(request.getNumeroCartao()));
+        outboxPagamentoRepository.save(entrada);
+        // Número, titular e CVV ficam só em memória, nesta instância
+        cofreDadosCartao.guardar(pagamentoSalvo.getIdPagamento(), new CofreDadosCartao.DadosCartao(
+                request.getNumeroCartao(), request.getNomeTitular(), request.getCvv()));
+
+        eventPublisher.publishEvent(new PagamentoSolicitadoEvent(pagamentoSalvo.getIdPagamento()));
+        return paraStatus(pagamentoSalvo);
+    }
+
+    /**
+     * Aplica a resposta do gateway a um pagamento PROCESSANDO (transação curta, chamada pelo ProcessadorPagamentos).
+     * Sucesso lança o valor no razão da reserva (ReservaService.registrarPagamento), que atualiza o saldo
+     * e leva a reserva para SINAL_PAGO/QUITADA. Se a reserva não aceita mais pagamentos (ex: expirou
+     * enquanto o gateway respondia) ou o valor passa do que ainda é devido, o valor cobrado fica
+     * marcado como ESTORNO_PENDENTE.
+     * @param statusGateway "SUCESSO" ou "FALHA".
+     */
+    @Transactional
+    public StatusPagamentoDTO concluirPagamento(String idPagamento, String statusGateway) {
+        Pagamento pagamento = buscarPorId(idPagamento);
+        if (!STATUS_PROCESSANDO.equals(pagamento.getStatus())) {
+            // Já concluído (ex: processado de novo depois de a reserva do worker expirar)
+            return paraStatus(pagamento);
+        }
+
         if (statusGateway.equals("SUCESSO")) {
-            pagamento.setStatus("QUITADO"); // Pagamento em si é quitado
-
-            // 4. Lógica de Sinal/Quitação da Reserva
-            String novoStatusReserva;
-            
-            // Verifica se o valor pago quita a reserva (com tolerância para floats)
-            if (Math.abs(valorPagamento - valorTotal) < TOLERANCIA_VALOR) {
-                novoStatusReserva = "QUITADA";
-            } 
-            // Verifica se o valor pago é pelo menos o sinal (30% do total)
-            else if (valorPagamento >= valorTotal * PERCENTUAL_MINIMO_SINAL) {
-                 novoStatusReserva = "SINAL_PAGO";
-            }
-            else {
-                 throw new ValidacaoException("Valor insuficiente para pagar o sinal mínimo de R$ " + (valorTotal * PERCENTUAL_MINIMO_SINAL));
+            Reserva reserva = pagamento.getReserva();
+            if (reservaService.registrarPagamento(reserva.getIdReserva(), idPagamento, pagamento.getValorCentavos())) {
+                pagamento.setStatus("QUITADO"); // Pagamento em si é quitado
+            } else {
+                log.warn("Pagamento {} aprovado para a reserva {} em {} (devido: {} centavos); valor a estornar.",
+                        idPagamento, reserva.getIdReserva(), reserva.getStatusReserva(), reserva.valorDevidoCentavos());
+                pagamento.setStatus(STATUS_ESTORNO_PENDENTE);
             }
-            
-            // 5. Atualiza o status da Reserva usando o novo método genérico
-            reservaService.atualizarStatusReserva(reserva.getIdReserva(), novoStatusReserva);
-            
         } else {
             pagamento.setStatus("FALHOU");
             // Se falhou, a reserva permanece no status anterior (PENDENTE ou SINAL_PAGO)
         }
-        
-        // 6. Salva o Pagamento
-        return pagamentoRepository.save(pagamento);
+        pagamento.setDataPagamento(LocalDateTime.now());
+        return paraStatus(pagamentoRepository.save(pagamento));
     }
 
-    private String simularGateway(PagamentoRequest request) {
-        // Lógica de simulação: Falha se o CVV for 000
-        if (request.getCvv() != null && request.getCvv() == 0) {
-            return "FALHA";
+    /**
+     * Devolve os pagamentos aprovados de uma reserva cancelada pelo sistema (ex: cancelamento de série):
+     * cada um sai do saldo por um lançamento de estorno no razão e fica ESTORNO_PENDENTE até o gateway devolver.
+     * Chamado com a reserva já bloqueada pelo chamador, na transação dele.
+     */
+    @Transactional
+    public void estornarPagamentosDaReserva(String idReserva) {
+        for (Pagamento pagamento : pagamentoRepository.findByReservaIdReservaAndStatus(idReserva, "QUITADO")) {
+            reservaService.estornarPagamento(idReserva, pagamento.getIdPagamento(), pagamento.getValorCentavos());
+            pagamento.setStatus(STATUS_ESTORNO_PENDENTE);
         }
-        // Em um ambiente real, você faria uma chamada API aqui
-        return "SUCESSO"; 
     }
 
+    @Transactional(readOnly = true)
+    public StatusPagamentoDTO buscarStatus(String idPagamento) {
+        return paraStatus(buscarPorId(idPagamento));
+    }
 
-    /**
-     * Simulação de uma chamada a um gateway de pagamento externo.
-     * @param numeroCartao Número do cartão (simulado)
-     * @param valor Valor a ser cobrado
-     * @return true se o pagamento foi bem-sucedido.
-     */
-    private boolean simularGatewayPagamento(String numeroCartao, float valor) {
-        // Lógica de simulação:
-        // Assume que qualquer cartão que comece com '4' e não seja '4444' é válido.
-        if (numeroCartao != null && numeroCartao.startsWith("4") && !numeroCartao.equals("4444")) {
-            // Em um ambiente real, você faria aqui a chamada HTTP/SDK para Stripe, PagSeguro, etc.
-            System.out.println("Transação de R$" + valor + " APROVADA.");
-            return true; 
-        }
-        System.out.println("Transação REJEITADA.");
-        return false;
+    public boolean possuiPagamentos(String idReserva) {
+        return pagamentoRepository.existsByReservaIdReserva(idReserva);
+    }
+
+    private static StatusPagamentoDTO paraStatus(Pagamento pagamento) {
+        Reserva reserva = pagamento.getReserva();
+        return new StatusPagamentoDTO(
+                pagamento.getIdPagamento(),
+                reserva.getIdReserva(),
+                pagamento.getValorCentavos(),
+                pagamento.getDataPagamento(),
+                pagamento.getStatus(),
+                reserva.getStatusReserva(),
+                reserva.getSaldoPagoCentavos(),
+                reserva.valorDevidoCentavos(),
+                !STATUS_PROCESSANDO.equals(pagamento.getStatus()));
+    }
+
+    private static String reais(long centavos) {
+        return String.format(Locale.ROOT, "%d.%02d", centavos / 100, centavos % 100);
     }
 
     /**
@@ -136,18 +209,37 @@ public class PagamentoService {
                 .orElseThrow(() -> new EntityNotFoundException("Pagamento com ID " + idPagamento + " não encontrado."));
     }
 
+    /**
+     * Alteração manual de status, limitada a TRANSICOES_MANUAIS. Crédito e estorno de valores só passam
+     * pelo razão (concluirPagamento, cancelarPagamento), então QUITADO, PROCESSANDO etc. não são aceitos aqui.
+     */
     @Transactional
-    public Pagamento atualizarStatus(String idPagamento, String novoStatus) {
+    public StatusPagamentoDTO atualizarStatus(String idPagamento, String novoStatus) {
         Pagamento pagamento = buscarPorId(idPagamento);
+        if (novoStatus.equals(pagamento.getStatus())) {
+            return paraStatus(pagamento);
+        }
+        if (!TRANSICOES_MANUAIS.getOrDefault(pagamento.getStatus(), Set.of()).contains(novoStatus)) {
+            throw new ValidacaoException("O pagamento não pode ser alterado manualmente para o status: " + novoStatus
+                    + " a partir do status: " + pagamento.getStatus());
+        }
 
         pagamento.setStatus(novoStatus);
-        return pagamentoRepository.save(pagamento);
+        return paraStatus(pagamentoRepository.save(pagamento));
     }
 
     @Transactional
     public void cancelarPagamento(String idPagamento) {
         Pagamento pagamento = buscarPorId(idPagamento);
 
+        if (STATUS_PROCESSANDO.equals(pagamento.getStatus())) {
+            throw new ValidacaoException("Pagamento ainda em processamento; aguarde o resultado para cancelar.");
+        }
+        // Um pagamento que entrou no saldo da reserva sai pelo lançamento de estorno
+        if ("QUITADO".equals(pagamento.getStatus())) {
+            reservaService.estornarPagamento(pagamento.getReserva().getIdReserva(), idPagamento, pagamento.getValorCentavos());
+        }
+
         // Em vez de deletar, registramos que foi cancelado
         pagamento.setStatus("CANCELADO");
         pagamentoRepository.save(pagamento);
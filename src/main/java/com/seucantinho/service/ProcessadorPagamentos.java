@@ -0,0 +1,366 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.StatusPagamentoDTO;
+import com.seucantinho.event.PagamentoConcluidoEvent;
+import com.seucantinho.event.PagamentoSolicitadoEvent;
+import com.seucantinho.model.OutboxPagamento;
+import com.seucantinho.repository.OutboxPagamentoRepository;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Consome a outbox de pagamentos (TB_OUTBOX_PAGAMENTO) em um pool limitado de workers:
+ *  1. reserva um lote de entradas prontas (transação curta, SKIP LOCKED) até a capacidade livre do pool;
+ *  2. cada worker chama o gateway (GatewayPagamentoProtegido) sem transação e sem conexão presa;
+ *  3. a resposta é aplicada pelo PagamentoService.concluirPagamento em outra transação curta.
+ *
+ * A varredura roda a cada intervalo e também logo após o commit de cada pagamento aceito; nesse caso a
+ * thread da requisição só pede a varredura ao executorVarreduraOutbox (pedidos em sequência se juntam).
+ * Uma entrada reservada por um worker que não terminou (ex: queda do processo) volta para a fila
+ * quando a reserva expira; falhas do gateway são tentadas de novo com espera exponencial.
+ * Com o circuit breaker do gateway aberto a varredura não reserva nada.
+ *
+ * Cada instância só processa as entradas que ela mesma aceitou, porque o cartão está no CofreDadosCartao dela.
+ * Sem o cartão (processo reiniciado, prazo de retenção vencido) o pagamento é recusado; entradas de outras
+ * instâncias mais antigas que o prazo de retenção são recusadas por qualquer instância.
+ *
+ * Quem chamou GET /api/pagamentos/{id}/resultado é avisado quando o pagamento conclui nesta instância;
+ * nas demais o long polling termina pelo tempo e devolve a situação lida do banco.
+ */
+@Component
+public class ProcessadorPagamentos {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessadorPagamentos.class);
+
+    private static final String ERRO_SEM_CARTAO =
+            "Dados do cartão indisponíveis (processo reiniciado ou prazo de retenção vencido); pagamento recusado.";
+
+    private final OutboxPagamentoRepository outboxPagamentoRepository;
+    private final PagamentoService pagamentoService;
+    private final GatewayPagamentoProtegido gatewayPagamento;
+    private final CofreDadosCartao cofreDadosCartao;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor executorVarredura;
+
+    private final int tamanhoLote;
+    private final Duration reservaWorker;
+    private final int maxTentativas;
+    private final long esperaBaseMs;
+    private final long esperaPadraoMs;
+    private final long esperaMaximaMs;
+
+    private final Map<String, Queue<DeferredResult<StatusPagamentoDTO>>> aguardando = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProcessadorPagamentos(
+            OutboxPagamentoRepository outboxPagamentoRepository,
+            PagamentoService pagamentoService,
+            GatewayPagamentoProtegido gatewayPagamento,
+            CofreDadosCartao cofreDadosCartao,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("executorPagamentos") ThreadPoolExecutor executor,
+            @Qualifier("executorVarreduraOutbox") ThreadPoolExecutor executorVarredura,
+            @Value("${seucantinho.pagamentos.outbox.tamanho-lote:50}") int tamanhoLote,
+            @Value("${seucantinho.pagamentos.outbox.reserva-worker-segundos:60}") long reservaWorkerSegundos,
+            @Value("${seucantinho.pagamentos.outbox.max-tentativas:5}") int maxTentativas,
+            @Value("${seucantinho.pagamentos.outbox.espera-base-ms:2000}") long esperaBaseMs,
+            @Value("${seucantinho.pagamentos.resultado.espera-ms:10000}") long esperaPadraoMs,
+            @Value("${seucantinho.pagamentos.resultado.espera-maxima-ms:30000}") long esperaMaximaMs) {
+        this.outboxPagamentoRepository = outboxPagamentoRepository;
+        this.pagamentoService = pagamentoService;
+        this.gatewayPagamento = gatewayPagamento;
+        this.cofreDadosCartao = cofreDadosCartao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.executorVarredura = executorVarredura;
+        this.tamanhoLote = tamanhoLote;
+        this.reservaWorker = Duration.ofSeconds(reservaWorkerSegundos);
+        this.maxTentativas = maxTentativas;
+        this.esperaBaseMs = esperaBaseMs;
+        this.esperaPadraoMs = esperaPadraoMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    // ------------------------------------------------------------------------
+    // VARREDURA DA OUTBOX
+    // ------------------------------------------------------------------------
+
+    // Só pede a varredura: a leitura da outbox roda na thread do executorVarreduraOutbox, não na da requisição
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSolicitarPagamento(PagamentoSolicitadoEvent evento) {
+        executorVarredura.execute(this::drenar);
+    }
+
+    /**
+     * Reserva as entradas prontas (até a capacidade livre do pool) e entrega cada uma a um worker.
+     * @return quantidade de entradas entregues.
+     */
+    @Scheduled(fixedDelayString = "${seucantinho.pagamentos.outbox.intervalo-ms:1000}")
+    public synchronized int drenar() {
+        int livres = Math.min(tamanhoLote, capacidadeLivre());
+        if (livres <= 0 || !gatewayPagamento.aceitaChamadas()) {
+            return 0;
+        }
+        List<String> reservadas;
+        try {
+            reservadas = transactionTemplate.execute(status -> reservar(livres));
+        } catch (RuntimeException e) {
+            log.error("Falha ao ler a outbox de pagamentos; nova tentativa no próximo ciclo.", e);
+            return 0;
+        }
+
+        int entregues = 0;
+        for (String idOutbox : reservadas) {
+            try {
+                executor.execute(() -> processar(idOutbox));
+                entregues++;
+            } catch (RejectedExecutionException e) {
+                // Pool cheio (ex: desligando): a entrada volta para a fila quando a reserva expirar
+                log.warn("Workers de pagamento ocupados; entrada {} fica para depois.", idOutbox);
+            }
+        }
+        return entregues;
+    }
+
+    private List<String> reservar(int quantidade) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<OutboxPagamento> prontas = outboxPagamentoRepository.findProntasParaProcessar(
+                cofreDadosCartao.instancia(), agora, Limit.of(quantidade));
+        for (OutboxPagamento entrada : prontas) {
+            entrada.setSituacao(OutboxPagamento.EM_ANDAMENTO);
+            entrada.setProximaTentativa(agora.plus(reservaWorker));
+            entrada.setTentativas(entrada.getTentativas() + 1);
+        }
+        return prontas.stream().map(OutboxPagamento::getIdOutbox).toList();
+    }
+
+    /**
+     * Recusa as entradas de outras instâncias (ou de antes de um reinício) que passaram do prazo de retenção
+     * do cartão e não estão com um worker: nenhum cofre tem mais os dados para cobrá-las.
+     * @return quantidade de pagamentos recusados.
+     */
+    @Scheduled(fixedDelayString = "${seucantinho.pagamentos.outbox.intervalo-orfas-ms:60000}")
+    public int recusarOrfas() {
+        List<StatusPagamentoDTO> recusados;
+        try {
+            recusados = transactionTemplate.execute(status -> {
+                LocalDateTime agora = LocalDateTime.now();
+                List<StatusPagamentoDTO> concluidos = new ArrayList<>();
+                for (OutboxPagamento entrada : outboxPagamentoRepository.findOrfas(
+                        cofreDadosCartao.instancia(), agora.minus(cofreDadosCartao.retencao()), Limit.of(tamanhoLote))) {
+                    // Reserva de worker ainda válida: a chamada ao gateway pode estar em andamento
+                    if (entrada.getProximaTentativa().isAfter(agora)) {
+                        continue;
+                    }
+                    entrada.setUltimoErro(ERRO_SEM_CARTAO);
+                    StatusPagamentoDTO resultado = concluir(entrada.getIdOutbox(), "FALHA");
+                    if (resultado != null) {
+                        concluidos.add(resultado);
+                    }
+                }
+                return concluidos;
+            });
+        } catch (RuntimeException e) {
+            log.error("Falha ao recusar pagamentos sem dados de cartão; nova tentativa no próximo ciclo.", e);
+            return 0;
+        }
+        if (!recusados.isEmpty()) {
+            log.warn("{} pagamentos recusados por falta dos dados do cartão.", recusados.size());
+        }
+        recusados.forEach(this::notificar);
+        return recusados.size();
+    }
+
+    private int capacidadeLivre() {
+        return executor.getMaximumPoolSize() - executor.getActiveCount() + executor.getQueue().remainingCapacity();
+    }
+
+    // ------------------------------------------------------------------------
+    // WORKER
+    // ------------------------------------------------------------------------
+
+    private void processar(String idOutbox) {
+        OutboxPagamento entrada = outboxPagamentoRepository.findById(idOutbox).orElse(null);
+        if (entrada == null || OutboxPagamento.CONCLUIDO.equals(entrada.getSituacao())) {
+            return;
+        }
+
+        CofreDadosCartao.DadosCartao cartao = cofreDadosCartao.buscar(entrada.getIdPagamento());
+        if (cartao == null) {
+            log.warn("Pagamento {} sem os dados do cartão nesta instância; recusado.", entrada.getIdPagamento());
+            concluirSemGateway(idOutbox);
+            return;
+        }
+
+        // Fora de transação: um gateway lento não segura conexão do pool
+        String statusGateway;
+        try {
+            GatewayPagamento.Cobranca cobranca = new GatewayPagamento.Cobranca(
+                    entrada.getIdPagamento(),
+                    pagamentoService.buscarPorId(entrada.getIdPagamento()).getValorCentavos(),
+                    entrada.getMetodoPagamento(),
+                    cartao.numeroCartao(),
+                    cartao.nomeTitular(),
+                    cartao.cvv());
+            GatewayPagamento.Resultado resultado = gatewayPagamento.cobrar(cobranca);
+            statusGateway = resultado == GatewayPagamento.Resultado.APROVADO ? "SUCESSO" : "FALHA";
+        } catch (RuntimeException e) {
+            reprogramar(idOutbox, e);
+            return;
+        }
+
+        try {
+            StatusPagamentoDTO resultado = transactionTemplate.execute(status -> concluir(idOutbox, statusGateway));
+            if (resultado != null) {
+                notificar(resultado);
+            }
+        } catch (RuntimeException e) {
+            // A entrada continua EM_ANDAMENTO e é reprocessada quando a reserva do worker expirar
+            log.error("Falha ao concluir o pagamento {}; será reprocessado.", entrada.getIdPagamento(), e);
+        }
+    }
+
+    private StatusPagamentoDTO concluir(String idOutbox, String statusGateway) {
+        OutboxPagamento entrada = outboxPagamentoRepository.findParaAtualizar(idOutbox).orElse(null);
+        if (entrada == null || OutboxPagamento.CONCLUIDO.equals(entrada.getSituacao())) {
+            return null;
+        }
+        StatusPagamentoDTO resultado = pagamentoService.concluirPagamento(entrada.getIdPagamento(), statusGateway);
+        entrada.setSituacao(OutboxPagamento.CONCLUIDO);
+        entrada.setConcluidoEm(LocalDateTime.now());
+        entrada.limparDadosCobranca();
+        cofreDadosCartao.descartarAposCommit(entrada.getIdPagamento());
+        return resultado;
+    }
+
+    private void concluirSemGateway(String idOutbox) {
+        try {
+            StatusPagamentoDTO resultado = transactionTemplate.execute(status -> {
+                outboxPagamentoRepository.findParaAtualizar(idOutbox).ifPresent(e -> e.setUltimoErro(ERRO_SEM_CARTAO));
+                return concluir(idOutbox, "FALHA");
+            });
+            if (resultado != null) {
+                notificar(resultado);
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao recusar a entrada {} da outbox.", idOutbox, e);
+        }
+    }
+
+    private void reprogramar(String idOutbox, RuntimeException erro) {
+        try {
+            StatusPagamentoDTO resultado = transactionTemplate.execute(status -> {
+                OutboxPagamento entrada = outboxPagamentoRepository.findParaAtualizar(idOutbox).orElse(null);
+                if (entrada == null || OutboxPagamento.CONCLUIDO.equals(entrada.getSituacao())) {
+                    return null;
+                }
+                entrada.setUltimoErro(String.valueOf(erro.getMessage()));
+                if (erro instanceof CallNotPermittedException || erro instanceof BulkheadFullException) {
+                    // Recusada antes de chegar ao gateway (circuito aberto, limite de chamadas): não conta como tentativa
+                    entrada.setTentativas(entrada.getTentativas() - 1);
+                    entrada.setSituacao(OutboxPagamento.PENDENTE);
+                    entrada.setProximaTentativa(LocalDateTime.now().plus(Duration.ofMillis(esperaBaseMs)));
+                    log.warn("Gateway indisponível para o pagamento {} ({}); nova tentativa em {} ms.",
+                            entrada.getIdPagamento(), erro.getClass().getSimpleName(), esperaBaseMs);
+                    return null;
+                }
+                if (entrada.getTentativas() >= maxTentativas) {
+                    log.error("Gateway falhou {} vezes para o pagamento {}; pagamento recusado.",
+                            entrada.getTentativas(), entrada.getIdPagamento(), erro);
+                    return concluir(idOutbox, "FALHA");
+                }
+                // Espera exponencial: base, 2x base, 4x base...
+                long espera = esperaBaseMs << Math.min(entrada.getTentativas() - 1, 20);
+                entrada.setSituacao(OutboxPagamento.PENDENTE);
+                entrada.setProximaTentativa(LocalDateTime.now().plus(Duration.ofMillis(espera)));
+                log.warn("Gateway falhou para o pagamento {} (tentativa {}); nova tentativa em {} ms.",
+                        entrada.getIdPagamento(), entrada.getTentativas(), espera);
+                return null;
+            });
+            if (resultado != null) {
+                notificar(resultado);
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao reprogramar a entrada {} da outbox.", idOutbox, e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // AGUARDAR RESULTADO (LONG POLLING)
+    // ------------------------------------------------------------------------
+
+    /**
+     * Resultado do pagamento assim que ele concluir, ou a situação atual ao fim da espera.
+     * @param esperaMs Tempo máximo de espera (padrão e teto configuráveis).
+     */
+    public DeferredResult<StatusPagamentoDTO> aguardar(String idPagamento, Long esperaMs) {
+        // Lança EntityNotFoundException antes de registrar a espera
+        StatusPagamentoDTO atual = pagamentoService.buscarStatus(idPagamento);
+        long espera = Math.min(esperaMs != null && esperaMs > 0 ? esperaMs : esperaPadraoMs, esperaMaximaMs);
+
+        DeferredResult<StatusPagamentoDTO> resultado = new DeferredResult<>(espera);
+        if (atual.isConcluido()) {
+            resultado.setResult(atual);
+            return resultado;
+        }
+
+        Queue<DeferredResult<StatusPagamentoDTO>> fila =
+                aguardando.computeIfAbsent(idPagamento, id -> new ConcurrentLinkedQueue<>());
+        fila.add(resultado);
+        resultado.onCompletion(() -> remover(idPagamento, resultado));
+        resultado.onTimeout(() -> resultado.setResult(pagamentoService.buscarStatus(idPagamento)));
+
+        // O pagamento pode ter concluído entre a primeira leitura e o registro
+        StatusPagamentoDTO releitura = pagamentoService.buscarStatus(idPagamento);
+        if (releitura.isConcluido()) {
+            resultado.setResult(releitura);
+        }
+        return resultado;
+    }
+
+    // Pagamento concluído fora do worker (ex: conciliação): lê o resultado só se alguém espera por ele
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoConcluirPagamento(PagamentoConcluidoEvent evento) {
+        if (aguardando.containsKey(evento.idPagamento())) {
+            notificar(pagamentoService.buscarStatus(evento.idPagamento()));
+        }
+    }
+
+    private void notificar(StatusPagamentoDTO resultado) {
+        Queue<DeferredResult<StatusPagamentoDTO>> fila = aguardando.remove(resultado.getIdPagamento());
+        if (fila != null) {
+            fila.forEach(espera -> espera.setResult(resultado));
+        }
+    }
+
+    private void remover(String idPagamento, DeferredResult<StatusPagamentoDTO> resultado) {
+        aguardando.computeIfPresent(idPagamento, (id, fila) -> {
+            fila.remove(resultado);
+            return fila.isEmpty() ? null : fila;
+        });
+    }
+}
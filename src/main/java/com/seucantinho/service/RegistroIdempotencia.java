@@ -0,0 +1,237 @@
+package com.seucantinho.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.seucantinho.exception.RequisicaoEmAndamentoException;
+import com.seucantinho.exception.ValidacaoException;
+import com.seucantinho.model.ChaveIdempotencia;
+import com.seucantinho.repository.ChaveIdempotenciaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Execuções por Idempotency-Key: a primeira requisição de uma chave executa a operação; as repetições
+ * recebem a mesma resposta sem executá-la de novo.
+ *
+ * Memória: cache Caffeine (tamanho e TTL limitados) com uma execução por chave. Repetições que chegam
+ * enquanto a primeira ainda roda esperam pelo mesmo resultado, em vez de executar outra vez.
+ *
+ * Banco (TB_CHAVE_IDEMPOTENCIA): a chave é registrada antes de executar e a resposta é gravada na mesma
+ * transação da operação, então uma resposta nunca existe sem a operação (nem o contrário). Isso cobre
+ * repetições que caem em outra instância ou depois de a entrada sair do cache. Uma execução sem
+ * resposta há mais que o prazo de execução (ex: a instância caiu) pode ser assumida por outra requisição.
+ *
+ * Operações que lançam exceção não guardam resposta: a chave é liberada e a repetição executa de novo.
+ */
+@Component
+public class RegistroIdempotencia {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroIdempotencia.class);
+
+    private final ChaveIdempotenciaRepository chaveIdempotenciaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Execucao> execucoes;
+
+    private final Duration ttl;
+    private final Duration prazoExecucao;
+    private final long esperaMaximaMs;
+
+    /**
+     * @param repetido true quando a resposta veio de uma execução anterior (ou concorrente) da mesma chave.
+     */
+    public record Resultado<T>(T valor, boolean repetido) {
+    }
+
+    // Execução de uma chave nesta instância; as repetições aguardam 'resposta'
+    private record Execucao(String hash, CompletableFuture<Object> resposta) {
+    }
+
+    @Autowired
+    public RegistroIdempotencia(
+            ChaveIdempotenciaRepository chaveIdempotenciaRepository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.idempotencia.tamanho-maximo:10000}") long tamanhoMaximo,
+            @Value("${seucantinho.idempotencia.ttl-horas:24}") long ttlHoras,
+            @Value("${seucantinho.idempotencia.prazo-execucao-segundos:60}") long prazoExecucaoSegundos,
+            @Value("${seucantinho.idempotencia.espera-maxima-ms:10000}") long esperaMaximaMs) {
+        this.chaveIdempotenciaRepository = chaveIdempotenciaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.prazoExecucao = Duration.ofSeconds(prazoExecucaoSegundos);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.execucoes = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, execucoes, "idempotencia");
+    }
+
+    // ------------------------------------------------------------------------
+    // EXECUÇÃO
+    // ------------------------------------------------------------------------
+
+    /**
+     * Executa 'operacao' uma única vez por chave.
+     * @param chave Operação + Idempotency-Key (ex: "pagamento:" + chave).
+     * @param requisicao O que identifica a requisição; a mesma chave com outro conteúdo lança ValidacaoException.
+     *        O hash dele é gravado no banco, então não deve conter dados sensíveis (ex: número do cartão, CVV).
+     * @param tipo Tipo da resposta (lida do JSON guardado nas repetições vindas do banco).
+     * @throws RequisicaoEmAndamentoException se a mesma chave ainda está em execução (em outra instância,
+     *         ou por mais tempo que a espera máxima nesta).
+     */
+    public <T> Resultado<T> executar(String chave, Object requisicao, Class<T> tipo, Supplier<T> operacao) {
+        String hash = hash(requisicao);
+        Execucao nova = new Execucao(hash, new CompletableFuture<>());
+        Execucao existente = execucoes.asMap().putIfAbsent(chave, nova);
+        if (existente != null) {
+            conferirHash(existente.hash(), hash);
+            return new Resultado<>(tipo.cast(aguardar(existente)), true);
+        }
+
+        boolean iniciada = false;
+        try {
+            iniciada = iniciar(chave, hash);
+            if (!iniciada) {
+                T anterior = respostaGuardada(chave, hash, tipo);
+                nova.resposta().complete(anterior);
+                return new Resultado<>(anterior, true);
+            }
+
+            // Operação e resposta na mesma transação (a operação, se @Transactional, participa desta)
+            T valor = transactionTemplate.execute(status -> {
+                T resultado = operacao.get();
+                chaveIdempotenciaRepository.gravarResposta(chave, escrever(resultado));
+                return resultado;
+            });
+            nova.resposta().complete(valor);
+            return new Resultado<>(valor, false);
+        } catch (RuntimeException e) {
+            execucoes.asMap().remove(chave, nova);
+            nova.resposta().completeExceptionally(e);
+            if (iniciada) {
+                liberar(chave);
+            }
+            throw e;
+        }
+    }
+
+    // Registra a chave no banco; false se ela já tem dono (ou resposta)
+    private boolean iniciar(String chave, String hash) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime expiraEm = agora.plus(ttl);
+        return transactionTemplate.execute(status ->
+                chaveIdempotenciaRepository.registrarInicio(chave, hash, agora, expiraEm) == 1
+                || chaveIdempotenciaRepository.assumirExecucao(chave, hash, agora, expiraEm, agora.minus(prazoExecucao)) == 1);
+    }
+
+    private <T> T respostaGuardada(String chave, String hash, Class<T> tipo) {
+        ChaveIdempotencia salva = chaveIdempotenciaRepository.findById(chave).orElse(null);
+        if (salva != null) {
+            conferirHash(salva.getHashRequisicao(), hash);
+        }
+        if (salva == null || salva.getResposta() == null) {
+            throw new RequisicaoEmAndamentoException("Uma requisição com esta Idempotency-Key ainda está em processamento.");
+        }
+        return ler(salva.getResposta(), tipo);
+    }
+
+    private Object aguardar(Execucao execucao) {
+        try {
+            return execucao.resposta().get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // A repetição recebe o mesmo erro da execução original
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RequisicaoEmAndamentoException("Uma requisição com esta Idempotency-Key ainda está em processamento.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequisicaoEmAndamentoException("Espera pela requisição original interrompida.");
+        }
+    }
+
+    private void liberar(String chave) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> chaveIdempotenciaRepository.liberar(chave));
+        } catch (RuntimeException e) {
+            // A chave fica presa até o prazo de execução vencer
+            log.error("Falha ao liberar a chave de idempotência {}.", chave, e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // LIMPEZA
+    // ------------------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${seucantinho.idempotencia.limpeza-ms:3600000}")
+    public int removerExpiradas() {
+        Integer removidas = transactionTemplate.execute(status ->
+                chaveIdempotenciaRepository.removerExpiradas(LocalDateTime.now()));
+        if (removidas != null && removidas > 0) {
+            log.info("{} chaves de idempotência expiradas removidas.", removidas);
+        }
+        return removidas == null ? 0 : removidas;
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    private static void conferirHash(String esperado, String recebido) {
+        if (!esperado.equals(recebido)) {
+            throw new ValidacaoException("A Idempotency-Key já foi usada com outro conteúdo de requisição.");
+        }
+    }
+
+    private String hash(Object requisicao) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(requisicao));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Falha ao calcular o hash da requisição.", e);
+        }
+    }
+
+    private String escrever(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta idempotente.", e);
+        }
+    }
+
+    private <T> T ler(String json, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(json, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao ler a resposta idempotente guardada.", e);
+        }
+    }
+}
@@ -2,40 +2,78 @@ package com.seucantinho.service;
 
 import com.seucantinho.model.Reserva;
 import com.seucantinho.model.Cliente;
+import com.seucantinho.model.LancamentoPagamento;
 import com.seucantinho.model.Espaco;
+import com.seucantinho.dto.PaginaDTO;
 import com.seucantinho.dto.ReservaResponse;
+import com.seucantinho.dto.ResultadoLoteReservaDTO;
+import com.seucantinho.event.ReservaAlteradaEvent;
+import com.seucantinho.repository.IntervaloReserva;
+import com.seucantinho.repository.LancamentoPagamentoRepository;
 import com.seucantinho.repository.ReservaRepository;
 import com.seucantinho.exception.ReservaIndisponivelException;
 import com.seucantinho.exception.ValidacaoException;
 import com.seucantinho.exception.UsuarioNaoEncontradoException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.context.annotation.Lazy;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors; 
 
 @Service
 public class ReservaService {
 
+    // Duração assumida quando a reserva chega sem data de fim
+    private static final int DURACAO_PADRAO_HORAS = 4;
+    // SQLSTATE do PostgreSQL para violação de restrição de exclusão (ex_reserva_sobreposicao)
+    private static final String SQLSTATE_VIOLACAO_EXCLUSAO = "23P01";
+
     private final ReservaRepository reservaRepository;
+    private final LancamentoPagamentoRepository lancamentoPagamentoRepository;
     private final ClienteService clienteService;
     private final EspacoService espacoService;
     private final PagamentoService pagamentoService;
+    private final SequenciadorReservas sequenciadorReservas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EstrategiaReserva estrategia;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public ReservaService(
         ReservaRepository reservaRepository,
+        LancamentoPagamentoRepository lancamentoPagamentoRepository,
         ClienteService clienteService,
         EspacoService espacoService,
-        @Lazy PagamentoService pagamentoService
+        @Lazy PagamentoService pagamentoService,
+        SequenciadorReservas sequenciadorReservas,
+        ApplicationEventPublisher eventPublisher,
+        @Value("${seucantinho.reservas.estrategia:VERIFICAR_E_INSERIR}") EstrategiaReserva estrategia,
+        TransactionTemplate transactionTemplate
     ) {
         this.reservaRepository = reservaRepository;
+        this.lancamentoPagamentoRepository = lancamentoPagamentoRepository;
         this.clienteService = clienteService;
         this.espacoService = espacoService;
         this.pagamentoService = pagamentoService;
+        this.sequenciadorReservas = sequenciadorReservas;
+        this.eventPublisher = eventPublisher;
+        this.estrategia = estrategia;
+        this.transactionTemplate = transactionTemplate;
     }
 
     // ------------------------------------------------------------------------
@@ -63,23 +101,40 @@ public class ReservaService {
         if (reserva.getDataEvento().isBefore(LocalDateTime.now())) {
             throw new ValidacaoException("A data do evento não pode ser no passado.");
         }
+        if (reserva.getDataEventoFim() == null) {
+            reserva.setDataEventoFim(reserva.getDataEvento().plusHours(DURACAO_PADRAO_HORAS));
+        }
         
-        // 3. Validação de Disponibilidade
+        // 3. Configuração Inicial da Reserva
+        reserva.setDataReserva(LocalDateTime.now());
+        reserva.setStatusReserva("PENDENTE"); // Inicia como pendente até o pagamento
+
+        // 4. Validação de Disponibilidade + gravação
+        // Com a restrição de exclusão no banco basta inserir; a sobreposição volta como erro do banco
+        if (estrategia == EstrategiaReserva.RESTRICAO_BANCO) {
+            Reserva reservaSalva = salvarVerificandoSobreposicao(reserva);
+            publicarAlteracao(reservaSalva.getIdReserva(), null, reservaSalva);
+            return reservaSalva;
+        }
+
+        // Com o sequenciador ativo, a checagem e o insert acontecem em ordem na fila do espaço
+        if (sequenciadorReservas.ativo()) {
+            return sequenciadorReservas.reservar(reserva);
+        }
+
         // Chamamos a lógica de disponibilidade que está encapsulada no EspacoService
         if (!espacoService.verificarDisponibilidade(
                 espaco.getIdEspaco(), 
                 reserva.getDataEvento(), 
-                reserva.getDataEvento().plusHours(4) // Exemplo: Assumindo um evento de 4h
+                reserva.getDataEventoFim()
             )) 
         {
             throw new ReservaIndisponivelException("O espaço não está disponível para o período solicitado.");
         }
         
-        // 4. Configuração Inicial da Reserva
-        reserva.setDataReserva(LocalDateTime.now());
-        reserva.setStatusReserva("PENDENTE"); // Inicia como pendente até o pagamento
-        
-        return reservaRepository.save(reserva);
+        Reserva reservaSalva = reservaRepository.save(reserva);
+        publicarAlteracao(reservaSalva.getIdReserva(), null, reservaSalva);
+        return reservaSalva;
     }
     
     public Reserva atualizarStatusReserva(String idReserva, String novoStatus) { 
@@ -88,19 +143,84 @@ public class ReservaService {
         if (reserva.getStatusReserva().equals("PENDENTE") || reserva.getStatusReserva().equals("SINAL_PAGO")) {
              // Aceita a transição para estados de pagamento/cancelamento
             if (novoStatus.equals("SINAL_PAGO") || novoStatus.equals("QUITADA") || novoStatus.equals("CANCELADA")) {
+                ReservaAlteradaEvent.Estado anterior = ReservaAlteradaEvent.Estado.de(reserva);
                 reserva.setStatusReserva(novoStatus);
-                return reservaRepository.save(reserva);
+                Reserva reservaSalva = reservaRepository.save(reserva);
+                publicarAlteracao(reservaSalva.getIdReserva(), anterior, reservaSalva);
+                return reservaSalva;
             }
         }
         
         throw new ValidacaoException("A reserva não pode ser atualizada para o status: " + novoStatus + " a partir do status: " + reserva.getStatusReserva());
     }
 
+    // -------------------------------------------------------
+    // RAZÃO DE PAGAMENTOS
+    // -------------------------------------------------------
+    /**
+     * Lança um pagamento aprovado no razão da reserva e soma o valor ao saldo pago, na mesma transação
+     * (reserva bloqueada, então pagamentos concorrentes da mesma reserva entram um de cada vez).
+     * Com o novo saldo a reserva vai para QUITADA (saldo cobre o total) ou SINAL_PAGO (saldo cobre o sinal).
+     * @return false se a reserva não aceita mais pagamentos (ex: expirou ou foi cancelada) ou se o valor
+     *         passa do que ainda é devido (ex: outro pagamento aprovado antes); nada é lançado.
+     */
+    @Transactional
+    public boolean registrarPagamento(String idReserva, String idPagamento, long valorCentavos) {
+        Reserva reserva = buscarParaAtualizar(idReserva);
+        String statusAtual = reserva.getStatusReserva();
+        if (!statusAtual.equals("PENDENTE") && !statusAtual.equals("SINAL_PAGO")) {
+            return false;
+        }
+        if (valorCentavos > reserva.valorDevidoCentavos()) {
+            return false;
+        }
+
+        lancar(reserva, idPagamento, LancamentoPagamento.PAGAMENTO, valorCentavos);
+
+        String novoStatus = reserva.getSaldoPagoCentavos() >= reserva.valorTotalCentavos() ? "QUITADA"
+                : reserva.getSaldoPagoCentavos() >= reserva.sinalMinimoCentavos() ? "SINAL_PAGO"
+                : statusAtual;
+        if (!novoStatus.equals(statusAtual)) {
+            atualizarStatusReserva(idReserva, novoStatus);
+        }
+        return true;
+    }
+
+    /**
+     * Lança o estorno de um pagamento (valor negativo) e desconta do saldo pago.
+     * O status da reserva não volta sozinho; cancelamento segue pelo fluxo da reserva.
+     */
+    @Transactional
+    public void estornarPagamento(String idReserva, String idPagamento, long valorCentavos) {
+        Reserva reserva = buscarParaAtualizar(idReserva);
+        lancar(reserva, idPagamento, LancamentoPagamento.ESTORNO, -valorCentavos);
+    }
+
+    public List<LancamentoPagamento> listarLancamentos(String idReserva) {
+        buscarPorId(idReserva);
+        return lancamentoPagamentoRepository.findByReservaIdReservaOrderByDataLancamentoAsc(idReserva);
+    }
+
+    private void lancar(Reserva reserva, String idPagamento, String tipo, long valorCentavos) {
+        long saldo = reserva.getSaldoPagoCentavos() + valorCentavos;
+        reserva.setSaldoPagoCentavos(saldo);
+
+        LancamentoPagamento lancamento = new LancamentoPagamento();
+        lancamento.setReserva(reserva);
+        lancamento.setIdPagamento(idPagamento);
+        lancamento.setTipo(tipo);
+        lancamento.setValorCentavos(valorCentavos);
+        lancamento.setSaldoAposCentavos(saldo);
+        lancamento.setDataLancamento(LocalDateTime.now());
+        lancamentoPagamentoRepository.save(lancamento);
+    }
+
         // -------------------------------------------------------
     // ATUALIZAR RESERVA (PUT)
     // -------------------------------------------------------
     public Reserva atualizarReserva(String idReserva, Reserva novaReserva) {
         Reserva reservaExistente = buscarPorId(idReserva);
+        ReservaAlteradaEvent.Estado anterior = ReservaAlteradaEvent.Estado.de(reservaExistente);
 
         // Atualiza Cliente
         if (novaReserva.getCliente() != null) {
@@ -132,19 +252,221 @@ public class ReservaService {
             reservaExistente.setStatusReserva(novaReserva.getStatusReserva());
         }
 
-        // Salva tudo
-        return reservaRepository.save(reservaExistente);
+        // Salva tudo (com a restrição no banco, mudar datas/espaço pode gerar sobreposição)
+        Reserva reservaSalva = salvarVerificandoSobreposicao(reservaExistente);
+        publicarAlteracao(reservaSalva.getIdReserva(), anterior, reservaSalva);
+        return reservaSalva;
     }
 
 
 
+    // -------------------------------------------------------
+    // CRIAR RESERVAS EM LOTE (POST /lote)
+    // -------------------------------------------------------
+    /**
+     * Cria várias reservas de uma vez. Clientes e espaços são buscados com uma consulta IN cada,
+     * todas as sobreposições (inclusive entre reservas do próprio lote) são checadas com uma única
+     * consulta e as reservas aceitas são inseridas em lote (JDBC batch).
+     * Com VERIFICAR_E_INSERIR e o sequenciador ativo, a checagem + inserção roda na faixa de cada espaço
+     * (uma transação por faixa), em ordem com as reservas avulsas; sem isso, duas gravações concorrentes
+     * poderiam passar juntas pela checagem. Com RESTRICAO_BANCO, se o banco recusar o lote por sobreposição,
+     * as reservas são regravadas uma a uma e só as recusadas ficam como CONFLITO.
+     * @param reservas Reservas a criar (cliente e espaço preenchidos apenas com o ID).
+     * @return O resultado de cada item (CRIADA, CONFLITO ou INVALIDA), na ordem recebida.
+     */
+    public ResultadoLoteReservaDTO criarReservasEmLote(List<Reserva> reservas) {
+        // 1. Clientes e espaços do lote inteiro: uma consulta para cada
+        Map<String, Cliente> clientes = clienteService.buscarEntitiesPorIds(
+            reservas.stream().map(r -> r.getCliente().getIdUsuario()).collect(Collectors.toSet()));
+        Map<String, Espaco> espacos = espacoService.buscarEntitiesPorIds(
+            reservas.stream().map(r -> r.getEspaco().getIdEspaco()).collect(Collectors.toSet()));
+
+        ResultadoLoteReservaDTO.Item[] itens = new ResultadoLoteReservaDTO.Item[reservas.size()];
+        List<Integer> validas = new ArrayList<>();
+        LocalDateTime agora = LocalDateTime.now();
+
+        // 2. Validações individuais (as mesmas de criarReserva)
+        for (int i = 0; i < reservas.size(); i++) {
+            Reserva reserva = reservas.get(i);
+            String erro = validarItemLote(reserva, clientes, espacos, agora);
+            if (erro != null) {
+                itens[i] = new ResultadoLoteReservaDTO.Item(i, ResultadoLoteReservaDTO.INVALIDA, null, erro);
+                continue;
+            }
+            reserva.setCliente(clientes.get(reserva.getCliente().getIdUsuario()));
+            reserva.setEspaco(espacos.get(reserva.getEspaco().getIdEspaco()));
+            reserva.setDataReserva(agora);
+            reserva.setStatusReserva("PENDENTE");
+            validas.add(i);
+        }
+
+        // 3. Checagem + inserção
+        if (!validas.isEmpty()) {
+            if (estrategia == EstrategiaReserva.RESTRICAO_BANCO) {
+                gravarLoteComRestricao(reservas, validas, itens);
+            } else if (sequenciadorReservas.ativo()) {
+                Set<String> idsEspaco = validas.stream()
+                    .map(i -> reservas.get(i).getEspaco().getIdEspaco())
+                    .collect(Collectors.toSet());
+                // Cada faixa escreve só nos índices dos próprios espaços
+                sequenciadorReservas.executarPorFaixa(idsEspaco, espacosDaFaixa -> {
+                    List<Integer> daFaixa = validas.stream()
+                        .filter(i -> espacosDaFaixa.contains(reservas.get(i).getEspaco().getIdEspaco()))
+                        .toList();
+                    transactionTemplate.executeWithoutResult(status -> checarEGravarLote(reservas, daFaixa, itens));
+                });
+            } else {
+                transactionTemplate.executeWithoutResult(status -> checarEGravarLote(reservas, validas, itens));
+            }
+        }
+
+        // Faixas que não começaram dentro do tempo de espera deixam seus itens sem resultado
+        int criadas = 0;
+        for (int i = 0; i < itens.length; i++) {
+            if (itens[i] == null) {
+                itens[i] = new ResultadoLoteReservaDTO.Item(i, ResultadoLoteReservaDTO.CONFLITO, null,
+                    "Tempo esgotado aguardando a reserva. Tente novamente.");
+            } else if (ResultadoLoteReservaDTO.CRIADA.equals(itens[i].getStatus())) {
+                criadas++;
+            }
+        }
+
+        ResultadoLoteReservaDTO resultado = new ResultadoLoteReservaDTO();
+        resultado.setItens(List.of(itens));
+        resultado.setCriadas(criadas);
+        resultado.setRejeitadas(reservas.size() - criadas);
+        return resultado;
+    }
+
+    /**
+     * Checa as reservas indicadas contra a ocupação atual (uma consulta) e entre si, e insere as aceitas
+     * em lote (hibernate.jdbc.batch_size). Roda dentro da transação do chamador.
+     */
+    private void checarEGravarLote(List<Reserva> reservas, List<Integer> indices, ResultadoLoteReservaDTO.Item[] itens) {
+        if (indices.isEmpty()) {
+            return;
+        }
+        // As reservas aceitas entram na mesma estrutura para que as seguintes do lote também sejam checadas contra elas
+        List<Reserva> aceitas = new ArrayList<>();
+        List<Integer> indicesAceitas = new ArrayList<>();
+        Map<String, List<Periodo>> ocupacao = carregarOcupacao(reservas, indices);
+        for (int i : indices) {
+            Reserva reserva = reservas.get(i);
+            List<Periodo> periodos = ocupacao.computeIfAbsent(reserva.getEspaco().getIdEspaco(), k -> new ArrayList<>());
+            Periodo periodo = new Periodo(reserva.getDataEvento(), reserva.getDataEventoFim());
+            if (periodos.stream().anyMatch(periodo::sobrepoe)) {
+                itens[i] = new ResultadoLoteReservaDTO.Item(i, ResultadoLoteReservaDTO.CONFLITO, null,
+                    "O espaço não está disponível para o período solicitado.");
+                continue;
+            }
+            periodos.add(periodo);
+            aceitas.add(reserva);
+            indicesAceitas.add(i);
+        }
+
+        List<Reserva> salvas;
+        try {
+            salvas = reservaRepository.saveAllAndFlush(aceitas);
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirViolacao(e);
+        }
+        for (int j = 0; j < salvas.size(); j++) {
+            Reserva salva = salvas.get(j);
+            int i = indicesAceitas.get(j);
+            itens[i] = new ResultadoLoteReservaDTO.Item(i, ResultadoLoteReservaDTO.CRIADA, salva.getIdReserva(), null);
+            publicarAlteracao(salva.getIdReserva(), null, salva);
+        }
+    }
+
+    /**
+     * RESTRICAO_BANCO: tenta o lote inteiro em uma transação; se uma reserva concorrente fizer o banco
+     * recusar (23P01), a transação inteira é desfeita e as reservas são regravadas uma a uma,
+     * cada uma na sua transação, marcando como CONFLITO só as que o banco recusar.
+     */
+    private void gravarLoteComRestricao(List<Reserva> reservas, List<Integer> validas, ResultadoLoteReservaDTO.Item[] itens) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> checarEGravarLote(reservas, validas, itens));
+            return;
+        } catch (ReservaIndisponivelException e) {
+            // Segue para a gravação individual
+        }
+
+        for (int i : validas) {
+            Reserva reserva = reservas.get(i);
+            // O saveAll desfeito já tinha gerado os ids: sem limpar, o save viraria merge de linhas inexistentes
+            reserva.setIdReserva(null);
+            try {
+                Reserva salva = transactionTemplate.execute(status -> {
+                    Reserva gravada = salvarVerificandoSobreposicao(reserva);
+                    publicarAlteracao(gravada.getIdReserva(), null, gravada);
+                    return gravada;
+                });
+                itens[i] = new ResultadoLoteReservaDTO.Item(i, ResultadoLoteReservaDTO.CRIADA, salva.getIdReserva(), null);
+            } catch (ReservaIndisponivelException e) {
+                itens[i] = new ResultadoLoteReservaDTO.Item(i, ResultadoLoteReservaDTO.CONFLITO, null, e.getMessage());
+            }
+        }
+    }
+
+    private String validarItemLote(Reserva reserva, Map<String, Cliente> clientes, Map<String, Espaco> espacos, LocalDateTime agora) {
+        if (!clientes.containsKey(reserva.getCliente().getIdUsuario())) {
+            return "Cliente com ID " + reserva.getCliente().getIdUsuario() + " não encontrado.";
+        }
+        if (!espacos.containsKey(reserva.getEspaco().getIdEspaco())) {
+            return "Espaço com ID " + reserva.getEspaco().getIdEspaco() + " não encontrado.";
+        }
+        if (reserva.getDataEvento() == null) {
+            return "A data do evento é obrigatória.";
+        }
+        if (reserva.getDataEvento().isBefore(agora)) {
+            return "A data do evento não pode ser no passado.";
+        }
+        if (reserva.getDataEventoFim() == null) {
+            reserva.setDataEventoFim(reserva.getDataEvento().plusHours(DURACAO_PADRAO_HORAS));
+        }
+        if (!reserva.getDataEventoFim().isAfter(reserva.getDataEvento())) {
+            return "Período de reserva inválido.";
+        }
+        return null;
+    }
+
+    // Períodos ativos por espaço cobrindo a janela de todas as reservas válidas do lote
+    private Map<String, List<Periodo>> carregarOcupacao(List<Reserva> reservas, List<Integer> validas) {
+        Set<String> idsEspaco = validas.stream()
+            .map(i -> reservas.get(i).getEspaco().getIdEspaco())
+            .collect(Collectors.toSet());
+        LocalDateTime inicio = validas.stream().map(i -> reservas.get(i).getDataEvento())
+            .min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime fim = validas.stream().map(i -> reservas.get(i).getDataEventoFim())
+            .max(LocalDateTime::compareTo).orElseThrow();
+
+        Map<String, List<Periodo>> ocupacao = new HashMap<>();
+        for (IntervaloReserva intervalo : reservaRepository.findIntervalosOcupadosDosEspacos(idsEspaco, inicio, fim)) {
+            ocupacao.computeIfAbsent(intervalo.getIdEspaco(), k -> new ArrayList<>())
+                .add(new Periodo(intervalo.getDataEvento(), intervalo.getDataEventoFim()));
+        }
+        return ocupacao;
+    }
+
+    private record Periodo(LocalDateTime inicio, LocalDateTime fim) {
+        boolean sobrepoe(Periodo outro) {
+            return inicio.isBefore(outro.fim) && fim.isAfter(outro.inicio);
+        }
+    }
+
 // -------------------------------------------------------
 // DELETAR RESERVA (DELETE)
 // -------------------------------------------------------
 public void deletarReserva(String idReserva) {
     Reserva reserva = buscarPorId(idReserva);
+    // O histórico de pagamentos (e o razão) não é apagado junto com a reserva
+    if (pagamentoService.possuiPagamentos(idReserva)) {
+        throw new ValidacaoException("Reserva com pagamentos registrados não pode ser excluída; cancele-a.");
+    }
+    ReservaAlteradaEvent.Estado anterior = ReservaAlteradaEvent.Estado.de(reserva);
 
     reservaRepository.delete(reserva);
+    publicarAlteracao(idReserva, anterior, null);
 }
 
     
@@ -159,10 +481,53 @@ public void deletarReserva(String idReserva) {
                 .orElseThrow(() -> new EntityNotFoundException("Reserva com ID " + idReserva + " não encontrada."));
     }
 
+    /**
+     * Busca a Reserva bloqueando a linha (SELECT ... FOR UPDATE) até o fim da transação do chamador.
+     * @throws EntityNotFoundException se a reserva não for encontrada.
+     */
+    public Reserva buscarParaAtualizar(String idReserva) {
+        return reservaRepository.findParaAtualizar(idReserva)
+                .orElseThrow(() -> new EntityNotFoundException("Reserva com ID " + idReserva + " não encontrada."));
+    }
+
+    /**
+     * Salva e força o flush para que uma violação da restrição de exclusão
+     * (estratégia RESTRICAO_BANCO) apareça aqui como ReservaIndisponivelException.
+     */
+    private Reserva salvarVerificandoSobreposicao(Reserva reserva) {
+        try {
+            return reservaRepository.saveAndFlush(reserva);
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirViolacao(e);
+        }
+    }
+
+    static RuntimeException traduzirViolacao(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && SQLSTATE_VIOLACAO_EXCLUSAO.equals(sql.getSQLState())) {
+                return new ReservaIndisponivelException("O espaço não está disponível para o período solicitado.");
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Avisa os índices em memória (disponibilidade, etc.) sobre a alteração.
+     * Dentro de uma transação os ouvintes só rodam após o commit.
+     */
+    private void publicarAlteracao(String idReserva, ReservaAlteradaEvent.Estado anterior, Reserva atual) {
+        eventPublisher.publishEvent(new ReservaAlteradaEvent(
+            idReserva,
+            anterior,
+            atual != null ? ReservaAlteradaEvent.Estado.de(atual) : null
+        ));
+    }
+
     public ReservaResponse toResponse(Reserva reserva) {
         ReservaResponse response = new ReservaResponse();
         response.setIdReserva(reserva.getIdReserva());
         response.setIdCliente(reserva.getCliente().getIdUsuario());
+        response.setNomeCliente(reserva.getCliente().getNome());
         response.setIdEspaco(reserva.getEspaco().getIdEspaco());
         response.setNomeEspaco(reserva.getEspaco().getNome());
         response.setDataReserva(reserva.getDataReserva());
@@ -170,29 +535,47 @@ public void deletarReserva(String idReserva) {
         response.setValorPago(reserva.getValorPago());
         response.setStatusReserva(reserva.getStatusReserva());
         
-        // Adicionar status do pagamento se existir
-        if (reserva.getPagamento() != null) {
-            response.setStatusPagamento(reserva.getPagamento().getStatus());
-        } else {
-            response.setStatusPagamento("NÃO INICIADO");
-        }
+        // Situação do pagamento pelo saldo materializado (sem ler os pagamentos)
+        response.preencherSaldo(reserva.valorTotalCentavos(), reserva.getSaldoPagoCentavos());
         return response;
     }
 
-    public List<ReservaResponse> listarTodas() {
-        return reservaRepository.findAll().stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
+    /**
+     * Lista as reservas em ordem de criação, paginadas por cursor (dataReserva, idReserva).
+     * @param cursor proximoCursor da página anterior (null na primeira página).
+     */
+    public PaginaDTO<ReservaResponse> listarTodas(String cursor, int limite) {
+        int tamanho = CursorPaginacao.limitar(limite);
+        String[] chaves = CursorPaginacao.decodificar(cursor, 2);
+        List<ReservaResponse> reservas = chaves == null
+            ? reservaRepository.findPagina(Limit.of(tamanho + 1))
+            : reservaRepository.findPaginaApos(lerDataCursor(chaves[0]), chaves[1], Limit.of(tamanho + 1));
+        return CursorPaginacao.montar(reservas, tamanho, ReservaService::cursorDe, r -> r);
     }
 
-    public List<ReservaResponse> listarReservasPorCliente(String idCliente) {
-        return reservaRepository.findByClienteIdUsuario(idCliente).stream()
-            .map(this::toResponse) 
-            .collect(Collectors.toList());
+    public PaginaDTO<ReservaResponse> listarReservasPorCliente(String idCliente, String cursor, int limite) {
+        int tamanho = CursorPaginacao.limitar(limite);
+        String[] chaves = CursorPaginacao.decodificar(cursor, 2);
+        List<ReservaResponse> reservas = chaves == null
+            ? reservaRepository.findPaginaDoCliente(idCliente, Limit.of(tamanho + 1))
+            : reservaRepository.findPaginaDoClienteApos(idCliente, lerDataCursor(chaves[0]), chaves[1], Limit.of(tamanho + 1));
+        return CursorPaginacao.montar(reservas, tamanho, ReservaService::cursorDe, r -> r);
+    }
+
+    private static String cursorDe(ReservaResponse reserva) {
+        return CursorPaginacao.codificar(reserva.getDataReserva().toString(), reserva.getIdReserva());
+    }
+
+    private static LocalDateTime lerDataCursor(String valor) {
+        try {
+            return LocalDateTime.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new ValidacaoException("Cursor inválido.");
+        }
     }
 
     public ReservaResponse buscarPorIdDTO(String idReserva) {
-        Reserva reserva = buscarPorId(idReserva); 
-        return toResponse(reserva);
+        return reservaRepository.findRespostaPorId(idReserva)
+                .orElseThrow(() -> new EntityNotFoundException("Reserva com ID " + idReserva + " não encontrada."));
     }
 }
\ No newline at end of file
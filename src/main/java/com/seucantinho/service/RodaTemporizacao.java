@@ -0,0 +1,134 @@
+package com.seucantinho.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Roda de temporização hierárquica (hierarchical timing wheel): NIVEIS rodas de 64 posições,
+ * cada nível com resolução 64x maior que o anterior. Agendar e cancelar custam O(1), e avançar
+ * o relógio só toca as posições que vencem naquele tick, sem varrer todos os prazos.
+ *
+ * Com tick de 1s: nível 0 cobre ~1 min, nível 1 ~1 h, nível 2 ~3 dias, nível 3 ~6 meses, nível 4 ~34 anos.
+ *
+ * Não é thread-safe: o chamador deve sincronizar.
+ */
+final class RodaTemporizacao<K> {
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    private static final int NIVEIS = 5;
+
+    private final long tickMs;
+    private final List<List<Set<K>>> niveis = new ArrayList<>(NIVEIS);
+    // Prazo (em ticks) e posição de cada chave, para cancelar em O(1)
+    private final Map<K, Posicao> posicoes = new HashMap<>();
+    // Chaves agendadas para um tick já passado: vencem no próximo avanço
+    private final Set<K> atrasadas = new HashSet<>();
+
+    private long tickAtual;
+
+    RodaTemporizacao(long tickMs, long agoraMs) {
+        this.tickMs = tickMs;
+        this.tickAtual = agoraMs / tickMs;
+        for (int n = 0; n < NIVEIS; n++) {
+            List<Set<K>> nivel = new ArrayList<>(POSICOES);
+            for (int i = 0; i < POSICOES; i++) {
+                nivel.add(new HashSet<>());
+            }
+            niveis.add(nivel);
+        }
+    }
+
+    /**
+     * Agenda (ou reagenda) a chave para vencer no instante informado (epoch ms).
+     */
+    void agendar(K chave, long instanteMs) {
+        cancelar(chave);
+        inserir(chave, Math.floorDiv(instanteMs + tickMs - 1, tickMs));
+    }
+
+    boolean cancelar(K chave) {
+        Posicao posicao = posicoes.remove(chave);
+        if (posicao == null) {
+            return false;
+        }
+        if (posicao.nivel() < 0) {
+            atrasadas.remove(chave);
+        } else {
+            niveis.get(posicao.nivel()).get(posicao.indice()).remove(chave);
+        }
+        return true;
+    }
+
+    /**
+     * @return prazo agendado da chave (epoch ms), ou null se não estiver agendada.
+     */
+    Long prazo(K chave) {
+        Posicao posicao = posicoes.get(chave);
+        return posicao != null ? posicao.tick() * tickMs : null;
+    }
+
+    int tamanho() {
+        return posicoes.size();
+    }
+
+    /**
+     * Avança o relógio até o instante informado e devolve as chaves vencidas (já removidas da roda).
+     */
+    List<K> avancar(long agoraMs) {
+        List<K> vencidas = new ArrayList<>(atrasadas);
+        atrasadas.forEach(posicoes::remove);
+        atrasadas.clear();
+
+        long alvo = agoraMs / tickMs;
+        while (tickAtual < alvo) {
+            tickAtual++;
+            // Desce para os níveis inferiores as posições que começam neste tick (do maior nível para o menor)
+            for (int n = NIVEIS - 1; n >= 1; n--) {
+                if ((tickAtual & ((1L << (BITS * n)) - 1)) == 0) {
+                    Set<K> posicao = niveis.get(n).get((int) ((tickAtual >>> (BITS * n)) & MASCARA));
+                    List<K> cascata = new ArrayList<>(posicao);
+                    posicao.clear();
+                    for (K chave : cascata) {
+                        inserir(chave, posicoes.remove(chave).tick());
+                    }
+                }
+            }
+            Set<K> posicao = niveis.get(0).get((int) (tickAtual & MASCARA));
+            for (K chave : posicao) {
+                posicoes.remove(chave);
+                vencidas.add(chave);
+            }
+            posicao.clear();
+            for (K chave : atrasadas) {
+                posicoes.remove(chave);
+                vencidas.add(chave);
+            }
+            atrasadas.clear();
+        }
+        return vencidas;
+    }
+
+    private void inserir(K chave, long tick) {
+        long delta = tick - tickAtual;
+        if (delta <= 0) {
+            atrasadas.add(chave);
+            posicoes.put(chave, new Posicao(tick, -1, -1));
+            return;
+        }
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && delta >= (1L << (BITS * (nivel + 1)))) {
+            nivel++;
+        }
+        int indice = (int) ((tick >>> (BITS * nivel)) & MASCARA);
+        niveis.get(nivel).get(indice).add(chave);
+        posicoes.put(chave, new Posicao(tick, nivel, indice));
+    }
+
+    private record Posicao(long tick, int nivel, int indice) {}
+}
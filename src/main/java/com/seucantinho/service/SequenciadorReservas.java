@@ -0,0 +1,393 @@
+package com.seucantinho.service;
+
+import com.seucantinho.event.ReservaAlteradaEvent;
+import com.seucantinho.exception.ReservaIndisponivelException;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.repository.ReservaRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sequenciador de reservas: cada espaço é atendido por uma única "faixa" (fila + thread),
+ * escolhida pelo hash do idEspaco. Dentro da faixa a checagem de disponibilidade e a
+ * inserção acontecem em ordem, então duas reservas concorrentes para o mesmo espaço nunca
+ * passam juntas pela checagem. Espaços em faixas diferentes seguem em paralelo.
+ *
+ * Cada faixa drena a fila em lotes e grava o lote inteiro em uma única transação (group commit).
+ *
+ * Quem desiste de esperar (tempo esgotado) só sai se a faixa ainda não pegou o pedido; o pedido é
+ * descartado da fila. Se a faixa já pegou, a checagem/gravação está em andamento e o chamador aguarda
+ * o resultado, para nunca responder erro com a reserva gravada.
+ *
+ * Quem grava várias reservas de uma vez (lote, série) usa executarNaFaixa/executarPorFaixa: a tarefa entra
+ * na mesma fila e roda na thread da faixa, depois das reservas enfileiradas antes dela, então a checagem
+ * e a inserção da tarefa também ficam em ordem com as reservas avulsas dos mesmos espaços.
+ */
+@Component
+public class SequenciadorReservas {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenciadorReservas.class);
+
+    private final EspacoService espacoService;
+    private final ReservaRepository reservaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean ativo;
+    private final int loteMaximo;
+    private final long esperaMaximaMs;
+
+    private final Faixa[] faixas;
+    private final DistributionSummary tamanhoLote;
+
+    @Autowired
+    public SequenciadorReservas(
+            EspacoService espacoService,
+            ReservaRepository reservaRepository,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${seucantinho.reservas.sequenciador.ativo:true}") boolean ativo,
+            @Value("${seucantinho.reservas.sequenciador.faixas:8}") int quantidadeFaixas,
+            @Value("${seucantinho.reservas.sequenciador.capacidade-fila:1000}") int capacidadeFila,
+            @Value("${seucantinho.reservas.sequenciador.lote-maximo:32}") int loteMaximo,
+            @Value("${seucantinho.reservas.sequenciador.espera-maxima-ms:10000}") long esperaMaximaMs) {
+        this.espacoService = espacoService;
+        this.reservaRepository = reservaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.ativo = ativo;
+        this.loteMaximo = loteMaximo;
+        this.esperaMaximaMs = esperaMaximaMs;
+
+        this.faixas = new Faixa[quantidadeFaixas];
+        for (int i = 0; i < quantidadeFaixas; i++) {
+            faixas[i] = new Faixa(i, new LinkedBlockingQueue<>(capacidadeFila));
+            Gauge.builder("reservas.sequenciador.fila", faixas[i].fila, BlockingQueue::size)
+                    .description("Reservas aguardando na fila da faixa")
+                    .tag("faixa", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.tamanhoLote = DistributionSummary.builder("reservas.sequenciador.lote")
+                .description("Quantidade de reservas gravadas por transação")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!ativo) {
+            return;
+        }
+        for (Faixa faixa : faixas) {
+            faixa.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void parar() {
+        for (Faixa faixa : faixas) {
+            faixa.thread.interrupt();
+        }
+    }
+
+    public boolean ativo() {
+        return ativo;
+    }
+
+    /**
+     * Enfileira a reserva na faixa do espaço e aguarda a checagem + gravação.
+     * @param reserva Reserva já validada (cliente, espaço, datas e status inicial preenchidos).
+     * @return A Reserva salva.
+     * @throws ReservaIndisponivelException se houver sobreposição ou a fila estiver cheia.
+     */
+    public Reserva reservar(Reserva reserva) {
+        Pedido pedido = Pedido.deReserva(reserva);
+        enfileirar(faixaDe(reserva.getEspaco().getIdEspaco()), pedido);
+        return (Reserva) aguardar(pedido, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs));
+    }
+
+    /**
+     * Roda a tarefa na thread da faixa do espaço, em ordem com as reservas avulsas dele.
+     * A tarefa abre a própria transação; o índice em memória é atualizado no commit, ainda dentro da faixa.
+     * @throws ReservaIndisponivelException se a fila estiver cheia ou o tempo de espera esgotar antes de a tarefa começar.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T executarNaFaixa(String idEspaco, Supplier<T> tarefa) {
+        Pedido pedido = Pedido.deTarefa(tarefa);
+        enfileirar(faixaDe(idEspaco), pedido);
+        return (T) aguardar(pedido, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs));
+    }
+
+    /**
+     * Separa os espaços por faixa e roda a tarefa uma vez em cada faixa, com os espaços dela, em paralelo.
+     * Uma faixa que não começou a tarefa dentro do tempo de espera (ou estava com a fila cheia) é deixada de fora:
+     * cabe à tarefa registrar o que fez, e ao chamador tratar os espaços que ficaram sem resultado.
+     * Se alguma tarefa falhar, a exceção é relançada depois que todas as faixas terminarem.
+     */
+    public void executarPorFaixa(Collection<String> idsEspaco, Consumer<Set<String>> tarefa) {
+        Map<Faixa, Set<String>> porFaixa = new HashMap<>();
+        for (String idEspaco : idsEspaco) {
+            porFaixa.computeIfAbsent(faixaDe(idEspaco), f -> new LinkedHashSet<>()).add(idEspaco);
+        }
+
+        List<Pedido> pedidos = new ArrayList<>(porFaixa.size());
+        for (Map.Entry<Faixa, Set<String>> entrada : porFaixa.entrySet()) {
+            Set<String> espacosDaFaixa = entrada.getValue();
+            Pedido pedido = Pedido.deTarefa(() -> {
+                tarefa.accept(espacosDaFaixa);
+                return null;
+            });
+            if (entrada.getKey().fila.offer(pedido)) {
+                pedidos.add(pedido);
+            }
+        }
+
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        RuntimeException falha = null;
+        for (Pedido pedido : pedidos) {
+            try {
+                aguardar(pedido, prazo);
+            } catch (ReservaIndisponivelException e) {
+                // Tempo esgotado antes de a faixa começar a tarefa: fica sem resultado
+            } catch (RuntimeException e) {
+                if (falha == null) {
+                    falha = e;
+                }
+            }
+        }
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    private Faixa faixaDe(String idEspaco) {
+        return faixas[Math.floorMod(idEspaco.hashCode(), faixas.length)];
+    }
+
+    private void enfileirar(Faixa faixa, Pedido pedido) {
+        if (!faixa.fila.offer(pedido)) {
+            throw new ReservaIndisponivelException("Muitas reservas simultâneas para este espaço. Tente novamente.");
+        }
+    }
+
+    private Object aguardar(Pedido pedido, long prazoNanos) {
+        try {
+            try {
+                return pedido.resultado.get(Math.max(0, prazoNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (pedido.desistir()) {
+                    throw new ReservaIndisponivelException("Tempo esgotado aguardando a reserva. Tente novamente.");
+                }
+                // A faixa já pegou o pedido: a checagem/gravação está em andamento
+                return pedido.resultado.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            pedido.desistir();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reserva interrompida.", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // PROCESSAMENTO DA FAIXA
+    // ------------------------------------------------------------------------
+
+    private void executar(Faixa faixa) {
+        List<Pedido> lote = new ArrayList<>(loteMaximo);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                lote.add(faixa.fila.take());
+                faixa.fila.drainTo(lote, loteMaximo - 1);
+                processarLote(faixa, lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Falha inesperada no sequenciador de reservas (faixa {}).", faixa.numero, e);
+                lote.forEach(p -> p.resultado.completeExceptionally(e));
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void processarLote(Faixa faixa, List<Pedido> lote) {
+        // Uma tarefa é barreira: as reservas que chegaram antes dela são checadas e gravadas primeiro
+        List<Pedido> reservas = new ArrayList<>(lote.size());
+        for (Pedido pedido : lote) {
+            if (pedido.tarefa == null) {
+                reservas.add(pedido);
+                continue;
+            }
+            processarReservas(faixa, reservas);
+            reservas.clear();
+            if (pedido.assumir()) {
+                try {
+                    pedido.resultado.complete(pedido.tarefa.get());
+                } catch (RuntimeException e) {
+                    pedido.resultado.completeExceptionally(e);
+                }
+            }
+        }
+        processarReservas(faixa, reservas);
+    }
+
+    private void processarReservas(Faixa faixa, List<Pedido> lote) {
+        // 1. Checagem em ordem de chegada, considerando também as reservas já aceitas neste lote
+        List<Pedido> aceitos = new ArrayList<>(lote.size());
+        for (Pedido pedido : lote) {
+            if (!pedido.assumir()) {
+                continue; // O chamador desistiu enquanto o pedido estava na fila
+            }
+            Reserva reserva = pedido.reserva;
+            faixa.espera.record(System.nanoTime() - pedido.enfileiradoEm, TimeUnit.NANOSECONDS);
+            try {
+                boolean livre = espacoService.verificarDisponibilidade(
+                        reserva.getEspaco().getIdEspaco(), reserva.getDataEvento(), reserva.getDataEventoFim());
+                if (!livre || conflitaComLote(reserva, aceitos)) {
+                    throw new ReservaIndisponivelException("O espaço não está disponível para o período solicitado.");
+                }
+                aceitos.add(pedido);
+            } catch (RuntimeException e) {
+                pedido.resultado.completeExceptionally(e);
+            }
+        }
+        if (aceitos.isEmpty()) {
+            return;
+        }
+
+        // 2. Grava todas as aceitas em uma única transação
+        try {
+            List<Reserva> salvas = transactionTemplate.execute(status -> gravar(aceitos));
+            tamanhoLote.record(aceitos.size());
+            for (int i = 0; i < aceitos.size(); i++) {
+                aceitos.get(i).resultado.complete(salvas.get(i));
+            }
+        } catch (RuntimeException e) {
+            // Se o lote falhar, grava uma a uma para isolar a reserva com problema
+            log.warn("Falha ao gravar lote de {} reservas; gravando individualmente.", aceitos.size(), e);
+            for (Pedido pedido : aceitos) {
+                // O saveAll desfeito já tinha gerado os ids: sem limpar, o save viraria merge de linhas inexistentes
+                pedido.reserva.setIdReserva(null);
+                try {
+                    Reserva salva = transactionTemplate.execute(status -> gravar(List.of(pedido)).get(0));
+                    tamanhoLote.record(1);
+                    pedido.resultado.complete(salva);
+                } catch (RuntimeException falha) {
+                    pedido.resultado.completeExceptionally(falha);
+                }
+            }
+        }
+    }
+
+    private List<Reserva> gravar(List<Pedido> pedidos) {
+        List<Reserva> salvas = reservaRepository.saveAll(pedidos.stream().map(p -> p.reserva).toList());
+        // Publicado dentro da transação: os índices em memória só são atualizados após o commit
+        for (Reserva salva : salvas) {
+            eventPublisher.publishEvent(new ReservaAlteradaEvent(
+                    salva.getIdReserva(), null, ReservaAlteradaEvent.Estado.de(salva)));
+        }
+        return salvas;
+    }
+
+    private boolean conflitaComLote(Reserva nova, List<Pedido> aceitos) {
+        if (!Reserva.ocupaEspaco(nova.getStatusReserva())) {
+            return false;
+        }
+        for (Pedido pedido : aceitos) {
+            Reserva aceita = pedido.reserva;
+            if (aceita.getEspaco().getIdEspaco().equals(nova.getEspaco().getIdEspaco())
+                    && Reserva.ocupaEspaco(aceita.getStatusReserva())
+                    && nova.getDataEvento().isBefore(aceita.getDataEventoFim())
+                    && nova.getDataEventoFim().isAfter(aceita.getDataEvento())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Reserva avulsa (reserva preenchida) ou tarefa de várias reservas (tarefa preenchida)
+    private record Pedido(Reserva reserva, Supplier<?> tarefa, CompletableFuture<Object> resultado,
+                          long enfileiradoEm, AtomicInteger estado) {
+
+        static final int NA_FILA = 0;
+        static final int COM_A_FAIXA = 1;
+        static final int DESISTIU = 2;
+
+        static Pedido deReserva(Reserva reserva) {
+            return new Pedido(reserva, null, new CompletableFuture<>(), System.nanoTime(), new AtomicInteger(NA_FILA));
+        }
+
+        static Pedido deTarefa(Supplier<?> tarefa) {
+            return new Pedido(null, tarefa, new CompletableFuture<>(), System.nanoTime(), new AtomicInteger(NA_FILA));
+        }
+
+        // Chamador: só desiste se a faixa ainda não pegou o pedido
+        boolean desistir() {
+            if (estado.compareAndSet(NA_FILA, DESISTIU)) {
+                resultado.cancel(false);
+                return true;
+            }
+            return false;
+        }
+
+        // Faixa: pega o pedido para checar e gravar, se o chamador ainda espera
+        boolean assumir() {
+            return estado.compareAndSet(NA_FILA, COM_A_FAIXA);
+        }
+    }
+
+    private final class Faixa {
+
+        final int numero;
+        final BlockingQueue<Pedido> fila;
+        final Timer espera;
+        final Thread thread;
+
+        Faixa(int numero, BlockingQueue<Pedido> fila) {
+            this.numero = numero;
+            this.fila = fila;
+            // Por faixa, não por espaço: a quantidade de séries da métrica fica fixa
+            this.espera = Timer.builder("reservas.sequenciador.espera")
+                    .description("Tempo entre enfileirar a reserva e ela ser processada")
+                    .tag("faixa", String.valueOf(numero))
+                    .register(meterRegistry);
+            this.thread = new Thread(() -> executar(this), "sequenciador-reservas-" + numero);
+            this.thread.setDaemon(true);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.seucantinho.service;
+
+import com.seucantinho.dto.SerieReservaResponse;
+import com.seucantinho.event.ReservaAlteradaEvent;
+import com.seucantinho.exception.ReservaIndisponivelException;
+import com.seucantinho.exception.ValidacaoException;
+import com.seucantinho.model.Cliente;
+import com.seucantinho.model.Espaco;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.model.SerieReserva;
+import com.seucantinho.repository.IntervaloReserva;
+import com.seucantinho.repository.ReservaRepository;
+import com.seucantinho.repository.SerieReservaRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+@Service
+public class SerieReservaService {
+
+    public static final Set<String> FREQUENCIAS = Set.of("DIARIA", "SEMANAL", "MENSAL");
+    // Limite de ocorrências por série (um ano de reservas diárias)
+    public static final int MAXIMO_OCORRENCIAS = 366;
+    // Quantas datas em conflito são citadas na mensagem de erro
+    private static final int CONFLITOS_NA_MENSAGEM = 10;
+
+    private final SerieReservaRepository serieReservaRepository;
+    private final ReservaRepository reservaRepository;
+    private final ClienteService clienteService;
+    private final EspacoService espacoService;
+    private final PagamentoService pagamentoService;
+    private final SequenciadorReservas sequenciadorReservas;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EstrategiaReserva estrategia;
+
+    @Autowired
+    public SerieReservaService(
+        SerieReservaRepository serieReservaRepository,
+        ReservaRepository reservaRepository,
+        ClienteService clienteService,
+        EspacoService espacoService,
+        PagamentoService pagamentoService,
+        SequenciadorReservas sequenciadorReservas,
+        ApplicationEventPublisher eventPublisher,
+        TransactionTemplate transactionTemplate,
+        @Value("${seucantinho.reservas.estrategia:VERIFICAR_E_INSERIR}") EstrategiaReserva estrategia
+    ) {
+        this.serieReservaRepository = serieReservaRepository;
+        this.reservaRepository = reservaRepository;
+        this.clienteService = clienteService;
+        this.espacoService = espacoService;
+        this.pagamentoService = pagamentoService;
+        this.sequenciadorReservas = sequenciadorReservas;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.estrategia = estrategia;
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS PRINCIPAIS
+    // ------------------------------------------------------------------------
+
+    /**
+     * Cria a série e todas as suas ocorrências (status PENDENTE) em uma transação.
+     * A série inteira é checada contra a agenda do espaço com uma única consulta por faixa de datas
+     * e uma varredura com dois ponteiros (ocorrências e reservas existentes, ambas ordenadas).
+     * Com VERIFICAR_E_INSERIR e o sequenciador ativo, checagem + gravação rodam na faixa do espaço,
+     * em ordem com as reservas avulsas e os lotes que disputam os mesmos horários.
+     * @throws ReservaIndisponivelException se qualquer ocorrência conflitar, listando as datas.
+     */
+    public SerieReservaResponse criarSerie(SerieReserva serie) {
+        // 1. Validação de Cliente e Espaço
+        Cliente cliente = clienteService.buscarEntityPorId(serie.getCliente().getIdUsuario());
+        Espaco espaco = espacoService.buscarEntityPorId(serie.getEspaco().getIdEspaco());
+        serie.setCliente(cliente);
+        serie.setEspaco(espaco);
+
+        // 2. Validação da regra
+        validarRegra(serie);
+        serie.setStatus("ATIVA");
+
+        // 3. Expansão das ocorrências (sob demanda, já em ordem cronológica)
+        List<LocalDateTime> inicios = serie.inicios().limit(MAXIMO_OCORRENCIAS + 1L).toList();
+        if (inicios.size() > MAXIMO_OCORRENCIAS) {
+            throw new ValidacaoException("A série ultrapassa o limite de " + MAXIMO_OCORRENCIAS + " ocorrências.");
+        }
+
+        // 4 e 5. Checagem de conflitos + gravação
+        if (estrategia == EstrategiaReserva.VERIFICAR_E_INSERIR && sequenciadorReservas.ativo()) {
+            return sequenciadorReservas.executarNaFaixa(espaco.getIdEspaco(),
+                () -> transactionTemplate.execute(status -> checarEGravar(serie, inicios)));
+        }
+        return transactionTemplate.execute(status -> checarEGravar(serie, inicios));
+    }
+
+    private SerieReservaResponse checarEGravar(SerieReserva serie, List<LocalDateTime> inicios) {
+        Espaco espaco = serie.getEspaco();
+
+        // 4. Checagem de conflitos contra a agenda do espaço
+        LocalDateTime fimUltima = inicios.get(inicios.size() - 1).plusMinutes(serie.getDuracaoMinutos());
+        List<LocalDateTime> conflitos = buscarConflitos(espaco.getIdEspaco(), inicios, serie.getDuracaoMinutos(),
+            reservaRepository.findIntervalosOcupadosDoEspaco(espaco.getIdEspaco(), inicios.get(0), fimUltima));
+        if (!conflitos.isEmpty()) {
+            throw new ReservaIndisponivelException("O espaço não está disponível em " + conflitos.size()
+                + " ocorrência(s) da série: " + conflitos.stream().limit(CONFLITOS_NA_MENSAGEM).toList());
+        }
+
+        // 5. Gravação da série e das ocorrências (JDBC batch)
+        SerieReserva serieSalva = serieReservaRepository.save(serie);
+        LocalDateTime agora = LocalDateTime.now();
+        List<Reserva> ocorrencias = new ArrayList<>(inicios.size());
+        for (LocalDateTime inicio : inicios) {
+            Reserva reserva = new Reserva();
+            reserva.setCliente(serie.getCliente());
+            reserva.setEspaco(espaco);
+            reserva.setSerie(serieSalva);
+            reserva.setDataReserva(agora);
+            reserva.setDataEvento(inicio);
+            reserva.setDataEventoFim(inicio.plusMinutes(serie.getDuracaoMinutos()));
+            reserva.setValorPago(serie.getValorPorOcorrencia());
+            reserva.setStatusReserva("PENDENTE");
+            ocorrencias.add(reserva);
+        }
+
+        List<Reserva> salvas;
+        try {
+            salvas = reservaRepository.saveAllAndFlush(ocorrencias);
+        } catch (DataIntegrityViolationException e) {
+            throw ReservaService.traduzirViolacao(e);
+        }
+        for (Reserva salva : salvas) {
+            eventPublisher.publishEvent(new ReservaAlteradaEvent(
+                salva.getIdReserva(), null, ReservaAlteradaEvent.Estado.de(salva)));
+        }
+        return toResponse(serieSalva, salvas.size());
+    }
+
+    /**
+     * Cancela a série e todas as ocorrências futuras ainda canceláveis. As ocorrências são bloqueadas
+     * antes de mudar (um pagamento concorrente espera e encontra a reserva já CANCELADA); o que já foi pago
+     * nas ocorrências SINAL_PAGO é estornado no razão e os pagamentos ficam ESTORNO_PENDENTE.
+     */
+    @Transactional
+    public SerieReservaResponse cancelarSerie(String idSerie) {
+        SerieReserva serie = buscarPorId(idSerie);
+        LocalDateTime agora = LocalDateTime.now();
+
+        List<Reserva> afetadas = reservaRepository.findOcorrenciasParaAtualizar(
+            idSerie, agora, Set.of("PENDENTE", "SINAL_PAGO"));
+
+        for (Reserva reserva : afetadas) {
+            // Estado anterior, para avisar os índices em memória
+            ReservaAlteradaEvent.Estado anterior = ReservaAlteradaEvent.Estado.de(reserva);
+            reserva.setStatusReserva("CANCELADA");
+            if ("SINAL_PAGO".equals(anterior.status())) {
+                pagamentoService.estornarPagamentosDaReserva(reserva.getIdReserva());
+            }
+            eventPublisher.publishEvent(new ReservaAlteradaEvent(
+                reserva.getIdReserva(), anterior, ReservaAlteradaEvent.Estado.de(reserva)));
+        }
+        serie.setStatus("CANCELADA");
+        return toResponse(serie, afetadas.size());
+    }
+
+    /**
+     * Altera o valor por ocorrência da série e das ocorrências futuras não canceladas (um único UPDATE).
+     */
+    @Transactional
+    public SerieReservaResponse atualizarValorSerie(String idSerie, float valorPorOcorrencia) {
+        if (valorPorOcorrencia < 0) {
+            throw new ValidacaoException("O valor por ocorrência não pode ser negativo.");
+        }
+        SerieReserva serie = buscarPorId(idSerie);
+        if ("CANCELADA".equals(serie.getStatus())) {
+            throw new ValidacaoException("A série está cancelada e não pode ser alterada.");
+        }
+        int atualizadas = reservaRepository.atualizarValorOcorrenciasDaSerie(idSerie, LocalDateTime.now(), valorPorOcorrencia);
+        serie.setValorPorOcorrencia(valorPorOcorrencia);
+        return toResponse(serie, atualizadas);
+    }
+
+    public SerieReservaResponse buscarPorIdDTO(String idSerie) {
+        SerieReserva serie = buscarPorId(idSerie);
+        return toResponse(serie, (int) serie.inicios().limit(MAXIMO_OCORRENCIAS).count());
+    }
+
+    public SerieReserva buscarPorId(String idSerie) {
+        return serieReservaRepository.findById(idSerie)
+            .orElseThrow(() -> new EntityNotFoundException("Série de reservas com ID " + idSerie + " não encontrada."));
+    }
+
+    // ------------------------------------------------------------------------
+    // MÉTODOS AUXILIARES
+    // ------------------------------------------------------------------------
+
+    private void validarRegra(SerieReserva serie) {
+        if (serie.getDataPrimeiroEvento() == null || serie.getDataFimSerie() == null) {
+            throw new ValidacaoException("A data da primeira ocorrência e a data final da série são obrigatórias.");
+        }
+        if (serie.getDataPrimeiroEvento().isBefore(LocalDateTime.now())) {
+            throw new ValidacaoException("A data do evento não pode ser no passado.");
+        }
+        if (serie.getDataFimSerie().isBefore(serie.getDataPrimeiroEvento().toLocalDate())) {
+            throw new ValidacaoException("A data final da série não pode ser anterior à primeira ocorrência.");
+        }
+        if (serie.getFrequencia() == null || !FREQUENCIAS.contains(serie.getFrequencia())) {
+            throw new ValidacaoException("Frequência inválida. Use DIARIA, SEMANAL ou MENSAL.");
+        }
+        if (serie.getIntervalo() < 1) {
+            throw new ValidacaoException("O intervalo deve ser no mínimo 1.");
+        }
+        if (serie.getDuracaoMinutos() < 1) {
+            throw new ValidacaoException("A duração deve ser de pelo menos 1 minuto.");
+        }
+        // Uma ocorrência não pode sobrepor a seguinte da própria série
+        LocalDateTime segunda = serie.inicios().skip(1).findFirst().orElse(null);
+        if (segunda != null && serie.getDataPrimeiroEvento().plusMinutes(serie.getDuracaoMinutos()).isAfter(segunda)) {
+            throw new ValidacaoException("A duração de cada ocorrência é maior que o intervalo entre elas.");
+        }
+    }
+
+    /**
+     * Varredura com dois ponteiros: as ocorrências e os intervalos existentes estão ordenados pelo início,
+     * então cada intervalo é visitado uma única vez. Guardando o maior fim entre os intervalos já visitados
+     * (os que começam antes do fim da ocorrência) detecta-se sobreposição mesmo com intervalos encaixados.
+     */
+    private static List<LocalDateTime> buscarConflitos(
+            String idEspaco, List<LocalDateTime> inicios, int duracaoMinutos, List<IntervaloReserva> existentes) {
+        List<IntervaloReserva> ordenados = new ArrayList<>(existentes);
+        ordenados.sort(Comparator.comparing(IntervaloReserva::getDataEvento));
+
+        List<LocalDateTime> conflitos = new ArrayList<>();
+        Iterator<IntervaloReserva> cursor = ordenados.iterator();
+        IntervaloReserva proximo = cursor.hasNext() ? cursor.next() : null;
+        LocalDateTime maiorFim = null;
+
+        for (LocalDateTime inicio : inicios) {
+            LocalDateTime fim = inicio.plusMinutes(duracaoMinutos);
+            while (proximo != null && proximo.getDataEvento().isBefore(fim)) {
+                if (maiorFim == null || proximo.getDataEventoFim().isAfter(maiorFim)) {
+                    maiorFim = proximo.getDataEventoFim();
+                }
+                proximo = cursor.hasNext() ? cursor.next() : null;
+            }
+            if (maiorFim != null && maiorFim.isAfter(inicio)) {
+                conflitos.add(inicio);
+            }
+        }
+        return conflitos;
+    }
+
+    private SerieReservaResponse toResponse(SerieReserva serie, int ocorrencias) {
+        SerieReservaResponse response = new SerieReservaResponse();
+        response.setIdSerie(serie.getIdSerie());
+        response.setIdCliente(serie.getCliente().getIdUsuario());
+        response.setIdEspaco(serie.getEspaco().getIdEspaco());
+        response.setDataPrimeiroEvento(serie.getDataPrimeiroEvento());
+        response.setDuracaoMinutos(serie.getDuracaoMinutos());
+        response.setFrequencia(serie.getFrequencia());
+        response.setIntervalo(serie.getIntervalo());
+        response.setDataFimSerie(serie.getDataFimSerie());
+        response.setValorPorOcorrencia(serie.getValorPorOcorrencia());
+        response.setStatus(serie.getStatus());
+        response.setOcorrencias(ocorrencias);
+        return response;
+    }
+}
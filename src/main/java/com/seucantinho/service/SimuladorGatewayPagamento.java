@@ -0,0 +1,77 @@
+package com.seucantinho.service;
+
+import com.seucantinho.exception.GatewayIndisponivelException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gateway local para desenvolvimento e testes de carga. Recusa cartões com CVV 000 e aprova os demais.
+ *
+ * Latência com distribuição log-normal definida pela mediana e pelo p99 (cauda longa, como a de um
+ * gateway real); uma fração das chamadas falha com erro técnico e outra "trava" por travamento-ms,
+ * para exercitar o timeout e o circuit breaker.
+ */
+@Component
+@ConditionalOnProperty(name = "seucantinho.pagamentos.gateway.tipo", havingValue = "simulador", matchIfMissing = true)
+public class SimuladorGatewayPagamento implements GatewayPagamento {
+
+    // Quantil 0,99 da normal padrão
+    private static final double Z_P99 = 2.3263;
+
+    private final double mediaLogMs;
+    private final double desvioLog;
+    private final double taxaErro;
+    private final double taxaTravamento;
+    private final long travamentoMs;
+
+    @Autowired
+    public SimuladorGatewayPagamento(
+            @Value("${seucantinho.pagamentos.gateway.simulador.latencia-mediana-ms:150}") double medianaMs,
+            @Value("${seucantinho.pagamentos.gateway.simulador.latencia-p99-ms:1200}") double p99Ms,
+            @Value("${seucantinho.pagamentos.gateway.simulador.taxa-erro:0}") double taxaErro,
+            @Value("${seucantinho.pagamentos.gateway.simulador.taxa-travamento:0}") double taxaTravamento,
+            @Value("${seucantinho.pagamentos.gateway.simulador.travamento-ms:60000}") long travamentoMs) {
+        if (medianaMs <= 0 || p99Ms < medianaMs) {
+            throw new IllegalArgumentException("Latência do simulador inválida: mediana deve ser > 0 e p99 >= mediana.");
+        }
+        this.mediaLogMs = Math.log(medianaMs);
+        this.desvioLog = Math.log(p99Ms / medianaMs) / Z_P99;
+        this.taxaErro = taxaErro;
+        this.taxaTravamento = taxaTravamento;
+        this.travamentoMs = travamentoMs;
+    }
+
+    @Override
+    public Resultado cobrar(Cobranca cobranca) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        double sorteio = aleatorio.nextDouble();
+        if (sorteio < taxaTravamento) {
+            esperar(travamentoMs);
+            throw new GatewayIndisponivelException("Gateway simulado não respondeu.");
+        }
+        esperar(Math.round(Math.exp(mediaLogMs + desvioLog * aleatorio.nextGaussian())));
+        if (sorteio < taxaTravamento + taxaErro) {
+            throw new GatewayIndisponivelException("Erro simulado do gateway.");
+        }
+
+        // Falha se o CVV for 000
+        if (cobranca.cvv() != null && cobranca.cvv() == 0) {
+            return Resultado.RECUSADO;
+        }
+        return Resultado.APROVADO;
+    }
+
+    private static void esperar(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            // Interrompido pelo timeout da chamada
+            Thread.currentThread().interrupt();
+            throw new GatewayIndisponivelException("Chamada ao gateway simulado interrompida.", e);
+        }
+    }
+}
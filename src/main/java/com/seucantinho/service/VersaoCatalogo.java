@@ -0,0 +1,86 @@
+package com.seucantinho.service;
+
+import com.seucantinho.event.EspacoAlteradoEvent;
+import com.seucantinho.event.FilialAlteradaEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Versão do catálogo (espaços e filiais) para GETs condicionais: ETag forte e Last-Modified
+ * calculados só a partir de um contador, sem serializar a resposta.
+ *
+ * O contador só anda com os eventos de escrita do EspacoService e do FilialService (após o commit),
+ * e depois de CatalogoEspacos/IndiceGeograficoFiliais (@Order) já terem aplicado a alteração;
+ * assim um ETag novo nunca acompanha dados antigos. O instante de subida entra no ETag para que
+ * versões de processos diferentes não colidam.
+ */
+@Component
+public class VersaoCatalogo {
+
+    /**
+     * Ordem dos listeners que atualizam leituras em memória do catálogo: antes de a versão andar.
+     */
+    public static final int ORDEM_ATUALIZACAO_LEITURA = Ordered.HIGHEST_PRECEDENCE;
+
+    private final long inicio = System.currentTimeMillis();
+    private final CacheControl cacheControl;
+
+    private long versao = 0;
+    private volatile Marca atual;
+
+    /**
+     * @param etag ETag forte, já entre aspas.
+     * @param ultimaAlteracao Instante (epoch ms) da última escrita, ou da subida se não houve nenhuma.
+     */
+    public record Marca(String etag, long ultimaAlteracao) {
+    }
+
+    @Autowired
+    public VersaoCatalogo(
+            @Value("${seucantinho.catalogo.http-cache.max-age-segundos:0}") long maxAgeSegundos,
+            @Value("${seucantinho.catalogo.http-cache.s-maxage-segundos:10}") long sMaxAgeSegundos) {
+        // max-age 0 + must-revalidate: o app sempre revalida (304 barato); s-maxage deixa o proxy responder sozinho por alguns segundos
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos))
+                .sMaxAge(Duration.ofSeconds(sMaxAgeSegundos))
+                .cachePublic()
+                .mustRevalidate();
+        this.atual = new Marca(etag(versao), inicio);
+    }
+
+    // Ler antes de montar a resposta: se houver escrita no meio, o ETag fica velho (e o próximo GET busca de novo)
+    public Marca atual() {
+        return atual;
+    }
+
+    public CacheControl cacheControl() {
+        return cacheControl;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEspaco(EspacoAlteradoEvent evento) {
+        avancar();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarFilial(FilialAlteradaEvent evento) {
+        avancar();
+    }
+
+    private synchronized void avancar() {
+        versao++;
+        atual = new Marca(etag(versao), System.currentTimeMillis());
+    }
+
+    private String etag(long versao) {
+        return "\"catalogo-" + Long.toString(inicio, 36) + "-" + versao + "\"";
+    }
+}
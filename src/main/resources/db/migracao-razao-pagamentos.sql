@@ -0,0 +1,48 @@
+-- Pagamentos anteriores ao razão: TB_PAGAMENTO tinha 'valor' em reais e uma restrição única em
+-- id_reserva (antigo @OneToOne). Executado na subida (MigracaoRazaoPagamentos), depois do hbm2ddl;
+-- só age enquanto a coluna 'valor' existir. Comandos separados por '@@' porque o bloco DO contém ';'.
+
+DO $$
+DECLARE
+    restricao record;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'tb_pagamento' AND column_name = 'valor') THEN
+        RETURN;
+    END IF;
+
+    -- Vários pagamentos por reserva: remove a restrição única só de id_reserva
+    FOR restricao IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'tb_pagamento'::regclass
+          AND c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND a.attname = 'id_reserva'
+    LOOP
+        EXECUTE format('ALTER TABLE tb_pagamento DROP CONSTRAINT %I', restricao.conname);
+    END LOOP;
+
+    UPDATE tb_pagamento SET valor_centavos = round(valor * 100);
+
+    -- Pagamentos aprovados viram o primeiro lançamento do razão de cada reserva
+    INSERT INTO tb_lancamento_pagamento
+        (id_lancamento, id_reserva, id_pagamento, tipo, valor_centavos, saldo_apos_centavos, data_lancamento)
+    SELECT gen_random_uuid()::text, p.id_reserva, p.id_pagamento, 'PAGAMENTO',
+           p.valor_centavos, p.valor_centavos, coalesce(p.data_pagamento, now())
+    FROM tb_pagamento p
+    WHERE p.status = 'QUITADO'
+    ON CONFLICT DO NOTHING;
+
+    UPDATE tb_reserva r
+    SET saldo_pago_centavos = l.total
+    FROM (SELECT id_reserva, sum(valor_centavos) AS total
+          FROM tb_lancamento_pagamento
+          GROUP BY id_reserva) l
+    WHERE l.id_reserva = r.id_reserva;
+
+    ALTER TABLE tb_pagamento DROP COLUMN valor;
+END
+$$
+@@
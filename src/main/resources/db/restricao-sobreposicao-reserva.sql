@@ -0,0 +1,25 @@
+-- Estratégia RESTRICAO_BANCO: o próprio PostgreSQL impede reservas sobrepostas no mesmo espaço.
+-- Executado na subida da aplicação (RestricaoSobreposicaoReserva). Os comandos são idempotentes
+-- e separados por '@@' porque o bloco DO contém ';'.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist
+@@
+
+-- Período da reserva como tsrange '[inicio, fim)', calculado pelo banco
+ALTER TABLE tb_reserva
+    ADD COLUMN IF NOT EXISTS periodo tsrange
+    GENERATED ALWAYS AS (tsrange(data_evento, data_evento_fim)) STORED
+@@
+
+-- Os status do WHERE devem ficar iguais a Reserva.STATUS_QUE_OCUPAM
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_reserva_sobreposicao') THEN
+        ALTER TABLE tb_reserva
+            ADD CONSTRAINT ex_reserva_sobreposicao
+            EXCLUDE USING gist (id_espaco WITH =, periodo WITH &&)
+            WHERE (status_reserva IN ('PENDENTE', 'SINAL_PAGO', 'QUITADA', 'CONFIRMADA'));
+    END IF;
+END
+$$
+@@
@@ -0,0 +1,136 @@
+package com.seucantinho.repository;
+
+import com.seucantinho.dto.ReservaResponse;
+import com.seucantinho.model.Cliente;
+import com.seucantinho.model.Filial;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.model.Salao;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * As consultas de resposta da ReservaRepository montam o ReservaResponse em uma única instrução SQL
+ * (projeção com JOIN em cliente e espaço), sem consultas extras por linha. Conferido pelas
+ * estatísticas do Hibernate (generate_statistics no application.yml).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ReservaRepositoryConsultasTest {
+
+    private static final int RESERVAS = 5;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cliente cliente;
+    private Reserva primeira;
+
+    @BeforeEach
+    void criarReservas() {
+        Filial filial = new Filial();
+        filial.setNomeFilial("Filial Centro");
+        filial.setStatus(true);
+        entityManager.persist(filial);
+
+        Salao salao = new Salao();
+        salao.setNome("Salão Principal");
+        salao.setTipo("SALAO");
+        salao.setCapacidade(100);
+        salao.setPreco(500f);
+        salao.setFilial(filial);
+        entityManager.persist(salao);
+
+        cliente = new Cliente();
+        cliente.setNome("Maria");
+        cliente.setEmail("maria@exemplo.com");
+        cliente.setSenha("segredo");
+        cliente.setCpf("12345678901");
+        cliente.setTipoUsuario("CLIENTE");
+        cliente.setEndereco("Rua A, 1");
+        entityManager.persist(cliente);
+
+        LocalDateTime base = LocalDateTime.of(2031, 3, 1, 10, 0);
+        for (int i = 0; i < RESERVAS; i++) {
+            Reserva reserva = new Reserva();
+            reserva.setCliente(cliente);
+            reserva.setEspaco(salao);
+            reserva.setDataReserva(base.plusMinutes(i));
+            reserva.setDataEvento(base.plusDays(i + 1));
+            reserva.setDataEventoFim(base.plusDays(i + 1).plusHours(4));
+            reserva.setValorPago(500f);
+            reserva.setStatusReserva("PENDENTE");
+            entityManager.persist(reserva);
+            if (i == 0) {
+                primeira = reserva;
+            }
+        }
+        // Nada pendente nem em cache na sessão: cada chamada abaixo vai ao banco
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findRespostaPorIdUsaUmaInstrucao() {
+        ReservaResponse resposta = umaInstrucao(() -> reservaRepository.findRespostaPorId(primeira.getIdReserva()).orElseThrow());
+        assertEquals("Maria", resposta.getNomeCliente());
+        assertEquals("Salão Principal", resposta.getNomeEspaco());
+    }
+
+    @Test
+    void findPaginaUsaUmaInstrucao() {
+        List<ReservaResponse> pagina = umaInstrucao(() -> reservaRepository.findPagina(Limit.of(3)));
+        assertEquals(3, pagina.size());
+    }
+
+    @Test
+    void findPaginaAposUsaUmaInstrucao() {
+        List<ReservaResponse> pagina = umaInstrucao(() -> reservaRepository.findPaginaApos(
+                primeira.getDataReserva(), primeira.getIdReserva(), Limit.of(RESERVAS)));
+        assertEquals(RESERVAS - 1, pagina.size());
+    }
+
+    @Test
+    void findPaginaDoClienteUsaUmaInstrucao() {
+        List<ReservaResponse> pagina = umaInstrucao(() -> reservaRepository.findPaginaDoCliente(
+                cliente.getIdUsuario(), Limit.of(RESERVAS)));
+        assertEquals(RESERVAS, pagina.size());
+    }
+
+    @Test
+    void findPaginaDoClienteAposUsaUmaInstrucao() {
+        List<ReservaResponse> pagina = umaInstrucao(() -> reservaRepository.findPaginaDoClienteApos(
+                cliente.getIdUsuario(), primeira.getDataReserva(), primeira.getIdReserva(), Limit.of(RESERVAS)));
+        assertEquals(RESERVAS - 1, pagina.size());
+    }
+
+    private <T> T umaInstrucao(Supplier<T> consulta) {
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(estatisticas.isStatisticsEnabled(), "hibernate.generate_statistics deve estar ligado");
+        estatisticas.clear();
+
+        T resultado = consulta.get();
+
+        assertEquals(1, estatisticas.getPrepareStatementCount(), "instruções SQL preparadas");
+        assertEquals(0, estatisticas.getEntityLoadCount(), "entidades carregadas");
+        return resultado;
+    }
+}
@@ -0,0 +1,149 @@
+package com.seucantinho.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seucantinho.dto.EspacoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark JMH do GET da lista de espaços: JSON já renderizado do CacheJsonCatalogo contra a
+ * serialização pelo Jackson a cada requisição (o que o controller fazia antes), com e sem gzip.
+ * Mede também a re-renderização depois de um espaço alterado, que só reserializa o fragmento dele.
+ *
+ * Fora do "mvn test" padrão (tag benchmark); roda com "mvn test -Pbenchmark".
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheJsonCatalogoBenchmarkTest {
+
+    @Param({"100", "1000"})
+    public int espacos;
+
+    private ObjectMapper objectMapper;
+    private CacheJsonCatalogo cache;
+    private List<EspacoDTO> catalogo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cache = new CacheJsonCatalogo(objectMapper, new SimpleMeterRegistry(), 1000);
+        catalogo = new ArrayList<>(espacos);
+        for (int i = 0; i < espacos; i++) {
+            catalogo.add(espaco(i, "Salão " + i));
+        }
+        catalogo = List.copyOf(catalogo);
+    }
+
+    /**
+     * Catálogo depois de uma escrita: nova lista com um único DTO trocado (como o CatalogoEspacos faz),
+     * montada antes de cada chamada para que toda chamada encontre uma versão nova.
+     */
+    @State(Scope.Thread)
+    public static class Alteracao {
+
+        private List<EspacoDTO> catalogo;
+
+        @Setup(Level.Invocation)
+        public void alterarUmEspaco(CacheJsonCatalogoBenchmarkTest base) {
+            List<EspacoDTO> copia = new ArrayList<>(base.catalogo);
+            int indice = base.espacos / 2;
+            copia.set(indice, espaco(indice, "Salão alterado " + System.nanoTime()));
+            catalogo = copia;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // LISTA SEM COMPRESSÃO
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    public byte[] serializacaoPorRequisicao() throws IOException {
+        return objectMapper.writeValueAsBytes(catalogo);
+    }
+
+    @Benchmark
+    public byte[] jsonEmCache() {
+        return cache.listaEspacos(catalogo).identidade();
+    }
+
+    // ------------------------------------------------------------------------
+    // LISTA COM GZIP
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    public byte[] serializacaoGzipPorRequisicao() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            objectMapper.writeValue(gzip, catalogo);
+        }
+        return saida.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] jsonGzipEmCache() {
+        return cache.listaEspacos(catalogo).gzip();
+    }
+
+    // ------------------------------------------------------------------------
+    // PRIMEIRA REQUISIÇÃO DEPOIS DE UMA ESCRITA
+    // ------------------------------------------------------------------------
+
+    @Benchmark
+    public byte[] jsonAposAlteracao(Alteracao alteracao) {
+        return cache.listaEspacos(alteracao.catalogo).identidade();
+    }
+
+    @Test
+    void executar() throws Exception {
+        Options opcoes = new OptionsBuilder()
+                .include(CacheJsonCatalogoBenchmarkTest.class.getName())
+                .build();
+        new Runner(opcoes).run();
+    }
+
+    private static EspacoDTO espaco(int i, String nome) {
+        EspacoDTO dto = new EspacoDTO();
+        dto.setIdEspaco(String.format("00000000-0000-0000-0000-%012d", i));
+        dto.setNome(nome);
+        dto.setIdFilial("filial-" + (i % 10));
+        dto.setNomeFilial("Filial " + (i % 10));
+        dto.setStatusFilial(true);
+        dto.setTipo("SALAO");
+        dto.setCapacidade(50 + i % 200);
+        dto.setPreco(300f + i);
+        dto.setFoto("espacos/" + i + ".jpg");
+        dto.setTamanhoCozinha("MEDIA");
+        dto.setQuantidadeCadeiras(100);
+        dto.setAreaTotal(250f);
+        return dto;
+    }
+}
@@ -0,0 +1,230 @@
+package com.seucantinho.service;
+
+import com.seucantinho.SeuCantinhoApplication;
+import com.seucantinho.dto.EspacoDTO;
+import com.seucantinho.exception.ReservaIndisponivelException;
+import com.seucantinho.model.Cliente;
+import com.seucantinho.model.Espaco;
+import com.seucantinho.model.Filial;
+import com.seucantinho.model.Reserva;
+import com.seucantinho.repository.ClienteRepository;
+import com.seucantinho.repository.EspacoRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de disputa na criação de reservas: compara VERIFICAR_E_INSERIR (checagem + insert, padrão)
+ * com RESTRICAO_BANCO (só insert; a restrição de exclusão GiST barra a sobreposição) no PostgreSQL.
+ *
+ * Várias threads disputam os mesmos horários de poucos espaços. Para cada estratégia sobe a aplicação
+ * com o schema zerado, aquece com uma rodada em outras datas e mede a rodada seguinte: vazão, latência
+ * (p50/p99) e quantas tentativas ganharam ou foram recusadas. Nas duas estratégias cada horário deve ter
+ * exatamente uma reserva e nenhuma sobreposição pode chegar ao banco.
+ *
+ * Fora do "mvn test" padrão (tag benchmark); roda com "mvn test -Pbenchmark" e precisa de Docker.
+ */
+@Tag("benchmark")
+@Testcontainers(disabledWithoutDocker = true)
+class DisputaReservaBenchmarkTest {
+
+    private static final int ESPACOS = 4;
+    private static final int HORARIOS_POR_ESPACO = 25;
+    private static final int TENTATIVAS_POR_HORARIO = 8;
+    private static final int THREADS = 32;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @ParameterizedTest
+    @EnumSource(EstrategiaReserva.class)
+    void disputaPelosMesmosHorarios(EstrategiaReserva estrategia) throws Exception {
+        zerarSchema();
+
+        try (ConfigurableApplicationContext contexto = subirAplicacao(estrategia)) {
+            ReservaService reservaService = contexto.getBean(ReservaService.class);
+            Cliente cliente = criarCliente(contexto);
+            List<Espaco> espacos = criarEspacos(contexto);
+
+            // Aquecimento (JIT, pool de conexões, caches) em datas que a rodada medida não usa
+            disputar(reservaService, cliente, espacos, LocalDateTime.of(2035, 1, 1, 8, 0));
+            Rodada rodada = disputar(reservaService, cliente, espacos, LocalDateTime.of(2036, 1, 1, 8, 0));
+
+            System.out.printf(Locale.ROOT,
+                    "[benchmark] %-19s %4d tentativas em %6d ms: %7.1f req/s, p50 %6.2f ms, p99 %6.2f ms, %d aceitas, %d recusadas%n",
+                    estrategia, rodada.tentativas(), rodada.duracaoMs(), rodada.vazao(),
+                    rodada.percentilMs(50), rodada.percentilMs(99), rodada.aceitas(), rodada.recusadas());
+
+            assertEquals(0, rodada.erros(), "tentativas que falharam sem ser recusa de disponibilidade");
+            assertEquals(ESPACOS * HORARIOS_POR_ESPACO, rodada.aceitas(), "uma reserva aceita por horário");
+            assertEquals(0, contarSobreposicoes(contexto), "reservas sobrepostas gravadas no banco");
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // PREPARAÇÃO
+    // ------------------------------------------------------------------------
+
+    private static void zerarSchema() {
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbc.execute("DROP SCHEMA public CASCADE");
+        jdbc.execute("CREATE SCHEMA public");
+    }
+
+    // Como argumentos de linha de comando: precisam valer sobre o application.yml
+    private static ConfigurableApplicationContext subirAplicacao(EstrategiaReserva estrategia) {
+        return new SpringApplicationBuilder(SeuCantinhoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                        "--spring.datasource.username=" + POSTGRES.getUsername(),
+                        "--spring.datasource.password=" + POSTGRES.getPassword(),
+                        "--spring.datasource.hikari.maximum-pool-size=" + THREADS,
+                        "--spring.jpa.show-sql=false",
+                        "--seucantinho.reservas.estrategia=" + estrategia,
+                        // Só a criação de reservas é medida; sem expiração nem varreduras concorrendo
+                        "--seucantinho.reservas.ciclo.ativo=false");
+    }
+
+    private static Cliente criarCliente(ConfigurableApplicationContext contexto) {
+        Cliente cliente = new Cliente();
+        cliente.setNome("Cliente Benchmark");
+        cliente.setEmail("benchmark@exemplo.com");
+        cliente.setSenha("segredo");
+        cliente.setCpf("12345678901");
+        cliente.setTipoUsuario("CLIENTE");
+        cliente.setEndereco("Rua A, 1");
+        return contexto.getBean(ClienteRepository.class).save(cliente);
+    }
+
+    private static List<Espaco> criarEspacos(ConfigurableApplicationContext contexto) {
+        Filial filial = new Filial();
+        filial.setNomeFilial("Filial Benchmark");
+        filial.setStatus(true);
+        filial = contexto.getBean(FilialService.class).salvarFilial(filial);
+
+        EspacoService espacoService = contexto.getBean(EspacoService.class);
+        EspacoRepository espacoRepository = contexto.getBean(EspacoRepository.class);
+        List<Espaco> espacos = new ArrayList<>();
+        for (int i = 0; i < ESPACOS; i++) {
+            EspacoDTO dto = new EspacoDTO();
+            dto.setNome("Salão " + i);
+            dto.setIdFilial(filial.getIdFilial());
+            dto.setTipo("SALAO");
+            dto.setCapacidade(100);
+            dto.setPreco(500f);
+            String idEspaco = espacoService.salvarEspaco(dto).getIdEspaco();
+            espacos.add(espacoRepository.findById(idEspaco).orElseThrow());
+        }
+        return espacos;
+    }
+
+    // ------------------------------------------------------------------------
+    // RODADA
+    // ------------------------------------------------------------------------
+
+    /**
+     * Cada horário (2h, um por dia a partir de inicio) de cada espaço recebe TENTATIVAS_POR_HORARIO
+     * pedidos, enfileirados em sequência: as tentativas do mesmo horário rodam ao mesmo tempo
+     * em threads diferentes.
+     */
+    private static Rodada disputar(ReservaService reservaService, Cliente cliente, List<Espaco> espacos,
+                                   LocalDateTime inicio) throws Exception {
+        List<Reserva> pedidos = new ArrayList<>();
+        for (Espaco espaco : espacos) {
+            for (int h = 0; h < HORARIOS_POR_ESPACO; h++) {
+                for (int t = 0; t < TENTATIVAS_POR_HORARIO; t++) {
+                    Reserva reserva = new Reserva();
+                    reserva.setCliente(cliente);
+                    reserva.setEspaco(espaco);
+                    reserva.setDataEvento(inicio.plusDays(h));
+                    reserva.setDataEventoFim(inicio.plusDays(h).plusHours(2));
+                    reserva.setValorPago(500f);
+                    pedidos.add(reserva);
+                }
+            }
+        }
+
+        AtomicInteger aceitas = new AtomicInteger();
+        AtomicInteger recusadas = new AtomicInteger();
+        AtomicInteger erros = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> latencias = new ArrayList<>();
+        long comeco = System.nanoTime();
+        try {
+            for (Reserva pedido : pedidos) {
+                latencias.add(executor.submit(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        reservaService.criarReserva(pedido);
+                        aceitas.incrementAndGet();
+                    } catch (ReservaIndisponivelException e) {
+                        recusadas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        erros.incrementAndGet();
+                    }
+                    return System.nanoTime() - t0;
+                }));
+            }
+            long[] nanos = new long[latencias.size()];
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = latencias.get(i).get();
+            }
+            long duracao = System.nanoTime() - comeco;
+            return new Rodada(pedidos.size(), duracao, nanos, aceitas.get(), recusadas.get(), erros.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int contarSobreposicoes(ConfigurableApplicationContext contexto) {
+        Integer total = contexto.getBean(JdbcTemplate.class).queryForObject("""
+                SELECT COUNT(*) FROM tb_reserva a
+                JOIN tb_reserva b ON b.id_espaco = a.id_espaco AND b.id_reserva > a.id_reserva
+                 AND b.data_evento < a.data_evento_fim AND a.data_evento < b.data_evento_fim
+                WHERE a.status_reserva IN ('PENDENTE', 'SINAL_PAGO', 'QUITADA', 'CONFIRMADA')
+                  AND b.status_reserva IN ('PENDENTE', 'SINAL_PAGO', 'QUITADA', 'CONFIRMADA')
+                """, Integer.class);
+        return total == null ? 0 : total;
+    }
+
+    private record Rodada(int tentativas, long duracaoNanos, long[] latenciasNanos,
+                          int aceitas, int recusadas, int erros) {
+
+        long duracaoMs() {
+            return duracaoNanos / 1_000_000;
+        }
+
+        double vazao() {
+            return tentativas * 1_000_000_000.0 / duracaoNanos;
+        }
+
+        double percentilMs(int percentil) {
+            long[] ordenadas = latenciasNanos.clone();
+            Arrays.sort(ordenadas);
+            int indice = Math.min(ordenadas.length - 1, (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1);
+            return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+        }
+    }
+}